@@ -0,0 +1,72 @@
+package net.dapete.locks.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Per-thread sequence of keys, drawn from {@link #keys} different keys either uniformly or following a Zipfian distribution (hot keys).
+ * <p>
+ * The sequence has at least as many samples as there are keys, so with many keys each thread touches a large part of them (about two thirds with the
+ * uniform distribution) before it repeats. The keys are boxed in advance and shared by all threads, so boxing is not part of the measurement, and each
+ * thread only stores the indexes of its samples, which takes 4 MB per thread for one million keys.
+ */
+@State(Scope.Thread)
+public class KeySamples {
+
+    private static final int MIN_SAMPLES = 1 << 16;
+
+    /**
+     * Boxed keys shared by all threads, created by the first thread which needs them.
+     */
+    private static Integer[] sharedBoxedKeys = new Integer[0];
+
+    /**
+     * Number of different keys.
+     */
+    @Param({"1", "1000", "1000000"})
+    public int keys;
+
+    /**
+     * Distribution of keys, {@code uniform} or {@code zipfian}.
+     */
+    @Param({"uniform", "zipfian"})
+    public String distribution = "uniform";
+
+    private Integer[] boxedKeys = new Integer[0];
+
+    private int[] samples = new int[0];
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        boxedKeys = boxedKeys(keys);
+        final var random = new Random(Thread.currentThread().getId());
+        final var zipfianSampler = "zipfian".equals(distribution) ? new ZipfianSampler(keys, 0.99) : null;
+        // a power of two, so next() can wrap around with a mask
+        samples = new int[Math.max(MIN_SAMPLES, Integer.highestOneBit(keys - 1) << 1)];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = zipfianSampler != null ? zipfianSampler.sample(random) - 1 : random.nextInt(keys);
+        }
+    }
+
+    private static synchronized Integer[] boxedKeys(int keys) {
+        if (sharedBoxedKeys.length != keys) {
+            sharedBoxedKeys = new Integer[keys];
+            for (int i = 0; i < keys; i++) {
+                sharedBoxedKeys[i] = i;
+            }
+        }
+        return sharedBoxedKeys;
+    }
+
+    Integer next() {
+        index = (index + 1) & (samples.length - 1);
+        return boxedKeys[samples[index]];
+    }
+
+}
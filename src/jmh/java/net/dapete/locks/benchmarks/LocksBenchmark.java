@@ -0,0 +1,129 @@
+package net.dapete.locks.benchmarks;
+
+import net.dapete.locks.DeadlockDetector;
+import net.dapete.locks.Locks;
+import net.dapete.locks.ReferenceCountedLocks;
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Benchmarks for {@link Locks#get(Object)}, {@link Locks#lock(Object)} and {@link Locks#acquire(Object)}, single-threaded (uncontended) and using all
+ * available processors (contended).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocksBenchmark {
+
+    /**
+     * Type of {@link Locks} instance.
+     */
+    @Param({"reentrant", "reentrantFair", "adaptive", "eliding", "deadlockDetecting", "striped", "referenceCounted"})
+    public String type = "reentrant";
+
+    private Locks<Integer, ? extends Lock> locks = Locks.reentrant();
+
+    private @Nullable ReferenceCountedLocks<Integer, ReentrantLock> referenceCountedLocks;
+
+    @Setup
+    public void setUp() {
+        switch (type) {
+            case "reentrant":
+                locks = Locks.reentrant();
+                break;
+            case "reentrantFair":
+                locks = Locks.reentrant(true);
+                break;
+            case "adaptive":
+                locks = Locks.adaptive();
+                break;
+            case "eliding":
+                locks = Locks.eliding();
+                break;
+            case "deadlockDetecting":
+                locks = Locks.deadlockDetecting(DeadlockDetector.breakingCycles(Duration.ofSeconds(1)));
+                break;
+            case "striped":
+                locks = Locks.striped(1024);
+                break;
+            case "referenceCounted":
+                referenceCountedLocks = Locks.referenceCounted();
+                locks = referenceCountedLocks;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+    }
+
+    private Object get(KeySamples keySamples) {
+        final var key = keySamples.next();
+        final var lock = locks.get(key);
+        if (referenceCountedLocks != null) {
+            referenceCountedLocks.release(key);
+        }
+        return lock;
+    }
+
+    private void lockUnlock(KeySamples keySamples) {
+        final var key = keySamples.next();
+        if (referenceCountedLocks != null) {
+            referenceCountedLocks.lock(key);
+            referenceCountedLocks.unlock(key);
+        } else {
+            locks.lock(key).unlock();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object get_uncontended(KeySamples keySamples) {
+        return get(keySamples);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object get_contended(KeySamples keySamples) {
+        return get(keySamples);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void lock_uncontended(KeySamples keySamples) {
+        lockUnlock(keySamples);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void lock_contended(KeySamples keySamples) {
+        lockUnlock(keySamples);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void acquire_uncontended(KeySamples keySamples, Blackhole blackhole) {
+        try (var handle = locks.acquire(keySamples.next())) {
+            blackhole.consume(handle);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package net.dapete.locks.benchmarks;
+
+import net.dapete.locks.ReadWriteLocks;
+import net.dapete.locks.ReferenceCountedReadWriteLocks;
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Benchmarks for {@link ReadWriteLocks#readLock(Object)} and {@link ReadWriteLocks#writeLock(Object)}, single-threaded (uncontended), using all available
+ * processors (contended) and with a mix of three readers per writer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadWriteLocksBenchmark {
+
+    /**
+     * Type of {@link ReadWriteLocks} instance.
+     */
+    @Param({"reentrant", "reentrantFair", "readerBiased", "writePreferring", "striped", "referenceCounted"})
+    public String type = "reentrant";
+
+    private ReadWriteLocks<Integer, ? extends ReadWriteLock> locks = ReadWriteLocks.reentrant();
+
+    private @Nullable ReferenceCountedReadWriteLocks<Integer, ReentrantReadWriteLock> referenceCountedLocks;
+
+    @Setup
+    public void setUp() {
+        switch (type) {
+            case "reentrant":
+                locks = ReadWriteLocks.reentrant();
+                break;
+            case "reentrantFair":
+                locks = ReadWriteLocks.reentrant(true);
+                break;
+            case "readerBiased":
+                locks = ReadWriteLocks.readerBiased();
+                break;
+            case "writePreferring":
+                locks = ReadWriteLocks.writePreferring();
+                break;
+            case "striped":
+                locks = ReadWriteLocks.striped(1024);
+                break;
+            case "referenceCounted":
+                referenceCountedLocks = ReadWriteLocks.referenceCounted();
+                locks = referenceCountedLocks;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+    }
+
+    private void readLockUnlock(KeySamples keySamples) {
+        final var key = keySamples.next();
+        if (referenceCountedLocks != null) {
+            referenceCountedLocks.readLock(key);
+            referenceCountedLocks.unlockRead(key);
+        } else {
+            locks.readLock(key).readLock().unlock();
+        }
+    }
+
+    private void writeLockUnlock(KeySamples keySamples) {
+        final var key = keySamples.next();
+        if (referenceCountedLocks != null) {
+            referenceCountedLocks.writeLock(key);
+            referenceCountedLocks.unlockWrite(key);
+        } else {
+            locks.writeLock(key).writeLock().unlock();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void readLock_uncontended(KeySamples keySamples) {
+        readLockUnlock(keySamples);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void readLock_contended(KeySamples keySamples) {
+        readLockUnlock(keySamples);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void writeLock_uncontended(KeySamples keySamples) {
+        writeLockUnlock(keySamples);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void writeLock_contended(KeySamples keySamples) {
+        writeLockUnlock(keySamples);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public void mixed_readLock(KeySamples keySamples) {
+        readLockUnlock(keySamples);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixed_writeLock(KeySamples keySamples) {
+        writeLockUnlock(keySamples);
+    }
+
+}
@@ -0,0 +1,100 @@
+package net.dapete.locks.benchmarks;
+
+import net.dapete.locks.Locks;
+import net.dapete.locks.ReferenceCountedLocks;
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Benchmark for many virtual threads locking distinct keys at the same time. Each invocation starts {@link #threads} virtual threads, each of which locks
+ * its own key and holds the lock until all threads have locked theirs, so that many locks exist at the same time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadsBenchmark {
+
+    /**
+     * Type of {@link Locks} instance.
+     */
+    @Param({"reentrant", "forVirtualThreads", "referenceCounted"})
+    public String type = "forVirtualThreads";
+
+    /**
+     * Number of concurrent virtual threads.
+     */
+    @Param({"1000", "100000"})
+    public int threads = 100_000;
+
+    private Locks<Integer, ? extends Lock> locks = Locks.forVirtualThreads();
+
+    private @Nullable ReferenceCountedLocks<Integer, ReentrantLock> referenceCountedLocks;
+
+    @Setup
+    public void setUp() {
+        switch (type) {
+            case "reentrant":
+                locks = Locks.reentrant();
+                break;
+            case "forVirtualThreads":
+                locks = Locks.forVirtualThreads();
+                break;
+            case "referenceCounted":
+                referenceCountedLocks = Locks.referenceCounted();
+                locks = referenceCountedLocks;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+    }
+
+    @Benchmark
+    public void lockDistinctKeys() throws InterruptedException {
+        final var allLocked = new CountDownLatch(threads);
+        final var unlock = new CountDownLatch(1);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < threads; i++) {
+                final Integer key = i;
+                executor.execute(() -> lockUntil(key, allLocked, unlock));
+            }
+            allLocked.await();
+            unlock.countDown();
+        }
+    }
+
+    private void lockUntil(Integer key, CountDownLatch allLocked, CountDownLatch unlock) {
+        final var lock = locks.lock(key);
+        try {
+            allLocked.countDown();
+            unlock.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (referenceCountedLocks != null) {
+                referenceCountedLocks.unlock(key);
+            } else {
+                lock.unlock();
+            }
+        }
+    }
+
+}
@@ -12,5 +12,9 @@ import org.jspecify.annotations.NullMarked;
 @NullMarked
 module net.dapete.locks {
     requires org.jspecify;
+    // only needed for LocksManagement
+    requires static java.management;
+    // only needed to emit JDK Flight Recorder events, which are disabled if this is not available
+    requires static jdk.jfr;
     exports net.dapete.locks;
 }
@@ -2,38 +2,131 @@ package net.dapete.locks;
 
 import org.jspecify.annotations.Nullable;
 
+import java.lang.ref.Cleaner;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
-import java.util.HashMap;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
  * Abstract base implementation of key-based locking.
+ * <p>
+ * Looking up an existing lock does not acquire any lock. Creating a lock and removing locks which have been marked as unreachable by the garbage collector
+ * use the atomic operations of {@link ConcurrentMap}, so there is still at most one lock per key at any given time.
+ * <p>
+ * When and by which thread locks marked as unreachable are removed is determined by the {@link CleanupStrategy}. If the strategy is
+ * {@link CleanupStrategy#referenceCounted()}, locks are not kept in a {@link WeakReference} at all. Instead, each call to {@link #get(Object)} increments the
+ * number of holders of the lock, each call to {@link #releaseHeld(Object)} decrements it, and the lock is removed as soon as there are no more holders. Removed
+ * locks may be reused for other keys if a {@link LockPool} is passed to the constructor.
+ * <p>
+ * New locks are created before they are inserted into the map, so the lock supplier is never called while {@link ConcurrentHashMap} holds the monitor of a
+ * bin. Suppliers may block or be slow without holding up other keys, and a virtual thread calling the supplier does not pin its carrier thread.
+ * <p>
+ * If a {@link LockMetrics} instance is passed to the constructor, creating and removing locks is recorded, and so is locking by subclasses using methods like
+ * {@link #meteredLock(Object, Lock)}. These methods also emit a {@link KeyLockWaitEvent} to JDK Flight Recorder for long waits, if it is recording.
  *
  * @param <K> type of key
  * @param <L> type of lock
  */
 abstract class AbstractLocks<K, L> {
 
-    private final Lock instanceLock = new ReentrantLock();
+    private static final String CLEANUP_THREAD_NAME = "net.dapete.locks-cleanup";
 
-    private final Map<K, LockReference<K, L>> lockReferenceMap = new HashMap<>();
+    private static final LockWaitEvents WAIT_EVENTS = LockWaitEvents.getInstance();
+
+    private final ConcurrentMap<K, LockReference<K, L>> lockReferenceMap = new ConcurrentHashMap<>();
 
     private final ReferenceQueue<L> lockReferenceQueue = new ReferenceQueue<>();
 
-    private final Supplier<L> lockSupplier;
+    private final ConcurrentMap<K, CountedLock<L>> countedLockMap = new ConcurrentHashMap<>();
+
+    private final Function<? super K, ? extends L> lockFactory;
+
+    /**
+     * Maximum number of references removed from the queue per call in the calling thread, {@code 0} if this is done elsewhere.
+     */
+    private final int maxReferencesPerCall;
+
+    private final @Nullable Cleaner cleaner;
+
+    private final boolean referenceCounted;
+
+    private final @Nullable LockMetrics<K> metrics;
+
+    private final @Nullable LockPool<L> pool;
+
+    private final LongAdder creations = new LongAdder();
+
+    /**
+     * Lock used by {@link OrderedLocking} if two locks have the same identity hash code.
+     */
+    private final Lock tieLock = new ReentrantLock();
 
     protected AbstractLocks(Supplier<L> lockSupplier) {
-        this.lockSupplier = lockSupplier;
+        this(lockSupplier, CleanupStrategy.callingThread());
+    }
+
+    protected AbstractLocks(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy) {
+        this(lockSupplier, cleanupStrategy, null);
     }
 
-    private L createLock(K key) {
-        final var newLock = lockSupplier.get();
-        lockReferenceMap.put(key, new LockReference<>(key, newLock, lockReferenceQueue));
-        return newLock;
+    protected AbstractLocks(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy, @Nullable LockMetrics<K> metrics) {
+        this(lockSupplier, cleanupStrategy, metrics, null);
+    }
+
+    protected AbstractLocks(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy, @Nullable LockMetrics<K> metrics, @Nullable LockPool<L> pool) {
+        this(key -> lockSupplier.get(), cleanupStrategy, metrics, pool);
+    }
+
+    /**
+     * @param lockFactory     function creating a lock for a key, for locks which need to know their key; locks created by it must not be reused for other
+     *                        keys, so {@code pool} should be {@code null}
+     * @param cleanupStrategy strategy for removing unused locks
+     * @param metrics         metrics to record, or {@code null}
+     * @param pool            pool of unused locks, or {@code null}
+     */
+    protected AbstractLocks(Function<? super K, ? extends L> lockFactory, CleanupStrategy cleanupStrategy, @Nullable LockMetrics<K> metrics,
+                            @Nullable LockPool<L> pool) {
+        this.lockFactory = lockFactory;
+        this.metrics = metrics;
+        this.pool = pool;
+        referenceCounted = cleanupStrategy.getMode() == CleanupStrategy.Mode.REFERENCE_COUNTED;
+        switch (cleanupStrategy.getMode()) {
+            case DAEMON_THREAD:
+                maxReferencesPerCall = 0;
+                cleaner = null;
+                ThreadSupport.startDaemonThread(CLEANUP_THREAD_NAME, new DaemonCleanup<>(this, lockReferenceMap, lockReferenceQueue, metrics));
+                break;
+            case VIRTUAL_THREAD:
+                maxReferencesPerCall = 0;
+                cleaner = null;
+                ThreadSupport.startVirtualThreadIfSupported(CLEANUP_THREAD_NAME, new DaemonCleanup<>(this, lockReferenceMap, lockReferenceQueue, metrics));
+                break;
+            case REFERENCE_COUNTED:
+                maxReferencesPerCall = 0;
+                cleaner = null;
+                break;
+            case CLEANER:
+                maxReferencesPerCall = 0;
+                cleaner = cleanupStrategy.getCleaner();
+                break;
+            default:
+                maxReferencesPerCall = cleanupStrategy.getMaxReferencesPerCall();
+                cleaner = null;
+                break;
+        }
     }
 
     /**
@@ -44,18 +137,324 @@ abstract class AbstractLocks<K, L> {
      */
     public final L get(K key) {
         processQueue();
-        instanceLock.lock();
+        return lookup(key);
+    }
+
+    /**
+     * Returns the locks for all supplied keys, like calling {@link #get(Object)} for each distinct key, but removing locks marked as unreachable only once.
+     *
+     * @param keys keys
+     * @return unmodifiable map of keys to locks, in the iteration order of {@code keys}
+     * @since 1.4.0
+     */
+    public final Map<K, L> getAll(Collection<? extends K> keys) {
+        return Collections.unmodifiableMap(getAllInternal(keys));
+    }
+
+    /**
+     * Returns the locks for all supplied keys, like {@link #get(Object)}, but removing locks marked as unreachable only once.
+     *
+     * @param keys keys
+     * @return map of keys to locks, in the iteration order of {@code keys}
+     */
+    final Map<K, L> getAllInternal(Collection<? extends K> keys) {
+        processQueue();
+        final var locks = new LinkedHashMap<K, L>(mapCapacity(keys.size()));
+        for (final K key : keys) {
+            if (!locks.containsKey(key)) {
+                locks.put(key, lookup(key));
+            }
+        }
+        return locks;
+    }
+
+    /**
+     * Returns the initial capacity of a {@link java.util.HashMap} which holds the expected number of entries without being resized.
+     */
+    static int mapCapacity(int expectedSize) {
+        return (int) Math.min((long) expectedSize * 4 / 3 + 1, Integer.MAX_VALUE);
+    }
+
+    final Lock getTieLock() {
+        return tieLock;
+    }
+
+    private L lookup(K key) {
+        if (referenceCounted) {
+            return lookupCounted(key);
+        }
+        final var lockReference = lockReferenceMap.get(key);
+        if (lockReference != null) {
+            final L lock = lockReference.get();
+            if (lock != null) {
+                return lock;
+            }
+        }
+        return getOrCreateLock(key);
+    }
+
+    /**
+     * Returns the existing lock for the key, incrementing the number of its holders, or inserts a new lock with one holder.
+     */
+    private L lookupCounted(K key) {
+        final var existingCountedLock = countedLockMap.computeIfPresent(key, AbstractLocks::acquireCounted);
+        if (existingCountedLock != null) {
+            return existingCountedLock.getLock();
+        }
+        final var newCountedLock = newCountedLock(key);
+        while (true) {
+            if (countedLockMap.putIfAbsent(key, newCountedLock) == null) {
+                recordCreation();
+                return newCountedLock.getLock();
+            }
+            // another thread inserted a lock in the meantime, which may also have been released again
+            final var otherCountedLock = countedLockMap.computeIfPresent(key, AbstractLocks::acquireCounted);
+            if (otherCountedLock != null) {
+                if (pool != null) {
+                    // never inserted, so it is not reachable using any key
+                    pool.offer(newCountedLock);
+                }
+                return otherCountedLock.getLock();
+            }
+        }
+    }
+
+    /**
+     * Returns a lock with one holder, reused from the pool if possible.
+     */
+    private CountedLock<L> newCountedLock(K key) {
+        if (pool != null) {
+            final var pooledCountedLock = pool.poll();
+            if (pooledCountedLock != null) {
+                return pooledCountedLock;
+            }
+        }
+        return new CountedLock<>(lockFactory.apply(key));
+    }
+
+    private static <K, L> CountedLock<L> acquireCounted(K key, CountedLock<L> countedLock) {
+        countedLock.acquire();
+        return countedLock;
+    }
+
+    /**
+     * Atomically returns the existing lock for the key or replaces a missing or cleared reference with a new lock. The new lock is discarded if another thread
+     * inserted a lock for the key first.
+     */
+    private L getOrCreateLock(K key) {
+        final L newLock = lockFactory.apply(key);
+        final var newLockReference = createLockReference(key, newLock);
+        while (true) {
+            final var existingReference = lockReferenceMap.putIfAbsent(key, newLockReference);
+            if (existingReference == null) {
+                recordCreation();
+                return newLock;
+            }
+            final L existingLock = existingReference.get();
+            if (existingLock != null) {
+                return existingLock;
+            }
+            if (lockReferenceMap.replace(key, existingReference, newLockReference)) {
+                recordCreation();
+                return newLock;
+            }
+        }
+    }
+
+    private LockReference<K, L> createLockReference(K key, L newLock) {
+        if (cleaner == null) {
+            return new LockReference<>(key, newLock, lockReferenceQueue);
+        }
+        final var newLockReference = new LockReference<>(key, newLock, null);
+        // the cleanup action must not reference the lock itself, otherwise it would never become unreachable
+        final var map = lockReferenceMap;
+        final var metrics = this.metrics;
+        cleaner.register(newLock, () -> {
+            if (map.remove(key, newLockReference) && metrics != null) {
+                metrics.recordEviction();
+            }
+        });
+        return newLockReference;
+    }
+
+    /**
+     * Returns the lock for the supplied key which is currently held by the caller, without changing the number of holders. This is only supported if locks
+     * are reference counted.
+     *
+     * @param key key
+     * @return lock
+     * @throws IllegalStateException if there is no lock for the key
+     */
+    final L getHeld(K key) {
+        final var countedLock = countedLockMap.get(key);
+        if (countedLock == null) {
+            throw new IllegalStateException("No lock is held for key " + key);
+        }
+        return countedLock.getLock();
+    }
+
+    /**
+     * Releases a lock previously returned by {@link #get(Object)}, removing it if there are no more holders. Does nothing unless locks are reference counted.
+     *
+     * @param key key
+     * @throws IllegalStateException if locks are reference counted and there is no lock for the key
+     */
+    final void releaseHeld(K key) {
+        if (referenceCounted) {
+            // the lock cannot be replaced while the caller holds it, so if it has been, the caller did not hold it
+            final var releasedCountedLock = countedLockMap.get(key);
+            final var remainingCountedLock = countedLockMap.compute(key, (k, countedLock) -> {
+                if (countedLock == null || countedLock != releasedCountedLock) {
+                    throw new IllegalStateException("No lock is held for key " + k);
+                }
+                if (countedLock.release()) {
+                    recordEviction();
+                    return null;
+                }
+                return countedLock;
+            });
+            if (remainingCountedLock == null && pool != null && releasedCountedLock != null) {
+                // only added to the pool once it has been removed, so it is never reachable using this key again
+                pool.offer(releasedCountedLock);
+            }
+        }
+    }
+
+    /**
+     * Locks {@code lock}, the lock for {@code key} or one of its parts, like {@link Lock#lock()}, recording metrics and events if enabled.
+     */
+    final void meteredLock(K key, Lock lock) {
+        if (metrics == null && !WAIT_EVENTS.isEnabled()) {
+            lock.lock();
+            return;
+        }
+        boolean interrupted = false;
         try {
-            final var lockReference = getLockReference(key);
-            if (lockReference != null) {
+            if (lock.tryLock(0, TimeUnit.NANOSECONDS)) {
+                recordAcquisition(key);
+                return;
+            }
+        } catch (InterruptedException e) {
+            // lock() must not throw, so the interrupt is only restored after locking
+            interrupted = true;
+        }
+        final long start = System.nanoTime();
+        final var event = WAIT_EVENTS.begin();
+        lock.lock();
+        recordContendedAcquisition(key, lock, start, event);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Locks {@code lock} like {@link Lock#lockInterruptibly()}, recording metrics and events if enabled.
+     */
+    final void meteredLockInterruptibly(K key, Lock lock) throws InterruptedException {
+        if (metrics == null && !WAIT_EVENTS.isEnabled()) {
+            lock.lockInterruptibly();
+            return;
+        }
+        if (lock.tryLock(0, TimeUnit.NANOSECONDS)) {
+            recordAcquisition(key);
+            return;
+        }
+        final long start = System.nanoTime();
+        final var event = WAIT_EVENTS.begin();
+        lock.lockInterruptibly();
+        recordContendedAcquisition(key, lock, start, event);
+    }
+
+    /**
+     * Locks {@code lock} like {@link Lock#tryLock()}, recording metrics if enabled.
+     */
+    final boolean meteredTryLock(K key, Lock lock) {
+        if (lock.tryLock()) {
+            recordAcquisition(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Locks {@code lock} like {@link Lock#tryLock(long, TimeUnit)}, recording metrics and events if enabled.
+     */
+    final boolean meteredTryLock(K key, Lock lock, long timeout, TimeUnit unit) throws InterruptedException {
+        if (metrics == null && !WAIT_EVENTS.isEnabled()) {
+            return lock.tryLock(timeout, unit);
+        }
+        if (lock.tryLock(0, TimeUnit.NANOSECONDS)) {
+            recordAcquisition(key);
+            return true;
+        }
+        final long start = System.nanoTime();
+        final var event = WAIT_EVENTS.begin();
+        if (lock.tryLock(timeout, unit)) {
+            recordContendedAcquisition(key, lock, start, event);
+            return true;
+        }
+        return false;
+    }
+
+    private void recordAcquisition(K key) {
+        if (metrics != null) {
+            metrics.recordAcquisition(key, 0, false);
+        }
+    }
+
+    private void recordContendedAcquisition(K key, Lock lock, long start, @Nullable Object event) {
+        if (metrics != null) {
+            metrics.recordAcquisition(key, System.nanoTime() - start, true);
+        }
+        WAIT_EVENTS.commit(event, key, lock);
+    }
+
+    /**
+     * Returns the start of holding a lock for {@link #recordHoldTime(long)}, or {@code 0} if metrics are not enabled.
+     */
+    final long holdStart() {
+        return metrics == null ? 0 : System.nanoTime();
+    }
+
+    final void recordHoldTime(long holdStart) {
+        if (metrics != null) {
+            metrics.recordHoldTime(System.nanoTime() - holdStart);
+        }
+    }
+
+    private void recordCreation() {
+        creations.increment();
+        if (metrics != null) {
+            metrics.recordCreation();
+        }
+    }
+
+    private void recordEviction() {
+        if (metrics != null) {
+            metrics.recordEviction();
+        }
+    }
+
+    /**
+     * Returns the number of locks created since this instance was created.
+     */
+    final long getCreations() {
+        return creations.sum();
+    }
+
+    /**
+     * Performs an action for each lock currently managed by this instance. This iterates over all locks.
+     */
+    final void forEachLock(Consumer<? super L> action) {
+        if (referenceCounted) {
+            countedLockMap.values().forEach(countedLock -> action.accept(countedLock.getLock()));
+        } else {
+            for (final var lockReference : lockReferenceMap.values()) {
                 final L lock = lockReference.get();
                 if (lock != null) {
-                    return lock;
+                    action.accept(lock);
                 }
             }
-            return createLock(key);
-        } finally {
-            instanceLock.unlock();
         }
     }
 
@@ -65,36 +464,101 @@ abstract class AbstractLocks<K, L> {
     }
 
     /**
-     * Returns the current number of locks managed by this instance.
+     * Returns a snapshot of statistics of this instance. This iterates over all locks without removing any, so it never blocks other threads.
+     *
+     * @return statistics
+     * @since 1.4.0
+     */
+    public final LocksStats stats() {
+        if (referenceCounted) {
+            return new LocksStats(countedLockMap.size(), 0, getCreations());
+        }
+        int size = 0;
+        int pendingRemovals = 0;
+        for (final var lockReference : lockReferenceMap.values()) {
+            size++;
+            if (lockReference.get() == null) {
+                pendingRemovals++;
+            }
+        }
+        return new LocksStats(size, pendingRemovals, getCreations());
+    }
+
+    /**
+     * Returns the current number of locks managed by this instance. If locks marked as unreachable by the garbage collector are removed by the calling
+     * thread, this removes them first; this does not acquire any lock if there are none. Use {@link #stats()} to only read statistics.
      *
      * @return number of locks
      */
     public final int size() {
-        processQueue();
-        instanceLock.lock();
-        try {
-            return lockReferenceMap.size();
-        } finally {
-            instanceLock.unlock();
+        if (referenceCounted) {
+            return countedLockMap.size();
         }
+        processQueue();
+        return lockReferenceMap.size();
     }
 
     /**
-     * Removes all locks that have been marked as unreachable by the garbage collector.
+     * Removes locks that have been marked as unreachable by the garbage collector, if this is done by the calling thread, up to the maximum number of
+     * references per call.
      */
     private void processQueue() {
-        instanceLock.lock();
-        try {
-            Reference<?> reference;
-            while ((reference = lockReferenceQueue.poll()) != null) {
-                if (reference instanceof LockReference) {
-                    final var lockReference = (LockReference<K, ?>) reference;
-                    lockReferenceMap.remove(lockReference.getKey());
+        Reference<?> reference;
+        for (int i = 0; i < maxReferencesPerCall && (reference = lockReferenceQueue.poll()) != null; i++) {
+            removeReference(lockReferenceMap, reference, metrics);
+        }
+    }
+
+    /**
+     * Removes a reference from the map. It is only removed if it is still the one mapped to its key, so a lock created for the same key in the meantime is
+     * never removed.
+     */
+    private static void removeReference(ConcurrentMap<?, ?> lockReferenceMap, Reference<?> reference, @Nullable LockMetrics<?> metrics) {
+        if (reference instanceof LockReference) {
+            final var lockReference = (LockReference<?, ?>) reference;
+            if (lockReferenceMap.remove(lockReference.getKey(), lockReference) && metrics != null) {
+                metrics.recordEviction();
+            }
+        }
+    }
+
+    /**
+     * Removes locks marked as unreachable in a daemon thread, as long as the instance it belongs to is reachable.
+     */
+    private static final class DaemonCleanup<K, L> implements Runnable {
+
+        private static final long TIMEOUT_MILLIS = 1000;
+
+        private final WeakReference<AbstractLocks<K, L>> owner;
+
+        private final ConcurrentMap<K, LockReference<K, L>> lockReferenceMap;
+
+        private final ReferenceQueue<L> lockReferenceQueue;
+
+        private final @Nullable LockMetrics<K> metrics;
+
+        private DaemonCleanup(AbstractLocks<K, L> owner, ConcurrentMap<K, LockReference<K, L>> lockReferenceMap, ReferenceQueue<L> lockReferenceQueue,
+                              @Nullable LockMetrics<K> metrics) {
+            this.owner = new WeakReference<>(owner);
+            this.lockReferenceMap = lockReferenceMap;
+            this.lockReferenceQueue = lockReferenceQueue;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (owner.get() != null) {
+                    final var reference = lockReferenceQueue.remove(TIMEOUT_MILLIS);
+                    if (reference != null) {
+                        removeReference(lockReferenceMap, reference, metrics);
+                    }
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-        } finally {
-            instanceLock.unlock();
         }
+
     }
 
 }
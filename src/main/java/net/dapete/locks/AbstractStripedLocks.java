@@ -0,0 +1,111 @@
+package net.dapete.locks;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Abstract base implementation of key-based locking using a fixed number of preallocated locks (stripes).
+ * <p>
+ * The lock for a key is selected using its spread hash code, so different keys may share the same lock. In exchange, no objects are allocated when a lock is
+ * requested and memory usage does not depend on the number of keys.
+ *
+ * @param <K> type of key
+ * @param <L> type of lock
+ */
+abstract class AbstractStripedLocks<K, L> {
+
+    /**
+     * The maximum number of stripes (the largest power of two which is a valid array size).
+     */
+    static final int MAX_STRIPES = 1 << 30;
+
+    private final Object[] locks;
+
+    private final int mask;
+
+    protected AbstractStripedLocks(int stripes, Supplier<L> lockSupplier) {
+        if (stripes <= 0 || stripes > MAX_STRIPES) {
+            throw new IllegalArgumentException("stripes must be between 1 and " + MAX_STRIPES + ", but is " + stripes);
+        }
+        final int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        locks = new Object[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = lockSupplier.get();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Spreads the higher bits of the hash code to the lower bits, like {@link java.util.HashMap} does, so keys with hash codes differing only in the higher
+     * bits do not always share a stripe.
+     */
+    static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    /**
+     * Returns the lock for the supplied key. Different keys may share the same lock.
+     *
+     * @param key key
+     * @return lock
+     */
+    @SuppressWarnings("unchecked")
+    public final L get(K key) {
+        return (L) locks[indexOf(key)];
+    }
+
+    /**
+     * Returns the index of the lock for the supplied key. This is used as a global order when locking several locks.
+     */
+    final int indexOf(K key) {
+        return spread(key.hashCode()) & mask;
+    }
+
+    /**
+     * Returns the locks for all supplied keys, like calling {@link #get(Object)} for each distinct key. Different keys may share the same lock.
+     *
+     * @param keys keys
+     * @return unmodifiable map of keys to locks, in the iteration order of {@code keys}
+     * @since 1.4.0
+     */
+    public final Map<K, L> getAll(Collection<? extends K> keys) {
+        return Collections.unmodifiableMap(getAllInternal(keys));
+    }
+
+    /**
+     * Returns the locks for all supplied keys.
+     *
+     * @param keys keys
+     * @return map of keys to locks, in the iteration order of {@code keys}
+     */
+    final Map<K, L> getAllInternal(Collection<? extends K> keys) {
+        final var locks = new LinkedHashMap<K, L>(AbstractLocks.mapCapacity(keys.size()));
+        for (final K key : keys) {
+            locks.putIfAbsent(key, get(key));
+        }
+        return locks;
+    }
+
+    /**
+     * Returns the number of locks managed by this instance. This is the number of stripes, which does not change.
+     *
+     * @return number of locks
+     */
+    public final int size() {
+        return locks.length;
+    }
+
+    /**
+     * Returns a snapshot of statistics of this instance. All locks are created in advance and never removed.
+     *
+     * @return statistics
+     * @since 1.4.0
+     */
+    public final LocksStats stats() {
+        return new LocksStats(locks.length, 0, locks.length);
+    }
+
+}
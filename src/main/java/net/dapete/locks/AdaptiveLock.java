@@ -0,0 +1,97 @@
+package net.dapete.locks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link ReentrantLock} which spins for a while before parking the thread if the lock is not free, for critical sections which only take microseconds.
+ * <p>
+ * While spinning, the thread calls {@link Thread#onSpinWait()} and only tries to acquire the lock once it has been released. The number of iterations is tuned
+ * per lock: it is doubled whenever spinning acquired the lock and halved whenever it did not, within fixed bounds, so locks which are held for long stop
+ * spinning almost completely. If only one processor is available, the lock never spins, as the holder cannot release the lock while another thread spins.
+ * <p>
+ * The lock is non-fair. Conditions and all other methods behave like those of {@link ReentrantLock}.
+ *
+ * @since 1.4.0
+ */
+public final class AdaptiveLock extends ReentrantLock {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int MIN_SPINS = 4;
+
+    static final int MAX_SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 4096 : 0;
+
+    private static final int INITIAL_SPINS = Math.min(64, MAX_SPINS);
+
+    /**
+     * Current number of iterations to spin. This is only a heuristic, so races between threads updating it are harmless.
+     */
+    private int spins = INITIAL_SPINS;
+
+    /**
+     * Creates an instance.
+     */
+    public AdaptiveLock() {
+        super(false);
+    }
+
+    @Override
+    public void lock() {
+        if (!tryLock() && !spin()) {
+            super.lock();
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (!tryLock() && !spin()) {
+            super.lockInterruptibly();
+        }
+    }
+
+    @Override
+    public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (tryLock()) {
+            return true;
+        }
+        if (timeout <= 0) {
+            return false;
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return spin() || super.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Spins until the lock has been acquired or the current number of iterations is exhausted, and adjusts the number of iterations.
+     *
+     * @return {@code true} if the lock has been acquired
+     */
+    private boolean spin() {
+        final int limit = spins;
+        if (limit == 0) {
+            return false;
+        }
+        for (int i = 0; i < limit; i++) {
+            Thread.onSpinWait();
+            if (!isLocked() && tryLock()) {
+                spins = Math.min(limit * 2, MAX_SPINS);
+                return true;
+            }
+        }
+        spins = Math.max(limit / 2, MIN_SPINS);
+        return false;
+    }
+
+    // package-private to allow accessing this in tests
+    int getSpins() {
+        return spins;
+    }
+
+}
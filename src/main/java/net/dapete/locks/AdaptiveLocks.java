@@ -0,0 +1,22 @@
+package net.dapete.locks;
+
+/**
+ * Key-based locking using instances of {@link AdaptiveLock}, which spin for a while before parking the thread, for critical sections which only take
+ * microseconds.
+ * <p>
+ * Instances can be created using {@link Locks#adaptive()}, {@link Locks#adaptive(Class)} and {@link Locks#adaptive(CleanupStrategy)}.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public final class AdaptiveLocks<K> extends LocksImpl<K, AdaptiveLock> {
+
+    AdaptiveLocks() {
+        super(AdaptiveLock::new);
+    }
+
+    AdaptiveLocks(CleanupStrategy cleanupStrategy) {
+        super(AdaptiveLock::new, cleanupStrategy);
+    }
+
+}
@@ -0,0 +1,110 @@
+package net.dapete.locks;
+
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A non-reentrant lock which is acquired asynchronously. Callers waiting for the lock are kept in a FIFO queue of futures instead of parking threads, and the
+ * lock is handed over directly to the next waiter when it is released.
+ * <p>
+ * Futures are completed outside of the monitor of this object. Completing a future runs its dependent actions, which may release the lock again and complete
+ * the next future; to avoid unbounded recursion in this case, futures completed while the same thread is already completing one are deferred until that has
+ * finished.
+ */
+final class AsyncLock {
+
+    /**
+     * Futures to complete which have been deferred, per thread, or {@code null} if the thread is not completing any futures.
+     */
+    private static final ThreadLocal<ArrayDeque<Permit>> PENDING_HANDOVERS = new ThreadLocal<>();
+
+    private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+
+    private boolean locked;
+
+    CompletableFuture<Permit> lock() {
+        synchronized (this) {
+            if (locked) {
+                final var waiter = new CompletableFuture<Permit>();
+                waiters.add(waiter);
+                // a waiter whose future is cancelled or completed exceptionally leaves the queue right away
+                waiter.whenComplete((permit, throwable) -> {
+                    if (throwable != null) {
+                        removeWaiter(waiter);
+                    }
+                });
+                return waiter;
+            }
+            locked = true;
+        }
+        return CompletableFuture.completedFuture(new Permit(this));
+    }
+
+    Optional<Permit> tryLock() {
+        synchronized (this) {
+            if (locked) {
+                return Optional.empty();
+            }
+            locked = true;
+        }
+        return Optional.of(new Permit(this));
+    }
+
+    synchronized boolean isLocked() {
+        return locked;
+    }
+
+    synchronized int getQueueLength() {
+        return waiters.size();
+    }
+
+    private synchronized void removeWaiter(CompletableFuture<Permit> waiter) {
+        waiters.remove(waiter);
+    }
+
+    /**
+     * Releases the lock, handing it over to the next waiter if there is one.
+     */
+    void release() {
+        final var permit = new Permit(this);
+        var pendingHandovers = PENDING_HANDOVERS.get();
+        if (pendingHandovers != null) {
+            // already completing a future in this thread, this will be done afterwards
+            pendingHandovers.add(permit);
+            return;
+        }
+        pendingHandovers = new ArrayDeque<>();
+        PENDING_HANDOVERS.set(pendingHandovers);
+        try {
+            Permit handover = permit;
+            while (handover != null) {
+                handover.getLock().handOver(handover);
+                handover = pendingHandovers.poll();
+            }
+        } finally {
+            PENDING_HANDOVERS.remove();
+        }
+    }
+
+    /**
+     * Completes the future of the next waiter with the permit, skipping waiters whose futures have been completed otherwise (e.g. cancelled while this was
+     * in progress), or unlocks the lock if there are no more waiters.
+     */
+    private void handOver(Permit permit) {
+        while (true) {
+            final CompletableFuture<Permit> waiter;
+            synchronized (this) {
+                waiter = waiters.poll();
+                if (waiter == null) {
+                    locked = false;
+                    return;
+                }
+            }
+            if (waiter.complete(permit)) {
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package net.dapete.locks;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Key-based locking which does not block threads.
+ * <p>
+ * Instead of a {@link java.util.concurrent.locks.Lock}, {@link #lock(Object)} returns a {@link CompletableFuture} which is completed with a {@link Permit}
+ * once the key is free. Callers waiting for a key are kept in a FIFO queue per key, and the permit is handed over to the next one when it is released, so
+ * many operations can be serialized per key without parking any threads. This makes it suitable for event loops and other code which must never block.
+ * <p>
+ * Futures of waiting callers are completed by the thread releasing the previous permit, so dependent actions which are not asynchronous run in that thread.
+ * Permits are not reentrant: requesting a permit for a key which is already held by the same caller waits until it is released.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public interface AsyncLocks<K> {
+
+    /**
+     * Return an instance.
+     *
+     * @param <K> type of key
+     * @return instance
+     */
+    static <K> AsyncLocks<K> create() {
+        return new AsyncLocksImpl<>();
+    }
+
+    /**
+     * Return an instance using the specified strategy to remove locks which are no longer used.
+     *
+     * @param cleanupStrategy strategy for removing unused locks
+     * @param <K>             type of key
+     * @return instance
+     */
+    static <K> AsyncLocks<K> create(CleanupStrategy cleanupStrategy) {
+        return new AsyncLocksImpl<>(cleanupStrategy);
+    }
+
+    /**
+     * Return an instance with a specific key type.
+     * <p>
+     * This is a convenience method to make declarations like {@code var locks = AsyncLocks.create(String.class);} possible.
+     *
+     * @param keyClass type of key
+     * @param <K>      type of key
+     * @return instance
+     */
+    static <K> AsyncLocks<K> create(@SuppressWarnings("unused") Class<K> keyClass) {
+        return create();
+    }
+
+    /**
+     * Return a future which is completed with a permit for the key once it is free. If the key is free, the returned future is already completed.
+     * <p>
+     * Cancelling the future before it is completed removes the caller from the queue for the key.
+     *
+     * @param key key
+     * @return future which is completed with a permit for the key
+     */
+    CompletableFuture<Permit> lock(K key);
+
+    /**
+     * Return a permit for the key if it is free.
+     *
+     * @param key key
+     * @return permit for the key, or an empty result if it was not free
+     */
+    Optional<Permit> tryLock(K key);
+
+    /**
+     * Run an asynchronous action while holding a permit for the key. The permit is released once the {@link CompletionStage} returned by the action is
+     * complete, or if the action throws an exception.
+     *
+     * @param key    key
+     * @param action action to run while the key is locked
+     * @param <T>    result type of the action
+     * @return future which is completed with the result of the action
+     */
+    <T> CompletableFuture<T> withLock(K key, Supplier<? extends CompletionStage<T>> action);
+
+    /**
+     * Returns the number of locks currently held by this instance. This includes locks which are not in use any more, but have not yet been removed.
+     *
+     * @return number of locks currently held by this instance
+     */
+    int size();
+
+}
@@ -0,0 +1,46 @@
+package net.dapete.locks;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of {@link AsyncLocks}. A held {@link AsyncLock} is strongly reachable from its {@link Permit}, and waiting callers are queued in the lock,
+ * so it is only removed once it is neither held nor waited for.
+ */
+final class AsyncLocksImpl<K> extends AbstractLocks<K, AsyncLock> implements AsyncLocks<K> {
+
+    AsyncLocksImpl() {
+        super(AsyncLock::new);
+    }
+
+    AsyncLocksImpl(CleanupStrategy cleanupStrategy) {
+        super(AsyncLock::new, cleanupStrategy);
+    }
+
+    @Override
+    public CompletableFuture<Permit> lock(K key) {
+        return get(key).lock();
+    }
+
+    @Override
+    public Optional<Permit> tryLock(K key) {
+        return get(key).tryLock();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> withLock(K key, Supplier<? extends CompletionStage<T>> action) {
+        return lock(key).thenCompose(permit -> {
+            final CompletionStage<T> stage;
+            try {
+                stage = action.get();
+            } catch (RuntimeException | Error e) {
+                permit.release();
+                throw e;
+            }
+            return stage.whenComplete((result, throwable) -> permit.release());
+        });
+    }
+
+}
@@ -0,0 +1,176 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.ref.Cleaner;
+
+/**
+ * Strategy for removing locks which have been marked as unreachable by the garbage collector, which determines which threads pay for this cleanup and how
+ * much.
+ * <table class="striped">
+ *     <caption>Available strategies</caption>
+ *     <thead>
+ *         <tr>
+ *             <th>Method</th>
+ *             <th>Cleanup is done by</th>
+ *         </tr>
+ *     </thead>
+ *     <tbody>
+ *         <tr>
+ *             <td>{@link #callingThread()}</td>
+ *             <td>the thread calling {@code get}, {@code lock} etc., removing all pending locks (this is the default)</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link #callingThread(int)}</td>
+ *             <td>the thread calling {@code get}, {@code lock} etc., removing at most the specified number of pending locks per call</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link #daemonThread()}</td>
+ *             <td>a dedicated daemon thread per instance, which ends once the instance is no longer reachable</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link #virtualThread()}</td>
+ *             <td>a dedicated virtual thread per instance on Java 21 and later, otherwise like {@link #daemonThread()}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link #cleaner()}<br>
+ *                 {@link #cleaner(Cleaner)}</td>
+ *             <td>the thread of a {@link Cleaner}, which may be shared with other instances</td>
+ *         </tr>
+ *     </tbody>
+ * </table>
+ *
+ * @since 1.4.0
+ */
+public final class CleanupStrategy {
+
+    enum Mode {
+        CALLING_THREAD,
+        DAEMON_THREAD,
+        VIRTUAL_THREAD,
+        CLEANER,
+        REFERENCE_COUNTED
+    }
+
+    private static final CleanupStrategy CALLING_THREAD = new CleanupStrategy(Mode.CALLING_THREAD, Integer.MAX_VALUE, null);
+
+    private static final CleanupStrategy DAEMON_THREAD = new CleanupStrategy(Mode.DAEMON_THREAD, Integer.MAX_VALUE, null);
+
+    private static final CleanupStrategy VIRTUAL_THREAD = new CleanupStrategy(Mode.VIRTUAL_THREAD, Integer.MAX_VALUE, null);
+
+    private static final CleanupStrategy REFERENCE_COUNTED = new CleanupStrategy(Mode.REFERENCE_COUNTED, Integer.MAX_VALUE, null);
+
+    private final Mode mode;
+
+    private final int maxReferencesPerCall;
+
+    private final @Nullable Cleaner cleaner;
+
+    private CleanupStrategy(Mode mode, int maxReferencesPerCall, @Nullable Cleaner cleaner) {
+        this.mode = mode;
+        this.maxReferencesPerCall = maxReferencesPerCall;
+        this.cleaner = cleaner;
+    }
+
+    /**
+     * Return a strategy which removes all pending locks in the thread calling methods like {@code get} or {@code lock}. This is the default.
+     *
+     * @return strategy
+     */
+    public static CleanupStrategy callingThread() {
+        return CALLING_THREAD;
+    }
+
+    /**
+     * Return a strategy which removes at most {@code maxReferencesPerCall} pending locks in the thread calling methods like {@code get} or {@code lock}.
+     * <p>
+     * This limits the time spent on cleanup by a single call. Pending locks which exceed the limit are removed by later calls.
+     *
+     * @param maxReferencesPerCall maximum number of locks removed per call
+     * @return strategy
+     * @throws IllegalArgumentException if {@code maxReferencesPerCall} is not positive
+     */
+    public static CleanupStrategy callingThread(int maxReferencesPerCall) {
+        if (maxReferencesPerCall <= 0) {
+            throw new IllegalArgumentException("maxReferencesPerCall must be positive, but is " + maxReferencesPerCall);
+        }
+        return new CleanupStrategy(Mode.CALLING_THREAD, maxReferencesPerCall, null);
+    }
+
+    /**
+     * Return a strategy which removes pending locks in a dedicated daemon thread. Each instance using this strategy starts its own thread, which ends once the
+     * instance is no longer reachable.
+     *
+     * @return strategy
+     */
+    public static CleanupStrategy daemonThread() {
+        return DAEMON_THREAD;
+    }
+
+    /**
+     * Return a strategy which removes pending locks in a dedicated virtual thread on Java 21 and later. Each instance using this strategy starts its own
+     * thread, which ends once the instance is no longer reachable. On earlier versions of Java, this is the same as {@link #daemonThread()}.
+     * <p>
+     * A virtual thread does not occupy a platform thread while it waits for locks to be marked as unreachable, so this is cheaper than
+     * {@link #daemonThread()} if there are many instances, and threads calling {@code get} or {@code lock} never do any cleanup themselves.
+     *
+     * @return strategy
+     */
+    public static CleanupStrategy virtualThread() {
+        return VIRTUAL_THREAD;
+    }
+
+    /**
+     * Return a strategy which removes locks using a {@link Cleaner} shared by all instances using this strategy.
+     *
+     * @return strategy
+     */
+    public static CleanupStrategy cleaner() {
+        return cleaner(SharedCleaner.CLEANER);
+    }
+
+    /**
+     * Return a strategy which removes locks using the specified {@link Cleaner}.
+     *
+     * @param cleaner cleaner
+     * @return strategy
+     */
+    public static CleanupStrategy cleaner(Cleaner cleaner) {
+        return new CleanupStrategy(Mode.CLEANER, Integer.MAX_VALUE, cleaner);
+    }
+
+    /**
+     * Return a strategy which removes locks as soon as they are released by their last holder, without relying on the garbage collector. This is only used by
+     * {@link ReferenceCountedLocks} and {@link ReferenceCountedReadWriteLocks}, which have methods to release locks.
+     *
+     * @return strategy
+     */
+    static CleanupStrategy referenceCounted() {
+        return REFERENCE_COUNTED;
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    int getMaxReferencesPerCall() {
+        return maxReferencesPerCall;
+    }
+
+    Cleaner getCleaner() {
+        if (cleaner == null) {
+            throw new IllegalStateException("no Cleaner in mode " + mode);
+        }
+        return cleaner;
+    }
+
+    /**
+     * Holder for the shared {@link Cleaner}, so its thread is only started if it is used.
+     */
+    private static final class SharedCleaner {
+
+        private static final Cleaner CLEANER = Cleaner.create();
+
+    }
+
+}
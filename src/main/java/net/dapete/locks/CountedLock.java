@@ -0,0 +1,43 @@
+package net.dapete.locks;
+
+/**
+ * A lock together with the number of its holders, used by instances which remove locks by reference counting instead of relying on the garbage collector.
+ * <p>
+ * The number of holders is only accessed within the atomic operations of {@link java.util.concurrent.ConcurrentMap} for the key of the lock, so it does not
+ * need to be synchronized separately. A lock without holders may be reused by a {@link LockPool}, which resets the number of holders before it is inserted
+ * again.
+ *
+ * @param <L> type of lock
+ */
+final class CountedLock<L> {
+
+    private final L lock;
+
+    private int holders = 1;
+
+    CountedLock(L lock) {
+        this.lock = lock;
+    }
+
+    L getLock() {
+        return lock;
+    }
+
+    void acquire() {
+        holders++;
+    }
+
+    void reset() {
+        holders = 1;
+    }
+
+    /**
+     * Decrements the number of holders.
+     *
+     * @return {@code true} if there are no more holders
+     */
+    boolean release() {
+        return --holders == 0;
+    }
+
+}
@@ -0,0 +1,180 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A reentrant lock for a key which records the thread holding it, so a {@link DeadlockDetector} can find threads waiting for each other. Returned by
+ * {@link DeadlockDetectingLocks}.
+ * <p>
+ * {@link #lock()} and {@link #lockInterruptibly()} wait in steps of the threshold of the detector, and look for a deadlock after each step. They may throw a
+ * {@link DeadlockException} if the detector was created by {@link DeadlockDetector#breakingCycles(java.time.Duration)}. The {@code tryLock} methods never
+ * look for deadlocks, as they cannot wait forever.
+ * <p>
+ * Conditions are not supported, as waiting for one would release the lock without updating the recorded holder.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public final class DeadlockDetectingLock<K> implements Lock {
+
+    private final K key;
+
+    private final DeadlockDetector detector;
+
+    private final ReentrantLock delegate = new ReentrantLock();
+
+    private volatile @Nullable Thread owner;
+
+    DeadlockDetectingLock(K key, DeadlockDetector detector) {
+        this.key = key;
+        this.detector = detector;
+    }
+
+    /**
+     * Returns the key of this lock.
+     *
+     * @return key
+     */
+    public K getKey() {
+        return key;
+    }
+
+    @Override
+    public void lock() {
+        if (!delegate.tryLock()) {
+            try {
+                awaitDelegate(false);
+            } catch (InterruptedException e) {
+                // cannot happen, interrupts are only recorded
+                throw new IllegalStateException(e);
+            }
+        }
+        acquired();
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (!delegate.tryLock()) {
+            awaitDelegate(true);
+        }
+        acquired();
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (delegate.tryLock()) {
+            acquired();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (delegate.tryLock(time, unit)) {
+            acquired();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void unlock() {
+        if (!delegate.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("Lock for key " + key + " is not held by the current thread");
+        }
+        if (delegate.getHoldCount() == 1) {
+            owner = null;
+        }
+        delegate.unlock();
+    }
+
+    /**
+     * Not supported.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("Conditions are not supported by DeadlockDetectingLock");
+    }
+
+    /**
+     * Returns whether this lock is held by the current thread.
+     *
+     * @return {@code true} if this lock is held by the current thread
+     */
+    public boolean isHeldByCurrentThread() {
+        return delegate.isHeldByCurrentThread();
+    }
+
+    /**
+     * Returns whether this lock is held by any thread.
+     *
+     * @return {@code true} if this lock is held by any thread
+     */
+    public boolean isLocked() {
+        return delegate.isLocked();
+    }
+
+    @Nullable Thread getOwner() {
+        return owner;
+    }
+
+    private void acquired() {
+        if (delegate.getHoldCount() == 1) {
+            owner = Thread.currentThread();
+        }
+    }
+
+    private void awaitDelegate(boolean interruptible) throws InterruptedException {
+        final var currentThread = Thread.currentThread();
+        boolean waiting = false;
+        boolean reported = false;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    if (delegate.tryLock(detector.getThresholdNanos(), TimeUnit.NANOSECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    if (interruptible) {
+                        throw e;
+                    }
+                    // like Lock.lock(), keep waiting and restore the interrupt status afterwards
+                    interrupted = true;
+                    continue;
+                }
+                if (!waiting) {
+                    detector.startWaiting(currentThread, this);
+                    waiting = true;
+                }
+                final DeadlockException deadlock = detector.findDeadlock(currentThread, this);
+                if (deadlock != null) {
+                    // the graph is not a consistent snapshot, so make sure the lock is still held
+                    if (delegate.tryLock()) {
+                        return;
+                    }
+                    reported |= detector.handle(currentThread, deadlock, reported);
+                }
+            }
+        } finally {
+            if (waiting) {
+                detector.stopWaiting(currentThread);
+            }
+            if (interrupted) {
+                currentThread.interrupt();
+            }
+        }
+    }
+
+}
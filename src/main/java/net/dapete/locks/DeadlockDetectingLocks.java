@@ -0,0 +1,17 @@
+package net.dapete.locks;
+
+/**
+ * Key-based locking using instances of {@link DeadlockDetectingLock}, which let a {@link DeadlockDetector} find threads waiting for keys held by each other.
+ * <p>
+ * Instances can be created using {@link Locks#deadlockDetecting(DeadlockDetector)} and {@link Locks#deadlockDetecting(DeadlockDetector, Class)}.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public final class DeadlockDetectingLocks<K> extends LocksImpl<K, DeadlockDetectingLock<K>> {
+
+    DeadlockDetectingLocks(DeadlockDetector detector) {
+        super(key -> new DeadlockDetectingLock<>(key, detector), CleanupStrategy.callingThread());
+    }
+
+}
@@ -0,0 +1,137 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Finds threads which deadlock while waiting for locks of {@link DeadlockDetectingLocks}, and reports them or breaks the cycle.
+ * <p>
+ * Each {@link DeadlockDetectingLock} records the thread holding it. A thread which has waited for a lock for longer than the threshold is registered as
+ * waiting for it, and then follows the wait-for graph from the holder of the lock to the lock it waits for and so on. If this leads back to the thread, the
+ * cycle is described by a {@link DeadlockException}, which is either passed to a reporter while all threads keep waiting, or thrown in exactly one of the
+ * threads to let the others continue.
+ * <p>
+ * Acquiring a lock which is free only records the holder in a volatile field. The wait-for graph is only updated by threads which have already waited for the
+ * threshold, so detection does not slow down acquisitions which are not contended for long. One instance can be shared by several {@code Locks} instances to
+ * find cycles across them.
+ *
+ * @since 1.4.0
+ */
+public final class DeadlockDetector {
+
+    private final long thresholdNanos;
+
+    private final @Nullable Consumer<? super DeadlockException> reporter;
+
+    private final ConcurrentMap<Thread, DeadlockDetectingLock<?>> waitingThreads = new ConcurrentHashMap<>();
+
+    private DeadlockDetector(Duration threshold, @Nullable Consumer<? super DeadlockException> reporter) {
+        if (threshold.isNegative() || threshold.isZero()) {
+            throw new IllegalArgumentException("threshold must be positive, but is " + threshold);
+        }
+        this.thresholdNanos = threshold.toNanos();
+        this.reporter = reporter;
+    }
+
+    /**
+     * Return an instance which passes each deadlock to the specified reporter, e.g. to log it, once per waiting thread involved. The threads keep waiting.
+     *
+     * @param threshold time a thread waits for a lock before looking for a deadlock
+     * @param reporter  reporter for deadlocks
+     * @return instance
+     * @throws IllegalArgumentException if {@code threshold} is not positive
+     */
+    public static DeadlockDetector reporting(Duration threshold, Consumer<? super DeadlockException> reporter) {
+        return new DeadlockDetector(threshold, reporter);
+    }
+
+    /**
+     * Return an instance which breaks each deadlock by throwing a {@link DeadlockException} from the {@code lock} method called by one of the threads
+     * involved. This is always the thread with the highest {@link Thread#getId() ID}, so the other threads keep waiting, and eventually get their locks once
+     * it has released the locks it holds.
+     *
+     * @param threshold time a thread waits for a lock before looking for a deadlock
+     * @return instance
+     * @throws IllegalArgumentException if {@code threshold} is not positive
+     */
+    public static DeadlockDetector breakingCycles(Duration threshold) {
+        return new DeadlockDetector(threshold, null);
+    }
+
+    long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    void startWaiting(Thread thread, DeadlockDetectingLock<?> lock) {
+        waitingThreads.put(thread, lock);
+    }
+
+    void stopWaiting(Thread thread) {
+        waitingThreads.remove(thread);
+    }
+
+    /**
+     * Handles a deadlock found by {@code thread}.
+     *
+     * @param thread   thread which found the deadlock
+     * @param deadlock deadlock
+     * @param reported whether {@code thread} has already reported a deadlock while waiting for the current lock
+     * @return {@code true} if the deadlock has been reported now
+     * @throws DeadlockException if {@code thread} should break the cycle
+     */
+    boolean handle(Thread thread, DeadlockException deadlock, boolean reported) {
+        if (reporter == null) {
+            final long victimId = deadlock.getThreads().stream().mapToLong(Thread::getId).max().orElseThrow();
+            if (thread.getId() == victimId) {
+                throw deadlock;
+            }
+            return false;
+        }
+        if (!reported) {
+            reporter.accept(deadlock);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Follows the wait-for graph from a lock the specified thread is waiting for.
+     *
+     * @param thread thread waiting for {@code lock}
+     * @param lock   lock
+     * @return description of the deadlock, or {@code null} if the graph does not lead back to {@code thread}
+     */
+    @Nullable DeadlockException findDeadlock(Thread thread, DeadlockDetectingLock<?> lock) {
+        final List<Object> keys = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        Thread waitingThread = thread;
+        DeadlockDetectingLock<?> waitedFor = lock;
+        // a cycle which does not include this thread is found by the threads in it, so limit the number of steps
+        final int maxSteps = waitingThreads.size() + 1;
+        for (int i = 0; i < maxSteps; i++) {
+            keys.add(waitedFor.getKey());
+            threads.add(waitingThread);
+            final Thread owner = waitedFor.getOwner();
+            if (owner == null) {
+                return null;
+            }
+            if (owner == thread) {
+                return new DeadlockException(keys, threads);
+            }
+            final DeadlockDetectingLock<?> next = waitingThreads.get(owner);
+            if (next == null) {
+                return null;
+            }
+            waitingThread = owner;
+            waitedFor = next;
+        }
+        return null;
+    }
+
+}
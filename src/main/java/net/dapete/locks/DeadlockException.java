@@ -0,0 +1,59 @@
+package net.dapete.locks;
+
+import java.util.List;
+
+/**
+ * Describes a cycle of threads waiting for keys held by each other, found by a {@link DeadlockDetector}.
+ * <p>
+ * The thread at index {@code i} of {@link #getThreads()} waits for the key at index {@code i} of {@link #getKeys()}, which is held by the next thread, and
+ * the key waited for by the last thread is held by the first thread.
+ *
+ * @since 1.4.0
+ */
+public final class DeadlockException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    @SuppressWarnings("serial")
+    private final List<Object> keys;
+
+    @SuppressWarnings("serial")
+    private final List<Thread> threads;
+
+    DeadlockException(List<Object> keys, List<Thread> threads) {
+        super(message(keys, threads));
+        this.keys = List.copyOf(keys);
+        this.threads = List.copyOf(threads);
+    }
+
+    private static String message(List<Object> keys, List<Thread> threads) {
+        final var message = new StringBuilder("Deadlock between ").append(threads.size()).append(" threads:");
+        for (int i = 0; i < threads.size(); i++) {
+            final var next = threads.get((i + 1) % threads.size());
+            message.append(" thread \"").append(threads.get(i).getName())
+                    .append("\" waits for key ").append(keys.get(i))
+                    .append(" held by thread \"").append(next.getName()).append("\";");
+        }
+        message.setLength(message.length() - 1);
+        return message.toString();
+    }
+
+    /**
+     * Returns the keys of the cycle.
+     *
+     * @return keys
+     */
+    public List<Object> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Returns the threads of the cycle, starting with the thread which found it.
+     *
+     * @return threads
+     */
+    public List<Thread> getThreads() {
+        return threads;
+    }
+
+}
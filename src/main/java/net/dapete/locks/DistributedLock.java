@@ -0,0 +1,195 @@
+package net.dapete.locks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A reentrant lock for a key which is also held across processes, returned by {@link DistributedLocks}.
+ * <p>
+ * Locking first acquires a local {@link ReentrantLock}, so threads of the same JVM wait for each other locally, and then acquires the key from the
+ * {@link LockBackend} if the current thread does not already hold it. Unlocking the outermost hold releases the key from the backend before releasing the
+ * local lock.
+ * <p>
+ * Conditions are not supported, as waiting for one would release the local lock while the key is still held from the backend.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public final class DistributedLock<K> implements Lock {
+
+    private final K key;
+
+    private final LockBackend<? super K> backend;
+
+    private final ReentrantLock localLock = new ReentrantLock();
+
+    DistributedLock(K key, LockBackend<? super K> backend) {
+        this.key = key;
+        this.backend = backend;
+    }
+
+    /**
+     * Returns the key of this lock.
+     *
+     * @return key
+     */
+    public K getKey() {
+        return key;
+    }
+
+    @Override
+    public void lock() {
+        localLock.lock();
+        if (localLock.getHoldCount() == 1) {
+            try {
+                acquireFromBackend();
+            } catch (RuntimeException | Error e) {
+                localLock.unlock();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        localLock.lockInterruptibly();
+        if (localLock.getHoldCount() == 1) {
+            try {
+                backend.acquire(key);
+            } catch (InterruptedException | RuntimeException | Error e) {
+                localLock.unlock();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (!localLock.tryLock()) {
+            return false;
+        }
+        if (localLock.getHoldCount() > 1) {
+            return true;
+        }
+        boolean acquired = false;
+        try {
+            acquired = backend.tryAcquire(key, 0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!acquired) {
+                localLock.unlock();
+            }
+        }
+        return acquired;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(time);
+        if (!localLock.tryLock(time, unit)) {
+            return false;
+        }
+        if (localLock.getHoldCount() > 1) {
+            return true;
+        }
+        boolean acquired = false;
+        try {
+            acquired = tryAcquireFromBackend(deadline - System.nanoTime());
+        } finally {
+            if (!acquired) {
+                localLock.unlock();
+            }
+        }
+        return acquired;
+    }
+
+    @Override
+    public void unlock() {
+        if (!localLock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("Lock for key " + key + " is not held by the current thread");
+        }
+        try {
+            if (localLock.getHoldCount() == 1) {
+                backend.release(key);
+            }
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    /**
+     * Not supported.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("Conditions are not supported by DistributedLock");
+    }
+
+    /**
+     * Returns the local lock, which is locked before the key is acquired from the backend.
+     *
+     * @return local lock
+     */
+    ReentrantLock getLocalLock() {
+        return localLock;
+    }
+
+    /**
+     * Acquires the key from the backend after the local lock has been locked for the first time, waiting as long as necessary like {@link #lock()}. The
+     * local lock is not unlocked if this fails.
+     */
+    void acquireFromBackend() {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    backend.acquire(key);
+                    return;
+                } catch (InterruptedException e) {
+                    // like Lock.lock(), keep waiting and restore the interrupt status afterwards
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Acquires the key from the backend after the local lock has been locked for the first time, if this is possible within the timeout. The local lock is
+     * not unlocked if this fails.
+     *
+     * @param timeoutNanos maximum time to wait in nanoseconds
+     * @return {@code true} if the key was acquired
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    boolean tryAcquireFromBackend(long timeoutNanos) throws InterruptedException {
+        return backend.tryAcquire(key, Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns whether this lock is held by the current thread.
+     *
+     * @return {@code true} if this lock is held by the current thread
+     */
+    public boolean isHeldByCurrentThread() {
+        return localLock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Returns whether this lock is held by any thread of this JVM.
+     *
+     * @return {@code true} if this lock is held by any thread of this JVM
+     */
+    public boolean isLocked() {
+        return localLock.isLocked();
+    }
+
+}
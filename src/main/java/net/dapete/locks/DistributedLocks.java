@@ -0,0 +1,212 @@
+package net.dapete.locks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Key-based locking across processes, using instances of {@link DistributedLock} which acquire keys from a {@link LockBackend}.
+ * <p>
+ * This implements the same {@link Locks} interface as the other implementations. Each lock combines a local lock, which is managed like the locks of
+ * {@link ReentrantLocks}, with the backend, so threads of the same JVM wait for each other locally and only the thread holding the local lock acquires the key
+ * from the backend.
+ * <p>
+ * {@link #lockAll(Collection)} and {@link #tryLockAll(Collection, long, TimeUnit)} acquire keys in the order of {@link LockBackend#orderOf(Object)}, which is
+ * the same in all processes, instead of the identity hash codes of the locks, which are different in every JVM. Keys with the same position, like keys sharing
+ * a slot of a {@link FileLockBackend}, are acquired together: their local locks are locked first, and only then are the keys acquired from the backend, so a
+ * thread waiting for the local lock of a key never holds the underlying lock another thread needs for that key.
+ * <p>
+ * Instances can be created using {@link Locks#distributed(LockBackend)} and {@link Locks#distributed(LockBackend, Class)}.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public final class DistributedLocks<K> extends LocksImpl<K, DistributedLock<K>> {
+
+    private final LockBackend<? super K> backend;
+
+    DistributedLocks(LockBackend<? super K> backend) {
+        super(key -> new DistributedLock<>(key, backend), CleanupStrategy.callingThread());
+        this.backend = backend;
+    }
+
+    @Override
+    public MultiLockHandle<K, DistributedLock<K>> lockAll(Collection<? extends K> keys) {
+        final var locks = getAllInternal(keys);
+        final var entries = sortedEntries(locks);
+        final var lockHandles = new ArrayList<LockHandle<K, DistributedLock<K>>>(entries.size());
+        final var pending = new ArrayList<Map.Entry<K, DistributedLock<K>>>();
+        Lock tie = null;
+        try {
+            if (hasTie(entries)) {
+                tie = getTieLock();
+                tie.lock();
+            }
+            for (int start = 0, end; start < entries.size(); start = end) {
+                end = groupEnd(entries, start);
+                for (final var entry : entries.subList(start, end)) {
+                    meteredLock(entry.getKey(), entry.getValue().getLocalLock());
+                    lockedLocally(entry, pending, lockHandles);
+                }
+                while (!pending.isEmpty()) {
+                    final var entry = pending.get(0);
+                    entry.getValue().acquireFromBackend();
+                    pending.remove(0);
+                    lockHandles.add(newLockHandle(entry));
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            // do not keep holding any locks if acquiring one of the keys fails
+            try {
+                unlockAll(pending, lockHandles);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        } finally {
+            if (tie != null) {
+                tie.unlock();
+            }
+        }
+        return new MultiLockHandle<>(locks, lockHandles);
+    }
+
+    @Override
+    public Optional<MultiLockHandle<K, DistributedLock<K>>> tryLockAll(Collection<? extends K> keys, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final var locks = getAllInternal(keys);
+        final var entries = sortedEntries(locks);
+        final var lockHandles = new ArrayList<LockHandle<K, DistributedLock<K>>>(entries.size());
+        final var pending = new ArrayList<Map.Entry<K, DistributedLock<K>>>();
+        boolean success = false;
+        Lock tie = null;
+        try {
+            if (hasTie(entries)) {
+                if (!getTieLock().tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return Optional.empty();
+                }
+                tie = getTieLock();
+            }
+            for (int start = 0, end; start < entries.size(); start = end) {
+                end = groupEnd(entries, start);
+                for (final var entry : entries.subList(start, end)) {
+                    if (!meteredTryLock(entry.getKey(), entry.getValue().getLocalLock(), deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        return Optional.empty();
+                    }
+                    lockedLocally(entry, pending, lockHandles);
+                }
+                while (!pending.isEmpty()) {
+                    final var entry = pending.get(0);
+                    if (!entry.getValue().tryAcquireFromBackend(deadline - System.nanoTime())) {
+                        return Optional.empty();
+                    }
+                    pending.remove(0);
+                    lockHandles.add(newLockHandle(entry));
+                }
+            }
+            success = true;
+            return Optional.of(new MultiLockHandle<>(locks, lockHandles));
+        } finally {
+            if (tie != null) {
+                tie.unlock();
+            }
+            if (!success) {
+                unlockAll(pending, lockHandles);
+            }
+        }
+    }
+
+    /**
+     * Returns the entries sorted by the order of the backend and, for keys with the same order, by the identity hash code of the lock. The latter only
+     * decides the order of the local locks, so it does not have to be the same in other processes.
+     */
+    private List<Map.Entry<K, DistributedLock<K>>> sortedEntries(Map<K, DistributedLock<K>> locks) {
+        final var entries = new ArrayList<>(locks.entrySet());
+        entries.sort(Comparator.<Map.Entry<K, DistributedLock<K>>>comparingInt(entry -> backend.orderOf(entry.getKey()))
+                .thenComparingInt(entry -> System.identityHashCode(entry.getValue())));
+        return entries;
+    }
+
+    /**
+     * Returns the index after the last entry with the same order of the backend as the entry at {@code start}.
+     */
+    private int groupEnd(List<Map.Entry<K, DistributedLock<K>>> entries, int start) {
+        final int order = backend.orderOf(entries.get(start).getKey());
+        int end = start + 1;
+        while (end < entries.size() && backend.orderOf(entries.get(end).getKey()) == order) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Returns whether two different locks with the same order of the backend have the same identity hash code, so their local locks can only be locked in a
+     * consistent order while holding the tie lock.
+     */
+    private boolean hasTie(List<Map.Entry<K, DistributedLock<K>>> entries) {
+        for (int i = 1; i < entries.size(); i++) {
+            final var previous = entries.get(i - 1);
+            final var entry = entries.get(i);
+            if (backend.orderOf(previous.getKey()) == backend.orderOf(entry.getKey())
+                    && System.identityHashCode(previous.getValue()) == System.identityHashCode(entry.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records that the local lock of an entry has been locked: if the current thread already held it, the key is already acquired from the backend,
+     * otherwise it still has to be.
+     */
+    private void lockedLocally(Map.Entry<K, DistributedLock<K>> entry, List<Map.Entry<K, DistributedLock<K>>> pending,
+                               List<LockHandle<K, DistributedLock<K>>> lockHandles) {
+        if (entry.getValue().getLocalLock().getHoldCount() == 1) {
+            pending.add(entry);
+        } else {
+            lockHandles.add(newLockHandle(entry));
+        }
+    }
+
+    private LockHandle<K, DistributedLock<K>> newLockHandle(Map.Entry<K, DistributedLock<K>> entry) {
+        return new LockHandle<>(entry.getKey(), entry.getValue(), entry.getValue(), this);
+    }
+
+    /**
+     * Unlocks the local locks of entries whose keys have not been acquired from the backend, and then all fully locked locks, in the reverse order.
+     */
+    private static <K> void unlockAll(List<Map.Entry<K, DistributedLock<K>>> pending, List<LockHandle<K, DistributedLock<K>>> lockHandles) {
+        RuntimeException exception = null;
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            try {
+                pending.get(i).getValue().getLocalLock().unlock();
+            } catch (RuntimeException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        pending.clear();
+        try {
+            OrderedLocking.closeAll(lockHandles);
+        } catch (RuntimeException e) {
+            if (exception == null) {
+                exception = e;
+            } else {
+                exception.addSuppressed(e);
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A reentrant lock which is acquired with a single compare-and-set on an owner field as long as no other thread wants it, and only inflates to a lock from a
+ * supplier once a second thread has to wait, similar to the thin and fat monitors of the JVM.
+ * <p>
+ * The owner field always decides which thread holds the lock. Once inflated, threads which find the lock held first acquire the inflated lock, so they wait
+ * in its queue instead of spinning, and only the thread at the head of that queue waits for the owner field. Inflation is permanent for the lifetime of the
+ * instance.
+ * <p>
+ * The lock is non-fair: a thread may take the owner field while others are waiting. Conditions are not supported.
+ *
+ * @since 1.4.0
+ */
+public final class ElidingLock implements Lock {
+
+    private static final VarHandle OWNER;
+
+    private static final VarHandle INFLATED;
+
+    static {
+        try {
+            final var lookup = MethodHandles.lookup();
+            OWNER = lookup.findVarHandle(ElidingLock.class, "owner", Thread.class);
+            INFLATED = lookup.findVarHandle(ElidingLock.class, "inflated", Lock.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Supplier<? extends Lock> inflatedLockSupplier;
+
+    private volatile @Nullable Thread owner;
+
+    private volatile @Nullable Lock inflated;
+
+    /**
+     * Thread holding the inflated lock while it waits for the owner field, if any.
+     */
+    private volatile @Nullable Thread successor;
+
+    /**
+     * Number of holds by the owner. Only accessed by the owner.
+     */
+    private int holds;
+
+    /**
+     * Whether the owner also holds the inflated lock. Only accessed by the owner.
+     */
+    private boolean holdsInflated;
+
+    ElidingLock(Supplier<? extends Lock> inflatedLockSupplier) {
+        this.inflatedLockSupplier = inflatedLockSupplier;
+    }
+
+    @Override
+    public void lock() {
+        if (tryLock()) {
+            return;
+        }
+        final Lock inflatedLock = inflate();
+        inflatedLock.lock();
+        boolean interrupted = false;
+        final var currentThread = Thread.currentThread();
+        successor = currentThread;
+        while (!OWNER.compareAndSet(this, null, currentThread)) {
+            LockSupport.park(this);
+            // like Lock.lock(), keep waiting and restore the interrupt status afterwards
+            interrupted |= Thread.interrupted();
+        }
+        acquiredWithInflated();
+        if (interrupted) {
+            currentThread.interrupt();
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (tryLock()) {
+            return;
+        }
+        final Lock inflatedLock = inflate();
+        inflatedLock.lockInterruptibly();
+        final var currentThread = Thread.currentThread();
+        successor = currentThread;
+        while (!OWNER.compareAndSet(this, null, currentThread)) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                successor = null;
+                inflatedLock.unlock();
+                throw new InterruptedException();
+            }
+        }
+        acquiredWithInflated();
+    }
+
+    @Override
+    public boolean tryLock() {
+        final var currentThread = Thread.currentThread();
+        if (OWNER.compareAndSet(this, null, currentThread)) {
+            holds = 1;
+            holdsInflated = false;
+            return true;
+        }
+        if (owner == currentThread) {
+            if (holds == Integer.MAX_VALUE) {
+                throw new Error("Maximum lock count exceeded");
+            }
+            holds++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (tryLock()) {
+            return true;
+        }
+        if (time <= 0) {
+            return false;
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(time);
+        final Lock inflatedLock = inflate();
+        if (!inflatedLock.tryLock(time, unit)) {
+            return false;
+        }
+        final var currentThread = Thread.currentThread();
+        successor = currentThread;
+        while (!OWNER.compareAndSet(this, null, currentThread)) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                successor = null;
+                inflatedLock.unlock();
+                return false;
+            }
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                successor = null;
+                inflatedLock.unlock();
+                throw new InterruptedException();
+            }
+        }
+        acquiredWithInflated();
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        if (owner != Thread.currentThread()) {
+            throw new IllegalMonitorStateException();
+        }
+        if (--holds > 0) {
+            return;
+        }
+        final boolean releaseInflated = holdsInflated;
+        holdsInflated = false;
+        owner = null;
+        // the volatile write of owner and read of successor pair with the write of successor and the compare-and-set of owner in the waiting thread
+        final Thread waiting = successor;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+        if (releaseInflated) {
+            // already inflated, so this only reads the field
+            inflate().unlock();
+        }
+    }
+
+    /**
+     * Not supported.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("Conditions are not supported by ElidingLock");
+    }
+
+    /**
+     * Returns whether this lock is held by the current thread.
+     *
+     * @return {@code true} if this lock is held by the current thread
+     */
+    public boolean isHeldByCurrentThread() {
+        return owner == Thread.currentThread();
+    }
+
+    /**
+     * Returns whether this lock is held by any thread.
+     *
+     * @return {@code true} if this lock is held by any thread
+     */
+    public boolean isLocked() {
+        return owner != null;
+    }
+
+    /**
+     * Returns whether this lock has been inflated because a thread had to wait for it.
+     *
+     * @return {@code true} if this lock has been inflated
+     */
+    public boolean isInflated() {
+        return inflated != null;
+    }
+
+    private Lock inflate() {
+        final Lock existing = inflated;
+        if (existing != null) {
+            return existing;
+        }
+        final Lock created = inflatedLockSupplier.get();
+        final var witness = (Lock) INFLATED.compareAndExchange(this, (Lock) null, created);
+        return witness != null ? witness : created;
+    }
+
+    private void acquiredWithInflated() {
+        successor = null;
+        holds = 1;
+        holdsInflated = true;
+    }
+
+}
@@ -0,0 +1,31 @@
+package net.dapete.locks;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Key-based locking using instances of {@link ElidingLock}, which are acquired with a single compare-and-set as long as no other thread wants the same key,
+ * and only create a lock from a supplier once a thread has to wait.
+ * <p>
+ * Instances can be created using {@link Locks#eliding()}, {@link Locks#eliding(Class)}, {@link Locks#eliding(CleanupStrategy)} and
+ * {@link Locks#elidingWithSupplier(Supplier)}.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public final class ElidingLocks<K> extends LocksImpl<K, ElidingLock> {
+
+    ElidingLocks() {
+        this(ReentrantLock::new);
+    }
+
+    ElidingLocks(Supplier<? extends Lock> inflatedLockSupplier) {
+        super(() -> new ElidingLock(inflatedLockSupplier));
+    }
+
+    ElidingLocks(CleanupStrategy cleanupStrategy) {
+        super(() -> new ElidingLock(ReentrantLock::new), cleanupStrategy);
+    }
+
+}
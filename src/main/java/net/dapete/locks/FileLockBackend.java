@@ -0,0 +1,202 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link LockBackend} for processes on the same host, which locks regions of a shared lock file using {@link FileChannel#tryLock(long, long, boolean)}.
+ * <p>
+ * Each key is mapped to one of a fixed number of slots using its hash code, and each slot is a one-byte region of the file. Different keys may share a slot,
+ * like with striped locks, so all processes must use the same number of slots, and the hash codes of keys must be the same in all processes (which is the
+ * case for {@link String} and boxed primitives, but not for objects using {@link Object#hashCode()}).
+ * <p>
+ * File locks are held by the whole JVM, so only one instance should be used per file and JVM. Within the JVM, threads wait for a slot using a
+ * {@link ReentrantLock} per slot. {@link #orderOf(Object)} returns the slot, so {@link DistributedLocks#lockAll(java.util.Collection)} locks slots in
+ * ascending order in all processes and acquires keys sharing a slot together. Waiting for other processes is done by polling with an increasing delay, as a
+ * thread blocked in {@link FileChannel#lock(long, long, boolean)} would close the channel and release all locks if it were interrupted.
+ *
+ * @since 1.4.0
+ */
+public final class FileLockBackend implements LockBackend<Object>, Closeable {
+
+    /**
+     * Default number of slots.
+     */
+    public static final int DEFAULT_SLOTS = 4096;
+
+    private static final long MIN_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final FileChannel channel;
+
+    private final ReentrantLock[] slotLocks;
+
+    /**
+     * File locks per slot, guarded by the lock for the slot.
+     */
+    private final @Nullable FileLock[] fileLocks;
+
+    private FileLockBackend(FileChannel channel, int slots) {
+        this.channel = channel;
+        slotLocks = new ReentrantLock[slots];
+        for (int i = 0; i < slots; i++) {
+            slotLocks[i] = new ReentrantLock();
+        }
+        fileLocks = new FileLock[slots];
+    }
+
+    /**
+     * Return a backend using the specified lock file with {@link #DEFAULT_SLOTS} slots. The file is created if it does not exist.
+     *
+     * @param path path of the lock file
+     * @return backend
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public static FileLockBackend open(Path path) {
+        return open(path, DEFAULT_SLOTS);
+    }
+
+    /**
+     * Return a backend using the specified lock file with the specified number of slots. The file is created if it does not exist.
+     *
+     * @param path  path of the lock file
+     * @param slots number of slots, which must be the same for all processes using the file
+     * @return backend
+     * @throws IllegalArgumentException if {@code slots} is not positive
+     * @throws UncheckedIOException     if the file cannot be opened
+     */
+    public static FileLockBackend open(Path path, int slots) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("slots must be positive, but is " + slots);
+        }
+        try {
+            return new FileLockBackend(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE), slots);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the slot for a key.
+     */
+    int slotOf(Object key) {
+        return Math.floorMod(AbstractStripedLocks.spread(key.hashCode()), slotLocks.length);
+    }
+
+    /**
+     * Returns the slot of the key, so keys sharing a slot are acquired together and slots are always locked in ascending order.
+     *
+     * @param key key
+     * @return slot of the key
+     */
+    @Override
+    public int orderOf(Object key) {
+        return slotOf(key);
+    }
+
+    @Override
+    public void acquire(Object key) throws InterruptedException {
+        final int slot = slotOf(key);
+        final var slotLock = slotLocks[slot];
+        slotLock.lockInterruptibly();
+        lockFile(slot, Long.MAX_VALUE);
+    }
+
+    @Override
+    public boolean tryAcquire(Object key, long timeout, TimeUnit unit) throws InterruptedException {
+        final long timeoutNanos = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + timeoutNanos;
+        final int slot = slotOf(key);
+        final var slotLock = slotLocks[slot];
+        if (!(timeoutNanos <= 0 ? slotLock.tryLock() : slotLock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS))) {
+            return false;
+        }
+        return lockFile(slot, timeoutNanos <= 0 ? 0 : Math.max(0, deadline - System.nanoTime()));
+    }
+
+    /**
+     * Locks the region of the file for a slot whose lock is held by the current thread, unless it is already locked. The slot lock is released if this
+     * fails.
+     *
+     * @return {@code true} if the region is locked
+     */
+    private boolean lockFile(int slot, long timeoutNanos) throws InterruptedException {
+        final var slotLock = slotLocks[slot];
+        if (slotLock.getHoldCount() > 1) {
+            // already locked by the current thread for another key in the same slot
+            return true;
+        }
+        boolean locked = false;
+        try {
+            final long deadline = System.nanoTime() + timeoutNanos;
+            long pollNanos = MIN_POLL_NANOS;
+            while (true) {
+                final var fileLock = channel.tryLock(slot, 1, false);
+                if (fileLock != null) {
+                    fileLocks[slot] = fileLock;
+                    locked = true;
+                    return true;
+                }
+                final long remainingNanos = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, Math.min(pollNanos, remainingNanos));
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                pollNanos = Math.min(pollNanos * 2, MAX_POLL_NANOS);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (!locked) {
+                slotLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void release(Object key) {
+        final int slot = slotOf(key);
+        final var slotLock = slotLocks[slot];
+        if (!slotLock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("Key " + key + " is not held by the current thread");
+        }
+        try {
+            if (slotLock.getHoldCount() == 1) {
+                final var fileLock = fileLocks[slot];
+                fileLocks[slot] = null;
+                if (fileLock != null) {
+                    fileLock.release();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            slotLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the lock file, which releases all locks held by this JVM.
+     *
+     * @throws IOException if closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,155 @@
+package net.dapete.locks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Key-based locking for tree-structured resources like file paths, where locking a node also protects its subtree.
+ * <p>
+ * This uses the modes of multiple granularity locking: locking a node for reading (S) first acquires intention shared (IS) locks on all its ancestors, from the
+ * root down, and locking a node for writing (X) first acquires intention exclusive (IX) locks on them. IS is compatible with everything but X, IX is only
+ * compatible with IS and IX, S is only compatible with IS and S, and X is compatible with nothing. A read lock on a node therefore excludes writers of the
+ * node and of all its descendants, and a write lock on a node excludes readers and writers of the node, of all its descendants and of all its ancestors,
+ * while nodes in disjoint subtrees can be locked fully in parallel. For example, writing {@code /a/b} and {@code /a/c} proceeds in parallel, but reading or
+ * writing {@code /a} waits until both are done.
+ * <p>
+ * Each node has a lock from a {@link ReadWriteLocks} instance, whose read lock is held in the IS, IX and S modes and whose write lock is held in the X mode,
+ * and an internal intention lock, which is held shared in the S mode and intention exclusive in the IX mode, so these two modes exclude each other.
+ * <p>
+ * The ancestors of a key are determined by a function, which must return them ordered from the root to the parent of the key. {@link #forPaths(char)} returns
+ * an instance for paths separated by a character.
+ * <p>
+ * A thread should only hold one hierarchical lock of an instance at a time. In particular, a thread holding a lock on a node must not lock one of its
+ * ancestors, as the intention lock held on the ancestor cannot be converted to a read or write lock.
+ *
+ * @param <K> type of key
+ * @param <L> type of {@link ReadWriteLock}
+ * @since 1.4.0
+ */
+public final class HierarchicalLocks<K, L extends ReadWriteLock> {
+
+    private final ReadWriteLocks<K, L> locks;
+
+    private final Function<? super K, ? extends List<? extends K>> ancestors;
+
+    private final AbstractLocks<K, IntentionLock> intentionLocks = new AbstractLocks<>(IntentionLock::new) {
+    };
+
+    private HierarchicalLocks(ReadWriteLocks<K, L> locks, Function<? super K, ? extends List<? extends K>> ancestors) {
+        this.locks = locks;
+        this.ancestors = ancestors;
+    }
+
+    /**
+     * Return an instance using locks from the specified {@link ReadWriteLocks} instance and the specified function to determine the ancestors of a key.
+     *
+     * @param locks     instance to obtain locks from, which should not be used for anything else
+     * @param ancestors function returning the ancestors of a key, ordered from the root to the parent of the key
+     * @param <K>       type of key
+     * @param <L>       type of {@link ReadWriteLock}
+     * @return instance
+     */
+    public static <K, L extends ReadWriteLock> HierarchicalLocks<K, L> create(ReadWriteLocks<K, L> locks,
+                                                                            Function<? super K, ? extends List<? extends K>> ancestors) {
+        return new HierarchicalLocks<>(locks, ancestors);
+    }
+
+    /**
+     * Return an instance using {@link ReentrantReadWriteLock} for paths separated by the specified character.
+     * <p>
+     * The ancestors of a path are all prefixes ending before a separator. For example, with {@code '/'} as the separator, the ancestors of {@code /a/b} are
+     * the empty string (the root) and {@code /a}, and the ancestors of {@code a/b} are just {@code a}. Paths are not normalized, so {@code /a/b} and
+     * {@code /a//b/} are different nodes.
+     *
+     * @param separator separator between the elements of a path
+     * @return instance
+     */
+    public static HierarchicalLocks<String, ReentrantReadWriteLock> forPaths(char separator) {
+        return create(ReadWriteLocks.reentrant(), path -> pathAncestors(path, separator));
+    }
+
+    static List<String> pathAncestors(String path, char separator) {
+        final var pathAncestors = new ArrayList<String>();
+        for (int index = path.indexOf(separator); index >= 0 && index < path.length() - 1; index = path.indexOf(separator, index + 1)) {
+            pathAncestors.add(path.substring(0, index));
+        }
+        return pathAncestors;
+    }
+
+    /**
+     * Lock the node for the supplied key for reading (S), after locking all its ancestors intention shared (IS).
+     *
+     * @param key key
+     * @return handle for all locks, which unlocks them from the node up to the root when it is closed
+     */
+    public MultiLockHandle<K, L> readLock(K key) {
+        return lock(key, false);
+    }
+
+    /**
+     * Lock the node for the supplied key for writing (X), after locking all its ancestors intention exclusive (IX).
+     *
+     * @param key key
+     * @return handle for all locks, which unlocks them from the node up to the root when it is closed
+     */
+    public MultiLockHandle<K, L> writeLock(K key) {
+        return lock(key, true);
+    }
+
+    private MultiLockHandle<K, L> lock(K key, boolean write) {
+        final var lockMap = new LinkedHashMap<K, L>();
+        final var lockHandles = new ArrayList<LockHandle<K, L>>();
+        try {
+            for (final K ancestor : ancestors.apply(key)) {
+                // a key which is its own ancestor would deadlock when write locking it
+                if (!ancestor.equals(key) && !lockMap.containsKey(ancestor)) {
+                    final var lockHandle = locks.acquireRead(ancestor);
+                    lockHandles.add(lockHandle);
+                    lockMap.put(ancestor, lockHandle.getLock());
+                    if (write) {
+                        lockHandles.add(lockIntention(ancestor, lockHandle.getLock(), IntentionLock::intentionExclusiveLock));
+                    }
+                }
+            }
+            if (write) {
+                final var lockHandle = locks.acquireWrite(key);
+                lockHandles.add(lockHandle);
+                lockMap.put(key, lockHandle.getLock());
+            } else {
+                final var lockHandle = locks.acquireRead(key);
+                lockHandles.add(lockHandle);
+                lockMap.put(key, lockHandle.getLock());
+                lockHandles.add(lockIntention(key, lockHandle.getLock(), IntentionLock::sharedLock));
+            }
+        } catch (RuntimeException | Error e) {
+            OrderedLocking.closeAll(lockHandles);
+            throw e;
+        }
+        return new MultiLockHandle<>(lockMap, lockHandles);
+    }
+
+    /**
+     * Locks the intention lock of a node in the specified mode. The handle keeps the intention lock reachable through the locked {@code Lock} until it is
+     * closed, so it is not removed while it is held.
+     */
+    private LockHandle<K, L> lockIntention(K key, L lock, Function<IntentionLock, Lock> modeFunction) {
+        final Lock modeLock = modeFunction.apply(intentionLocks.get(key));
+        modeLock.lock();
+        return new LockHandle<>(key, lock, modeLock, null);
+    }
+
+    /**
+     * Returns the number of locks currently held by the underlying {@link ReadWriteLocks} instance.
+     *
+     * @return number of locks
+     */
+    public int size() {
+        return locks.size();
+    }
+
+}
@@ -0,0 +1,102 @@
+package net.dapete.locks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Key-based locking with implementations of {@link Lock} for primitive {@code int} keys.
+ * <p>
+ * This is the equivalent of {@link Locks} for keys like numeric IDs. Keys are never boxed, and locks are kept in an open-addressing hash table with a
+ * {@code long[]} of keys instead of a {@link java.util.HashMap}, so looking up an existing lock does not allocate any objects and each lock needs less
+ * memory. Locks which are no longer used are removed by the threads calling methods of the instance, like with {@link CleanupStrategy#callingThread()}.
+ *
+ * @param <L> type of {@link Lock}
+ * @since 1.4.0
+ */
+public interface IntLocks<L extends Lock> {
+
+    /**
+     * Return an instance using {@link Lock} implementations created by the specified {@code lockSupplier}.
+     *
+     * @param lockSupplier Supplier for instances of {@link L} (usually the constructor of a class implementing {@link Lock})
+     * @param <L>          type of {@link Lock}
+     * @return instance using {@code Lock} implementations created by the specified {@code lockSupplier}
+     */
+    static <L extends Lock> IntLocks<L> withSupplier(Supplier<L> lockSupplier) {
+        return new IntLocksImpl<>(lockSupplier);
+    }
+
+    /**
+     * Return an instance using {@link ReentrantLock}.
+     *
+     * @return instance using {@code ReentrantLock}
+     */
+    static IntLocks<ReentrantLock> reentrant() {
+        return withSupplier(ReentrantLock::new);
+    }
+
+    /**
+     * Return an instance using {@link ReentrantLock} with the given fairness policy.
+     *
+     * @param fair {@code true} if the locks should use a fair ordering policy (see {@link ReentrantLock#ReentrantLock(boolean)})
+     * @return instance using {@code ReentrantLock}
+     */
+    static IntLocks<ReentrantLock> reentrant(boolean fair) {
+        return withSupplier(() -> new ReentrantLock(fair));
+    }
+
+    /**
+     * Returns a lock for the supplied key. There will be at most one lock per key at any given time.
+     *
+     * @param key key
+     * @return lock
+     */
+    L get(int key);
+
+    /**
+     * Return a {@code Lock} already locked using {@link Lock#lock()}.
+     *
+     * @param key key
+     * @return already locked lock
+     */
+    L lock(int key);
+
+    /**
+     * Return a {@code Lock} locked using {@link Lock#tryLock()}, if it was free.
+     *
+     * @param key key
+     * @return already locked lock, or an empty result if it was not free
+     */
+    Optional<L> tryLock(int key);
+
+    /**
+     * Return a {@code Lock} locked using {@link Lock#tryLock(long, TimeUnit)}, if it became free within the timeout.
+     *
+     * @param key     key
+     * @param timeout maximum time to wait for the lock
+     * @param unit    time unit of {@code timeout}
+     * @return already locked lock, or an empty result if it did not become free within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    Optional<L> tryLock(int key, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Return a {@code Lock} already locked using {@link Lock#lockInterruptibly()}.
+     *
+     * @param key key
+     * @return already locked lock
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    L lockInterruptibly(int key) throws InterruptedException;
+
+    /**
+     * Returns the current number of locks managed by this instance.
+     *
+     * @return number of locks
+     */
+    int size();
+
+}
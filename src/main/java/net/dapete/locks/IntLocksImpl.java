@@ -0,0 +1,52 @@
+package net.dapete.locks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+final class IntLocksImpl<L extends Lock> implements IntLocks<L> {
+
+    private final LongLockTable<L> lockTable;
+
+    IntLocksImpl(Supplier<L> lockSupplier) {
+        lockTable = new LongLockTable<>(lockSupplier);
+    }
+
+    @Override
+    public L get(int key) {
+        return lockTable.get(key);
+    }
+
+    @Override
+    public L lock(int key) {
+        final var lock = get(key);
+        lock.lock();
+        return lock;
+    }
+
+    @Override
+    public Optional<L> tryLock(int key) {
+        final var lock = get(key);
+        return lock.tryLock() ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public Optional<L> tryLock(int key, long timeout, TimeUnit unit) throws InterruptedException {
+        final var lock = get(key);
+        return lock.tryLock(timeout, unit) ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public L lockInterruptibly(int key) throws InterruptedException {
+        final var lock = get(key);
+        lock.lockInterruptibly();
+        return lock;
+    }
+
+    @Override
+    public int size() {
+        return lockTable.size();
+    }
+
+}
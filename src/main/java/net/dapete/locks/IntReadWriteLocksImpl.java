@@ -0,0 +1,64 @@
+package net.dapete.locks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Supplier;
+
+final class IntReadWriteLocksImpl<L extends ReadWriteLock> implements IntReadWriteLocks<L> {
+
+    private final LongLockTable<L> lockTable;
+
+    IntReadWriteLocksImpl(Supplier<L> lockSupplier) {
+        lockTable = new LongLockTable<>(lockSupplier);
+    }
+
+    @Override
+    public L get(int key) {
+        return lockTable.get(key);
+    }
+
+    @Override
+    public L readLock(int key) {
+        final var lock = get(key);
+        lock.readLock().lock();
+        return lock;
+    }
+
+    @Override
+    public L writeLock(int key) {
+        final var lock = get(key);
+        lock.writeLock().lock();
+        return lock;
+    }
+
+    @Override
+    public Optional<L> tryReadLock(int key) {
+        final var lock = get(key);
+        return lock.readLock().tryLock() ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public Optional<L> tryReadLock(int key, long timeout, TimeUnit unit) throws InterruptedException {
+        final var lock = get(key);
+        return lock.readLock().tryLock(timeout, unit) ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public Optional<L> tryWriteLock(int key) {
+        final var lock = get(key);
+        return lock.writeLock().tryLock() ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public Optional<L> tryWriteLock(int key, long timeout, TimeUnit unit) throws InterruptedException {
+        final var lock = get(key);
+        return lock.writeLock().tryLock(timeout, unit) ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public int size() {
+        return lockTable.size();
+    }
+
+}
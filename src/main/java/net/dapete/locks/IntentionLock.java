@@ -0,0 +1,164 @@
+package net.dapete.locks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The intention state of a node of {@link HierarchicalLocks}, which can be held in one of two modes at a time: intention exclusive, by threads locking a
+ * descendant of the node for writing, and shared, by threads locking the node itself for reading. Any number of threads may hold it in the same mode, but
+ * holding it in one mode excludes the other, so a read lock on a node excludes writers of its descendants.
+ * <p>
+ * Holds are only counted, not associated with threads, so a thread holding it in one mode which tries to acquire it in the other mode deadlocks.
+ * Conditions are not supported.
+ */
+final class IntentionLock {
+
+    private final ReentrantLock mutex = new ReentrantLock();
+
+    private final Condition released = mutex.newCondition();
+
+    /**
+     * Number of holds, positive in intention exclusive mode and negative in shared mode. Guarded by {@link #mutex}.
+     */
+    private int holds;
+
+    private final Lock intentionExclusiveLock = new ModeLock(1);
+
+    private final Lock sharedLock = new ModeLock(-1);
+
+    /**
+     * Returns the lock for the intention exclusive mode.
+     *
+     * @return lock for the intention exclusive mode
+     */
+    Lock intentionExclusiveLock() {
+        return intentionExclusiveLock;
+    }
+
+    /**
+     * Returns the lock for the shared mode.
+     *
+     * @return lock for the shared mode
+     */
+    Lock sharedLock() {
+        return sharedLock;
+    }
+
+    /**
+     * Returns the number of holds, positive in intention exclusive mode and negative in shared mode.
+     *
+     * @return number of holds
+     */
+    int getHolds() {
+        mutex.lock();
+        try {
+            return holds;
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    private final class ModeLock implements Lock {
+
+        /**
+         * {@code 1} for the intention exclusive mode and {@code -1} for the shared mode.
+         */
+        private final int sign;
+
+        private ModeLock(int sign) {
+            this.sign = sign;
+        }
+
+        /**
+         * Acquires the lock in this mode if possible. Only called while holding {@link #mutex}.
+         */
+        private boolean tryAcquire() {
+            if (holds * sign < 0) {
+                return false;
+            }
+            holds += sign;
+            return true;
+        }
+
+        @Override
+        public void lock() {
+            mutex.lock();
+            try {
+                while (!tryAcquire()) {
+                    released.awaitUninterruptibly();
+                }
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            mutex.lockInterruptibly();
+            try {
+                while (!tryAcquire()) {
+                    released.await();
+                }
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            mutex.lock();
+            try {
+                return tryAcquire();
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long remaining = unit.toNanos(time);
+            mutex.lockInterruptibly();
+            try {
+                while (!tryAcquire()) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                return true;
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        @Override
+        public void unlock() {
+            mutex.lock();
+            try {
+                if (holds * sign <= 0) {
+                    throw new IllegalMonitorStateException("Intention lock is not held in this mode");
+                }
+                holds -= sign;
+                if (holds == 0) {
+                    released.signalAll();
+                }
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        /**
+         * Not supported.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported by IntentionLock");
+        }
+
+    }
+
+}
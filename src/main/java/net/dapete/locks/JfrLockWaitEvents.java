@@ -0,0 +1,45 @@
+package net.dapete.locks;
+
+import jdk.jfr.EventType;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Implementation of {@link LockWaitEvents} using {@link KeyLockWaitEvent}. This class is only loaded if the {@code jdk.jfr} module is available.
+ */
+final class JfrLockWaitEvents extends LockWaitEvents {
+
+    /**
+     * Type of {@link KeyLockWaitEvent}, so checking whether it is enabled does not allocate an event.
+     */
+    private static final EventType EVENT_TYPE = EventType.getEventType(KeyLockWaitEvent.class);
+
+    @Override
+    boolean isEnabled() {
+        return EVENT_TYPE.isEnabled();
+    }
+
+    @Override
+    @Nullable Object begin() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        final var event = new KeyLockWaitEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void commit(@Nullable Object event, Object key, Object lock) {
+        if (event instanceof KeyLockWaitEvent) {
+            final var keyLockWaitEvent = (KeyLockWaitEvent) event;
+            keyLockWaitEvent.end();
+            if (keyLockWaitEvent.shouldCommit()) {
+                keyLockWaitEvent.key = String.valueOf(key);
+                keyLockWaitEvent.keyHashCode = key.hashCode();
+                keyLockWaitEvent.lockClass = lock.getClass();
+                keyLockWaitEvent.commit();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder event for a thread waiting for the lock for a key. Its duration is the time spent waiting. Like the JDK's own
+ * {@code jdk.JavaMonitorEnter} event, it is only committed if the wait was at least 20 ms by default; this can be changed using the {@code threshold}
+ * setting.
+ */
+@Name("net.dapete.locks.KeyLockWait")
+@Label("Key Lock Wait")
+@Description("Waiting for the lock for a key")
+@Category({"Java Application", "Key-Based Locking"})
+@StackTrace
+@Threshold("20 ms")
+final class KeyLockWaitEvent extends jdk.jfr.Event {
+
+    @Label("Key")
+    @Description("Result of toString() of the key")
+    @Nullable String key;
+
+    @Label("Key Hash Code")
+    int keyHashCode;
+
+    @Label("Lock Class")
+    @Nullable Class<?> lockClass;
+
+}
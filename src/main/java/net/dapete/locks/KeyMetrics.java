@@ -0,0 +1,68 @@
+package net.dapete.locks;
+
+/**
+ * Metrics for a single key, as returned by {@link LockMetrics#getHotKeys(int)}. This is a snapshot, which does not change afterwards.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public final class KeyMetrics<K> {
+
+    private final K key;
+
+    private final long acquisitions;
+
+    private final long contendedAcquisitions;
+
+    private final long waitTimeNanos;
+
+    KeyMetrics(K key, long acquisitions, long contendedAcquisitions, long waitTimeNanos) {
+        this.key = key;
+        this.acquisitions = acquisitions;
+        this.contendedAcquisitions = contendedAcquisitions;
+        this.waitTimeNanos = waitTimeNanos;
+    }
+
+    /**
+     * Returns the key.
+     *
+     * @return key
+     */
+    public K getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the number of times a lock for the key was acquired.
+     *
+     * @return number of acquisitions
+     */
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    /**
+     * Returns the number of times a lock for the key was not immediately available and the caller had to wait.
+     *
+     * @return number of contended acquisitions
+     */
+    public long getContendedAcquisitions() {
+        return contendedAcquisitions;
+    }
+
+    /**
+     * Returns the total time spent waiting for a lock for the key.
+     *
+     * @return wait time in nanoseconds
+     */
+    public long getWaitTimeNanos() {
+        return waitTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyMetrics[key=" + key + ", acquisitions=" + acquisitions + ", contendedAcquisitions=" + contendedAcquisitions + ", waitTimeNanos="
+                + waitTimeNanos + "]";
+    }
+
+}
@@ -0,0 +1,95 @@
+package net.dapete.locks;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on an {@link Executor}, sequentially for tasks with the same key and in parallel for tasks with different keys.
+ * <p>
+ * This replaces the pattern of calling {@code lock(key)} with a {@link Locks} instance inside a task running in a thread pool. Instead of locks, each key has
+ * a queue of tasks which is drained by at most one task on the executor at a time, so no thread is ever blocked waiting for another task with the same key.
+ * Queues are managed like locks of the other implementations, and are removed once they are empty and no longer used.
+ * <p>
+ * By default, every task is submitted to the executor separately, so tasks for different keys are interleaved fairly. With a batch size greater than 1, up
+ * to that many tasks for the same key are run in a single task on the executor, which reduces the overhead per task if there are many tasks for few keys.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public interface KeyedExecutor<K> {
+
+    /**
+     * Return an instance running tasks on the specified executor, each one submitted separately.
+     *
+     * @param executor executor to run tasks
+     * @param <K>      type of key
+     * @return instance
+     */
+    static <K> KeyedExecutor<K> create(Executor executor) {
+        return create(executor, 1);
+    }
+
+    /**
+     * Return an instance running tasks on the specified executor, with up to {@code maxBatchSize} tasks for the same key run in a single task on the
+     * executor.
+     *
+     * @param executor     executor to run tasks
+     * @param maxBatchSize maximum number of tasks for the same key run in a single task on the executor
+     * @param <K>          type of key
+     * @return instance
+     * @throws IllegalArgumentException if {@code maxBatchSize} is not positive
+     */
+    static <K> KeyedExecutor<K> create(Executor executor, int maxBatchSize) {
+        return create(executor, maxBatchSize, CleanupStrategy.callingThread());
+    }
+
+    /**
+     * Return an instance running tasks on the specified executor, with up to {@code maxBatchSize} tasks for the same key run in a single task on the
+     * executor, using the specified strategy to remove queues which are no longer used.
+     *
+     * @param executor        executor to run tasks
+     * @param maxBatchSize    maximum number of tasks for the same key run in a single task on the executor
+     * @param cleanupStrategy strategy for removing unused queues
+     * @param <K>             type of key
+     * @return instance
+     * @throws IllegalArgumentException if {@code maxBatchSize} is not positive
+     */
+    static <K> KeyedExecutor<K> create(Executor executor, int maxBatchSize, CleanupStrategy cleanupStrategy) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive, but is " + maxBatchSize);
+        }
+        return new KeyedExecutorImpl<>(executor, maxBatchSize, cleanupStrategy);
+    }
+
+    /**
+     * Submit a task to run after all tasks previously submitted with the same key have completed.
+     * <p>
+     * Cancelling the returned future before the task has started prevents it from running. If the executor rejects the task, the future is completed
+     * exceptionally with the {@link java.util.concurrent.RejectedExecutionException}.
+     *
+     * @param key  key
+     * @param task task
+     * @param <T>  result type of the task
+     * @return future which is completed with the result of the task
+     */
+    <T> CompletableFuture<T> submit(K key, Callable<T> task);
+
+    /**
+     * Submit a task to run after all tasks previously submitted with the same key have completed.
+     *
+     * @param key  key
+     * @param task task
+     * @return future which is completed once the task has run
+     * @see #submit(Object, Callable)
+     */
+    CompletableFuture<Void> submit(K key, Runnable task);
+
+    /**
+     * Returns the number of task queues currently held by this instance. This includes queues which are not in use any more, but have not yet been removed.
+     *
+     * @return number of task queues currently held by this instance
+     */
+    int size();
+
+}
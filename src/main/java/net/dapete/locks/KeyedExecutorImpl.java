@@ -0,0 +1,26 @@
+package net.dapete.locks;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+final class KeyedExecutorImpl<K> extends AbstractLocks<K, KeyedTaskQueue> implements KeyedExecutor<K> {
+
+    KeyedExecutorImpl(Executor executor, int maxBatchSize, CleanupStrategy cleanupStrategy) {
+        super(() -> new KeyedTaskQueue(executor, maxBatchSize), cleanupStrategy);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(K key, Callable<T> task) {
+        return get(key).submit(task);
+    }
+
+    @Override
+    public CompletableFuture<Void> submit(K key, Runnable task) {
+        return get(key).submit(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+}
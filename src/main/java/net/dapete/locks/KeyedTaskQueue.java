@@ -0,0 +1,96 @@
+package net.dapete.locks;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Queue of tasks for a single key of a {@link KeyedExecutor}. At most one drain of the queue is scheduled on the executor at any time, which runs up to
+ * {@code maxBatchSize} tasks before scheduling itself again, so tasks for the same key run sequentially without any thread waiting for a lock.
+ * <p>
+ * While tasks are pending, the queue is strongly reachable from the drain scheduled on the executor. Once it is empty, it may be removed like a lock.
+ */
+final class KeyedTaskQueue implements Runnable {
+
+    private final Executor executor;
+
+    private final int maxBatchSize;
+
+    private final Queue<Task<?>> tasks = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    KeyedTaskQueue(Executor executor, int maxBatchSize) {
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    <T> CompletableFuture<T> submit(Callable<T> callable) {
+        final var task = new Task<>(callable);
+        tasks.add(task);
+        schedule();
+        return task.future;
+    }
+
+    private void schedule() {
+        if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                Task<?> task;
+                while ((task = tasks.poll()) != null) {
+                    task.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs up to {@code maxBatchSize} pending tasks, then schedules another drain if there are more.
+     */
+    @Override
+    public void run() {
+        try {
+            for (int i = 0; i < maxBatchSize; i++) {
+                final var task = tasks.poll();
+                if (task == null) {
+                    break;
+                }
+                task.run();
+            }
+        } finally {
+            scheduled.set(false);
+            schedule();
+        }
+    }
+
+    private static final class Task<T> {
+
+        private final Callable<T> callable;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        void run() {
+            if (future.isDone()) {
+                // cancelled
+                return;
+            }
+            try {
+                future.complete(callable.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+    }
+
+}
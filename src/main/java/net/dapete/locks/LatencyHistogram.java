@@ -0,0 +1,121 @@
+package net.dapete.locks;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in nanoseconds, with buckets whose bounds are powers of two.
+ * <p>
+ * Bucket {@code 0} counts durations of {@code 0}, and bucket {@code i} counts durations from 2<sup>i-1</sup> to 2<sup>i</sup>-1 nanoseconds, except for the
+ * last bucket, which counts all longer durations as well. Recording a duration only increments a {@link LongAdder}, so it scales with the number of threads.
+ * Values read while durations are recorded concurrently may not be consistent with each other.
+ *
+ * @since 1.4.0
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Number of buckets. The last bucket starts at 2<sup>38</sup> nanoseconds, about 275 seconds.
+     */
+    private static final int BUCKETS = 40;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        final long positiveNanos = Math.max(nanos, 0);
+        counts[Math.min(64 - Long.numberOfLeadingZeros(positiveNanos), BUCKETS - 1)].increment();
+        totalNanos.add(positiveNanos);
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return number of buckets
+     */
+    public int getBuckets() {
+        return BUCKETS;
+    }
+
+    /**
+     * Returns the number of durations in a bucket.
+     *
+     * @param bucket index of the bucket, from {@code 0} to {@link #getBuckets()}{@code - 1}
+     * @return number of durations in the bucket
+     * @throws IndexOutOfBoundsException if there is no bucket with this index
+     */
+    public long getCount(int bucket) {
+        return counts[bucket].sum();
+    }
+
+    /**
+     * Returns the largest duration counted in a bucket.
+     *
+     * @param bucket index of the bucket, from {@code 0} to {@link #getBuckets()}{@code - 1}
+     * @return largest duration in nanoseconds, {@link Long#MAX_VALUE} for the last bucket
+     * @throws IndexOutOfBoundsException if there is no bucket with this index
+     */
+    public long getUpperBoundNanos(int bucket) {
+        if (bucket < 0 || bucket >= BUCKETS) {
+            throw new IndexOutOfBoundsException("No bucket " + bucket);
+        }
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * Returns the total number of durations.
+     *
+     * @return number of durations
+     */
+    public long getCount() {
+        long count = 0;
+        for (final var bucketCount : counts) {
+            count += bucketCount.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of all durations.
+     *
+     * @return sum of all durations in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns an estimate of a percentile, which is the upper bound of the bucket containing it.
+     *
+     * @param percentile percentile, from {@code 0} to {@code 100}
+     * @return upper bound of the percentile in nanoseconds, or {@code 0} if no durations have been recorded
+     * @throws IllegalArgumentException if {@code percentile} is not between {@code 0} and {@code 100}
+     */
+    public long getPercentileNanos(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100, but is " + percentile);
+        }
+        final var bucketCounts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketCounts[i] = counts[i].sum();
+            count += bucketCounts[i];
+        }
+        final long rank = (long) Math.ceil(percentile / 100 * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank && seen > 0) {
+                return getUpperBoundNanos(i);
+            }
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,62 @@
+package net.dapete.locks;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service provider interface for locking keys across processes, used by {@link DistributedLocks}.
+ * <p>
+ * {@link DistributedLocks} calls a backend only while holding the local lock for the key, so within one JVM there is at most one caller per key at a time:
+ * threads of the same JVM wait for each other locally before acquiring the key from the backend once. A key is always released by the thread which acquired
+ * it, and it is not acquired again by the same JVM before it has been released.
+ * <p>
+ * Implementations may lock keys in any shared resource, like a file on the same host ({@link FileLockBackend}) or a network service. They may map several
+ * keys to the same underlying lock, as long as this is done consistently by all processes. Errors accessing the shared resource should be thrown as
+ * unchecked exceptions, like {@link java.io.UncheckedIOException}.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public interface LockBackend<K> {
+
+    /**
+     * Acquire the key, waiting until no other process holds it.
+     *
+     * @param key key
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    void acquire(K key) throws InterruptedException;
+
+    /**
+     * Acquire the key if no other process holds it within the timeout. With a timeout of {@code 0}, this does not wait at all.
+     *
+     * @param key     key
+     * @param timeout maximum time to wait
+     * @param unit    time unit of {@code timeout}
+     * @return {@code true} if the key was acquired
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    boolean tryAcquire(K key, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Release the key previously acquired by the current thread.
+     *
+     * @param key key
+     */
+    void release(K key);
+
+    /**
+     * Returns the position of the key in the order in which {@link DistributedLocks#lockAll(java.util.Collection)} acquires several keys, which must be the
+     * same in all processes, so processes locking overlapping sets of keys cannot deadlock each other.
+     * <p>
+     * Keys which share an underlying lock must have the same position. {@link DistributedLocks} acquires keys with the same position together, so they should
+     * only have the same position if they share an underlying lock which the same thread can acquire for several keys. The default implementation returns
+     * the hash code of the key, which is suitable if every key has its own underlying lock and the hash codes of keys are the same in all processes.
+     *
+     * @param key key
+     * @return position of the key
+     */
+    default int orderOf(K key) {
+        return key.hashCode();
+    }
+
+}
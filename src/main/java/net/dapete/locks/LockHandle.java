@@ -0,0 +1,82 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A lock which has been locked and is unlocked by {@link #close()}, for use with {@code try}-with-resources.
+ * <p>
+ * The handle keeps the lock strongly reachable until it is closed, so unlike with {@link Locks#lock(Object)} it is not necessary to keep the lock in a local
+ * variable. The handle is a small immutable object; if it does not escape the method it is used in, the JIT compiler can usually avoid allocating it.
+ * <p>
+ * A handle must be closed exactly once, by the thread which acquired it.
+ *
+ * @param <K> type of key
+ * @param <L> type of lock
+ * @since 1.4.0
+ */
+public final class LockHandle<K, L> implements AutoCloseable {
+
+    private final K key;
+
+    private final L lock;
+
+    private final Lock lockedLock;
+
+    private final @Nullable AbstractLocks<K, ?> locks;
+
+    private final long holdStart;
+
+    /**
+     * @param key        key
+     * @param lock       lock for the key
+     * @param lockedLock the {@code Lock} which has been locked, e.g. the read lock of a {@code ReadWriteLock}
+     * @param locks      instance the lock was obtained from, to release it if it is reference counted and to record metrics, or {@code null} if this is
+     *                   not necessary
+     */
+    LockHandle(K key, L lock, Lock lockedLock, @Nullable AbstractLocks<K, ?> locks) {
+        this.key = key;
+        this.lock = lock;
+        this.lockedLock = lockedLock;
+        this.locks = locks;
+        holdStart = locks != null ? locks.holdStart() : 0;
+    }
+
+    /**
+     * Returns the key.
+     *
+     * @return key
+     */
+    public K getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the lock, which is locked until this handle is closed.
+     *
+     * @return lock
+     */
+    public L getLock() {
+        return lock;
+    }
+
+    /**
+     * Unlocks the lock.
+     */
+    @Override
+    public void close() {
+        try {
+            lockedLock.unlock();
+            if (locks != null) {
+                locks.recordHoldTime(holdStart);
+                locks.releaseHeld(key);
+            }
+        } finally {
+            // the lock must not be collected while it is locked, even if only lockedLock was used after acquiring it
+            Reference.reachabilityFence(lock);
+        }
+    }
+
+}
@@ -0,0 +1,252 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Metrics for key-based locking, which are recorded if an instance of this class is passed to a factory method like
+ * {@link Locks#reentrant(boolean, CleanupStrategy, LockMetrics)}. Without it, no metrics are recorded and there is no overhead except for a {@code null}
+ * check.
+ * <p>
+ * All counters are {@link LongAdder}s, so recording scales with the number of threads, and all methods of this class can be called at any time, e.g. by a
+ * metrics exporter polling them. One instance can be shared by several {@code Locks} or {@code ReadWriteLocks} instances to record their combined metrics.
+ * <p>
+ * An acquisition is contended if the lock was not immediately available. To find out without breaking the fairness of fair locks, a lock is first tried with
+ * {@link Lock#tryLock(long, TimeUnit)} and a timeout of {@code 0}. Hold times can only be measured if locks are unlocked by closing a {@link LockHandle}
+ * (e.g. from {@link Locks#acquire(Object)}), because unlocking a lock directly cannot be observed.
+ * <p>
+ * Instances created by {@link #perKey(int)} also record metrics per key, which are used by {@link #getHotKeys(int)}. To limit the memory used, if more than
+ * {@code maxKeys} keys are tracked, the less frequently acquired half of them is discarded, so the metrics per key are approximate.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public final class LockMetrics<K> {
+
+    private final LongAdder acquisitions = new LongAdder();
+
+    private final LongAdder contendedAcquisitions = new LongAdder();
+
+    private final LongAdder creations = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+
+    private final LatencyHistogram holdTimes = new LatencyHistogram();
+
+    private final @Nullable ConcurrentMap<K, KeyCounters> keyCounters;
+
+    private final int maxKeys;
+
+    private final Lock pruneLock = new ReentrantLock();
+
+    private LockMetrics(int maxKeys) {
+        this.keyCounters = maxKeys > 0 ? new ConcurrentHashMap<>() : null;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Return an instance which records metrics for all keys together.
+     *
+     * @param <K> type of key
+     * @return new instance
+     */
+    public static <K> LockMetrics<K> create() {
+        return new LockMetrics<>(0);
+    }
+
+    /**
+     * Return an instance which also records metrics per key, for at most approximately {@code maxKeys} keys.
+     *
+     * @param maxKeys maximum number of keys to track
+     * @param <K>     type of key
+     * @return new instance
+     * @throws IllegalArgumentException if {@code maxKeys} is not positive
+     */
+    public static <K> LockMetrics<K> perKey(int maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys must be positive, but is " + maxKeys);
+        }
+        return new LockMetrics<>(maxKeys);
+    }
+
+    /**
+     * Returns the number of times a lock was acquired.
+     *
+     * @return number of acquisitions
+     */
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * Returns the number of times a lock was not immediately available and the caller had to wait.
+     *
+     * @return number of contended acquisitions
+     */
+    public long getContendedAcquisitions() {
+        return contendedAcquisitions.sum();
+    }
+
+    /**
+     * Returns the number of locks created.
+     *
+     * @return number of locks created
+     */
+    public long getCreations() {
+        return creations.sum();
+    }
+
+    /**
+     * Returns the number of locks removed because they were no longer used.
+     *
+     * @return number of locks removed
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the histogram of times spent waiting for locks. Each acquisition is recorded, uncontended ones with a wait time of {@code 0}.
+     *
+     * @return histogram of wait times
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Returns the histogram of times locks were held, for locks unlocked by closing a {@link LockHandle}.
+     *
+     * @return histogram of hold times
+     */
+    public LatencyHistogram getHoldTimes() {
+        return holdTimes;
+    }
+
+    /**
+     * Returns the metrics of the keys with the most contended acquisitions, and then the most acquisitions. Keys which were never contended are included if
+     * there are fewer than {@code n} contended keys.
+     *
+     * @param n maximum number of keys to return
+     * @return metrics of up to {@code n} keys, most contended first, or an empty list if metrics are not recorded per key
+     */
+    public List<KeyMetrics<K>> getHotKeys(int n) {
+        final var result = new ArrayList<KeyMetrics<K>>();
+        if (keyCounters != null) {
+            for (final var entry : keyCounters.entrySet()) {
+                final var counters = entry.getValue();
+                result.add(new KeyMetrics<>(entry.getKey(), counters.acquisitions.sum(), counters.contendedAcquisitions.sum(), counters.waitTimeNanos.sum()));
+            }
+            result.sort(Comparator.comparingLong((KeyMetrics<K> keyMetrics) -> keyMetrics.getContendedAcquisitions())
+                    .thenComparingLong(KeyMetrics::getAcquisitions)
+                    .reversed());
+        }
+        return result.size() > n ? new ArrayList<>(result.subList(0, Math.max(n, 0))) : result;
+    }
+
+    void recordHoldTime(long nanos) {
+        holdTimes.record(nanos);
+    }
+
+    void recordCreation() {
+        creations.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    void recordAcquisition(K key, long waitTimeNanos, boolean contended) {
+        acquisitions.increment();
+        waitTimes.record(waitTimeNanos);
+        if (contended) {
+            contendedAcquisitions.increment();
+        }
+        if (keyCounters != null) {
+            final var counters = getKeyCounters(keyCounters, key);
+            counters.acquisitions.increment();
+            if (contended) {
+                counters.contendedAcquisitions.increment();
+                counters.waitTimeNanos.add(waitTimeNanos);
+            }
+        }
+    }
+
+    private KeyCounters getKeyCounters(ConcurrentMap<K, KeyCounters> keyCounters, K key) {
+        final var counters = keyCounters.get(key);
+        if (counters != null) {
+            return counters;
+        }
+        final var newCounters = keyCounters.computeIfAbsent(key, k -> new KeyCounters());
+        if (keyCounters.size() > maxKeys) {
+            prune(keyCounters);
+        }
+        return newCounters;
+    }
+
+    /**
+     * Discards the less frequently acquired half of the tracked keys. Only one thread prunes at a time, others skip it.
+     */
+    private void prune(ConcurrentMap<K, KeyCounters> keyCounters) {
+        if (!pruneLock.tryLock()) {
+            return;
+        }
+        try {
+            final var counts = new long[keyCounters.size()];
+            int size = 0;
+            for (final var counters : keyCounters.values()) {
+                if (size == counts.length) {
+                    break;
+                }
+                counts[size++] = counters.acquisitions.sum();
+            }
+            if (size <= maxKeys) {
+                return;
+            }
+            Arrays.sort(counts, 0, size);
+            // discard the keys with the lowest counts; counts only increase, so this may discard fewer keys if they are acquired in the meantime
+            final int discard = size - Math.max(maxKeys / 2, 1);
+            final long threshold = counts[discard - 1];
+            int lower = discard - 1;
+            while (lower > 0 && counts[lower - 1] == threshold) {
+                lower--;
+            }
+            int discardAtThreshold = discard - lower;
+            final var iterator = keyCounters.values().iterator();
+            while (iterator.hasNext()) {
+                final long count = iterator.next().acquisitions.sum();
+                if (count < threshold) {
+                    iterator.remove();
+                } else if (count == threshold && discardAtThreshold > 0) {
+                    iterator.remove();
+                    discardAtThreshold--;
+                }
+            }
+        } finally {
+            pruneLock.unlock();
+        }
+    }
+
+    private static final class KeyCounters {
+
+        private final LongAdder acquisitions = new LongAdder();
+
+        private final LongAdder contendedAcquisitions = new LongAdder();
+
+        private final LongAdder waitTimeNanos = new LongAdder();
+
+    }
+
+}
@@ -0,0 +1,142 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * A bounded pool of unused locks, which reference-counted instances reuse for new keys instead of creating new locks.
+ * <p>
+ * When the last holder of a lock releases it, the lock is first removed from its instance, so it is no longer reachable using its old key, and then added to
+ * the pool if it is idle according to the predicate of the pool and the pool is not full. Locks which are not idle, for example because they are still locked
+ * by a caller which did not follow the locking protocol, are never reused.
+ * <p>
+ * Adding and removing locks does not block and does not allocate any objects. The pool is best effort: if it is contended, locks may be discarded or created
+ * even though the pool is not full or empty.
+ * <p>
+ * A pool may be shared by several instances using the same type of lock.
+ *
+ * @param <L> type of lock
+ * @since 1.4.0
+ */
+public final class LockPool<L> {
+
+    /**
+     * Maximum number of slots looked at when adding or removing a lock.
+     */
+    private static final int MAX_PROBES = 8;
+
+    private final AtomicReferenceArray<@Nullable CountedLock<L>> slots;
+
+    private final Predicate<? super L> isIdle;
+
+    private LockPool(int capacity, Predicate<? super L> isIdle) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, but is " + capacity);
+        }
+        slots = new AtomicReferenceArray<>(capacity);
+        this.isIdle = isIdle;
+    }
+
+    /**
+     * Return a pool for locks of any type, using the specified predicate to determine whether a lock is idle and may be reused.
+     *
+     * @param capacity maximum number of locks in the pool
+     * @param isIdle   predicate returning {@code true} if a lock is not locked and has no waiting threads
+     * @param <L>      type of lock
+     * @return pool
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    public static <L> LockPool<L> create(int capacity, Predicate<? super L> isIdle) {
+        return new LockPool<>(capacity, isIdle);
+    }
+
+    /**
+     * Return a pool for {@link ReentrantLock} instances.
+     *
+     * @param capacity maximum number of locks in the pool
+     * @return pool
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    public static LockPool<ReentrantLock> reentrant(int capacity) {
+        return create(capacity, lock -> !lock.isLocked() && !lock.hasQueuedThreads());
+    }
+
+    /**
+     * Return a pool for {@link ReentrantReadWriteLock} instances.
+     *
+     * @param capacity maximum number of locks in the pool
+     * @return pool
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    public static LockPool<ReentrantReadWriteLock> reentrantReadWrite(int capacity) {
+        return create(capacity, lock -> !lock.isWriteLocked() && lock.getReadLockCount() == 0 && !lock.hasQueuedThreads());
+    }
+
+    /**
+     * Returns the maximum number of locks in the pool.
+     *
+     * @return maximum number of locks in the pool
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * Returns the number of locks currently in the pool.
+     *
+     * @return number of locks currently in the pool
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes a lock from the pool, resetting it to a single holder.
+     *
+     * @return lock, or {@code null} if none was found
+     */
+    @Nullable CountedLock<L> poll() {
+        final int length = slots.length();
+        int index = ThreadLocalRandom.current().nextInt(length);
+        for (int probe = Math.min(length, MAX_PROBES); probe > 0; probe--) {
+            final var countedLock = slots.get(index);
+            if (countedLock != null && slots.compareAndSet(index, countedLock, null)) {
+                countedLock.reset();
+                return countedLock;
+            }
+            index = index + 1 == length ? 0 : index + 1;
+        }
+        return null;
+    }
+
+    /**
+     * Adds a lock which has been removed from its instance to the pool, if it is idle and a free slot is found.
+     *
+     * @param countedLock lock without holders
+     */
+    void offer(CountedLock<L> countedLock) {
+        if (!isIdle.test(countedLock.getLock())) {
+            return;
+        }
+        final int length = slots.length();
+        int index = ThreadLocalRandom.current().nextInt(length);
+        for (int probe = Math.min(length, MAX_PROBES); probe > 0; probe--) {
+            if (slots.get(index) == null && slots.compareAndSet(index, null, countedLock)) {
+                return;
+            }
+            index = index + 1 == length ? 0 : index + 1;
+        }
+    }
+
+}
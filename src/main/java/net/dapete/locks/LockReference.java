@@ -1,5 +1,7 @@
 package net.dapete.locks;
 
+import org.jspecify.annotations.Nullable;
+
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 
@@ -7,7 +9,7 @@ final class LockReference<K, L> extends WeakReference<L> {
 
     private final K key;
 
-    LockReference(K key, L value, ReferenceQueue<? super L> referenceQueue) {
+    LockReference(K key, L value, @Nullable ReferenceQueue<? super L> referenceQueue) {
         super(value, referenceQueue);
         this.key = key;
     }
@@ -0,0 +1,83 @@
+package net.dapete.locks;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A stamp obtained from a {@link StampedLock} by {@link StampedLocks}, together with the lock it belongs to.
+ * <p>
+ * A stamp is only meaningful for the lock which issued it. Keeping the lock with the stamp keeps it strongly reachable, so the same lock is used for the key
+ * until this object is no longer used, and stamps can never be validated or unlocked against a different lock for the same key.
+ * <p>
+ * Read and write stamps are unlocked by {@link #close()}, for use with {@code try}-with-resources. A stamp in read or write mode must be closed exactly once.
+ *
+ * @since 1.4.0
+ */
+public final class LockStamp implements AutoCloseable {
+
+    enum Mode {
+        OPTIMISTIC_READ,
+        READ,
+        WRITE
+    }
+
+    private final StampedLock lock;
+
+    private final long stamp;
+
+    private final Mode mode;
+
+    LockStamp(StampedLock lock, long stamp, Mode mode) {
+        this.lock = lock;
+        this.stamp = stamp;
+        this.mode = mode;
+    }
+
+    /**
+     * Returns the lock which issued the stamp.
+     *
+     * @return lock
+     */
+    public StampedLock getLock() {
+        return lock;
+    }
+
+    /**
+     * Returns the stamp.
+     *
+     * @return stamp
+     */
+    public long getStamp() {
+        return stamp;
+    }
+
+    /**
+     * Returns whether this is a stamp from {@link StampedLock#tryOptimisticRead()}, which does not lock anything.
+     *
+     * @return {@code true} if this is an optimistic read stamp
+     */
+    public boolean isOptimisticRead() {
+        return mode == Mode.OPTIMISTIC_READ;
+    }
+
+    /**
+     * Returns whether the lock has not been exclusively acquired since this stamp was issued, see {@link StampedLock#validate(long)}.
+     *
+     * @return {@code true} if the lock has not been exclusively acquired since this stamp was issued
+     */
+    public boolean validate() {
+        return lock.validate(stamp);
+    }
+
+    /**
+     * Unlocks the lock if this is a read or write stamp. Does nothing for an optimistic read stamp.
+     *
+     * @throws IllegalMonitorStateException if the stamp does not match the current state of the lock
+     */
+    @Override
+    public void close() {
+        if (mode != Mode.OPTIMISTIC_READ) {
+            lock.unlock(stamp);
+        }
+    }
+
+}
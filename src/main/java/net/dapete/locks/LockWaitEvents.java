@@ -0,0 +1,64 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Emits events for long waits for a lock to JDK Flight Recorder, if the {@code jdk.jfr} module is available. This class does not reference any classes from
+ * {@code jdk.jfr} itself, so it can be used if the module is not available.
+ */
+abstract class LockWaitEvents {
+
+    private static final LockWaitEvents INSTANCE = isJfrAvailable() ? new JfrLockWaitEvents() : new Disabled();
+
+    static LockWaitEvents getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns whether events are currently recorded, which is only the case while a recording with the event enabled is running.
+     *
+     * @return {@code true} if events are recorded
+     */
+    abstract boolean isEnabled();
+
+    /**
+     * Begins timing a wait.
+     *
+     * @return event, or {@code null} if events are not recorded
+     */
+    abstract @Nullable Object begin();
+
+    /**
+     * Ends timing a wait, and commits the event if the wait was longer than the threshold of the event.
+     *
+     * @param event event returned by {@link #begin()}
+     * @param key   key of the lock
+     * @param lock  lock (or one of its parts) that was waited for
+     */
+    abstract void commit(@Nullable Object event, Object key, Object lock);
+
+    private static boolean isJfrAvailable() {
+        final var layer = LockWaitEvents.class.getModule().getLayer();
+        return (layer != null ? layer : ModuleLayer.boot()).findModule("jdk.jfr").isPresent();
+    }
+
+    private static final class Disabled extends LockWaitEvents {
+
+        @Override
+        boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        @Nullable Object begin() {
+            return null;
+        }
+
+        @Override
+        void commit(@Nullable Object event, Object key, Object lock) {
+            // nothing to do
+        }
+
+    }
+
+}
@@ -1,5 +1,9 @@
 package net.dapete.locks;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
@@ -24,6 +28,36 @@ public interface Locks<K, L extends Lock> {
         return new LocksImpl<>(lockSupplier);
     }
 
+    /**
+     * Return an instance using {@link Lock} implementations created by the specified {@code lockSupplier} and the specified strategy to remove unused locks.
+     *
+     * @param lockSupplier    Supplier for instances of {@link L} (usually the constructor of a class implementing {@link Lock})
+     * @param cleanupStrategy strategy to remove locks which are no longer used
+     * @param <K>             type of key
+     * @param <L>             type of {@link Lock}
+     * @return instance using {@code Lock} implementations created by the specified {@code lockSupplier}
+     * @since 1.4.0
+     */
+    static <K, L extends Lock> Locks<K, L> withSupplier(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy) {
+        return new LocksImpl<>(lockSupplier, cleanupStrategy);
+    }
+
+    /**
+     * Return an instance using {@link Lock} implementations created by the specified {@code lockSupplier} and the specified strategy to remove unused locks,
+     * which records metrics.
+     *
+     * @param lockSupplier    Supplier for instances of {@link L} (usually the constructor of a class implementing {@link Lock})
+     * @param cleanupStrategy strategy to remove locks which are no longer used
+     * @param metrics         metrics to record
+     * @param <K>             type of key
+     * @param <L>             type of {@link Lock}
+     * @return instance using {@code Lock} implementations created by the specified {@code lockSupplier}
+     * @since 1.4.0
+     */
+    static <K, L extends Lock> Locks<K, L> withSupplier(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy, LockMetrics<K> metrics) {
+        return new LocksImpl<>(lockSupplier, cleanupStrategy, metrics);
+    }
+
     /**
      * Return a {@link ReentrantLocks} instance using {@link ReentrantLock}.
      *
@@ -70,6 +104,322 @@ public interface Locks<K, L extends Lock> {
         return reentrant(fair);
     }
 
+    /**
+     * Return a {@link ReentrantLocks} instance using {@link ReentrantLock} with the given fairness policy and the specified strategy to remove unused locks.
+     *
+     * @param fair            {@code true} if the locks should use a fair ordering policy (see {@link ReentrantLock#ReentrantLock(boolean)})
+     * @param cleanupStrategy strategy to remove locks which are no longer used
+     * @param <K>             type of key
+     * @return {@code ReentrantLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReentrantLocks<K> reentrant(boolean fair, CleanupStrategy cleanupStrategy) {
+        return new ReentrantLocks<>(fair, cleanupStrategy);
+    }
+
+    /**
+     * Return a {@link ReentrantLocks} instance using {@link ReentrantLock} with the given fairness policy and the specified strategy to remove unused locks,
+     * which records metrics.
+     *
+     * @param fair            {@code true} if the locks should use a fair ordering policy (see {@link ReentrantLock#ReentrantLock(boolean)})
+     * @param cleanupStrategy strategy to remove locks which are no longer used
+     * @param metrics         metrics to record
+     * @param <K>             type of key
+     * @return {@code ReentrantLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReentrantLocks<K> reentrant(boolean fair, CleanupStrategy cleanupStrategy, LockMetrics<K> metrics) {
+        return new ReentrantLocks<>(fair, cleanupStrategy, metrics);
+    }
+
+    /**
+     * Return a {@link ReentrantLocks} instance suited for use by many virtual threads.
+     * <p>
+     * Unused locks are removed by a virtual thread (see {@link CleanupStrategy#virtualThread()}), so threads calling {@code get} or {@code lock} never do
+     * any cleanup. {@link ReentrantLock} parks virtual threads without pinning their carrier thread.
+     *
+     * @param <K> type of key
+     * @return {@code ReentrantLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReentrantLocks<K> forVirtualThreads() {
+        return reentrant(false, CleanupStrategy.virtualThread());
+    }
+
+    /**
+     * Return a {@link ReentrantLocks} instance suited for use by many virtual threads.
+     *
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return {@code ReentrantLocks} instance
+     * @see #forVirtualThreads()
+     * @since 1.4.0
+     */
+    static <K> ReentrantLocks<K> forVirtualThreads(@SuppressWarnings("unused") Class<K> keyClass) {
+        return forVirtualThreads();
+    }
+
+    /**
+     * Return an {@link AdaptiveLocks} instance using {@link AdaptiveLock}, which spins for a while before parking the thread if the lock is not free. This is
+     * faster than {@link #reentrant()} for contended critical sections which only take microseconds.
+     *
+     * @param <K> type of key
+     * @return {@code AdaptiveLocks} instance
+     * @since 1.4.0
+     */
+    static <K> AdaptiveLocks<K> adaptive() {
+        return new AdaptiveLocks<>();
+    }
+
+    /**
+     * Return an {@link AdaptiveLocks} instance using {@link AdaptiveLock}, which spins for a while before parking the thread if the lock is not free.
+     *
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return {@code AdaptiveLocks} instance
+     * @see #adaptive()
+     * @since 1.4.0
+     */
+    static <K> AdaptiveLocks<K> adaptive(@SuppressWarnings("unused") Class<K> keyClass) {
+        return adaptive();
+    }
+
+    /**
+     * Return an {@link AdaptiveLocks} instance using {@link AdaptiveLock}, which spins for a while before parking the thread if the lock is not free, using
+     * the specified strategy to remove unused locks.
+     *
+     * @param cleanupStrategy strategy for removing unused locks
+     * @param <K>             type of key
+     * @return {@code AdaptiveLocks} instance
+     * @see #adaptive()
+     * @since 1.4.0
+     */
+    static <K> AdaptiveLocks<K> adaptive(CleanupStrategy cleanupStrategy) {
+        return new AdaptiveLocks<>(cleanupStrategy);
+    }
+
+    /**
+     * Return an {@link ElidingLocks} instance using {@link ElidingLock}, which is acquired with a single compare-and-set as long as no other thread wants the
+     * same key, and only inflates to a {@link ReentrantLock} once a thread has to wait. This is faster than {@link #reentrant()} if most keys are never
+     * contended.
+     *
+     * @param <K> type of key
+     * @return {@code ElidingLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ElidingLocks<K> eliding() {
+        return new ElidingLocks<>();
+    }
+
+    /**
+     * Return an {@link ElidingLocks} instance using {@link ElidingLock}, which only inflates to a {@link ReentrantLock} once a thread has to wait.
+     *
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return {@code ElidingLocks} instance
+     * @see #eliding()
+     * @since 1.4.0
+     */
+    static <K> ElidingLocks<K> eliding(@SuppressWarnings("unused") Class<K> keyClass) {
+        return eliding();
+    }
+
+    /**
+     * Return an {@link ElidingLocks} instance using {@link ElidingLock}, which only inflates to a {@link ReentrantLock} once a thread has to wait, using the
+     * specified strategy to remove unused locks.
+     *
+     * @param cleanupStrategy strategy for removing unused locks
+     * @param <K>             type of key
+     * @return {@code ElidingLocks} instance
+     * @see #eliding()
+     * @since 1.4.0
+     */
+    static <K> ElidingLocks<K> eliding(CleanupStrategy cleanupStrategy) {
+        return new ElidingLocks<>(cleanupStrategy);
+    }
+
+    /**
+     * Return an {@link ElidingLocks} instance using {@link ElidingLock}, which inflates to a lock from the specified supplier once a thread has to wait.
+     * <p>
+     * The inflated lock only queues waiting threads, so it does not need to be reentrant, but a fair lock makes waiting threads acquire the key in order.
+     *
+     * @param inflatedLockSupplier supplier for the lock a contended {@code ElidingLock} inflates to
+     * @param <K>                  type of key
+     * @return {@code ElidingLocks} instance
+     * @see #eliding()
+     * @since 1.4.0
+     */
+    static <K> ElidingLocks<K> elidingWithSupplier(Supplier<? extends Lock> inflatedLockSupplier) {
+        return new ElidingLocks<>(inflatedLockSupplier);
+    }
+
+    /**
+     * Return a {@link DistributedLocks} instance, whose locks are also held across processes using the specified {@link LockBackend}, for example
+     * {@link FileLockBackend}.
+     *
+     * @param backend backend for locking keys across processes
+     * @param <K>     type of key
+     * @return {@code DistributedLocks} instance
+     * @since 1.4.0
+     */
+    static <K> DistributedLocks<K> distributed(LockBackend<? super K> backend) {
+        return new DistributedLocks<>(backend);
+    }
+
+    /**
+     * Return a {@link DistributedLocks} instance, whose locks are also held across processes using the specified {@link LockBackend}, for example
+     * {@link FileLockBackend}.
+     *
+     * @param backend  backend for locking keys across processes
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return {@code DistributedLocks} instance
+     * @since 1.4.0
+     */
+    static <K> DistributedLocks<K> distributed(LockBackend<? super K> backend, @SuppressWarnings("unused") Class<K> keyClass) {
+        return distributed(backend);
+    }
+
+    /**
+     * Return a {@link DeadlockDetectingLocks} instance, whose locks let the specified {@link DeadlockDetector} find threads waiting for keys held by each
+     * other.
+     *
+     * @param detector detector for deadlocks, which may be shared with other instances
+     * @param <K>      type of key
+     * @return {@code DeadlockDetectingLocks} instance
+     * @since 1.4.0
+     */
+    static <K> DeadlockDetectingLocks<K> deadlockDetecting(DeadlockDetector detector) {
+        return new DeadlockDetectingLocks<>(detector);
+    }
+
+    /**
+     * Return a {@link DeadlockDetectingLocks} instance, whose locks let the specified {@link DeadlockDetector} find threads waiting for keys held by each
+     * other.
+     *
+     * @param detector detector for deadlocks, which may be shared with other instances
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return {@code DeadlockDetectingLocks} instance
+     * @since 1.4.0
+     */
+    static <K> DeadlockDetectingLocks<K> deadlockDetecting(DeadlockDetector detector, @SuppressWarnings("unused") Class<K> keyClass) {
+        return deadlockDetecting(detector);
+    }
+
+    /**
+     * Return a {@link ReferenceCountedLocks} instance using {@link ReentrantLock}, which removes locks as soon as they are no longer used.
+     *
+     * @param <K> type of key
+     * @return {@code ReferenceCountedLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReferenceCountedLocks<K, ReentrantLock> referenceCounted() {
+        return referenceCountedWithSupplier(ReentrantLock::new);
+    }
+
+    /**
+     * Return a {@link ReferenceCountedLocks} instance using {@link ReentrantLock}, which removes locks as soon as they are no longer used.
+     *
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return {@code ReferenceCountedLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReferenceCountedLocks<K, ReentrantLock> referenceCounted(@SuppressWarnings("unused") Class<K> keyClass) {
+        return referenceCounted();
+    }
+
+    /**
+     * Return a {@link ReferenceCountedLocks} instance using {@link Lock} implementations created by the specified {@code lockSupplier}, which removes locks
+     * as soon as they are no longer used.
+     *
+     * @param lockSupplier Supplier for instances of {@link L} (usually the constructor of a class implementing {@link Lock})
+     * @param <K>          type of key
+     * @param <L>          type of {@link Lock}
+     * @return {@code ReferenceCountedLocks} instance using {@code Lock} implementations created by the specified {@code lockSupplier}
+     * @since 1.4.0
+     */
+    static <K, L extends Lock> ReferenceCountedLocks<K, L> referenceCountedWithSupplier(Supplier<L> lockSupplier) {
+        return new ReferenceCountedLocksImpl<>(lockSupplier);
+    }
+
+    /**
+     * Return a {@link ReferenceCountedLocks} instance using {@link ReentrantLock}, which removes locks as soon as they are no longer used and reuses them for
+     * new keys using the specified {@link LockPool}.
+     *
+     * @param pool pool of unused locks, for example {@link LockPool#reentrant(int)}
+     * @param <K>  type of key
+     * @return {@code ReferenceCountedLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReferenceCountedLocks<K, ReentrantLock> referenceCounted(LockPool<ReentrantLock> pool) {
+        return referenceCountedWithSupplier(ReentrantLock::new, pool);
+    }
+
+    /**
+     * Return a {@link ReferenceCountedLocks} instance using {@link Lock} implementations created by the specified {@code lockSupplier}, which removes locks
+     * as soon as they are no longer used and reuses them for new keys using the specified {@link LockPool}.
+     *
+     * @param lockSupplier Supplier for instances of {@link L} (usually the constructor of a class implementing {@link Lock})
+     * @param pool         pool of unused locks
+     * @param <K>          type of key
+     * @param <L>          type of {@link Lock}
+     * @return {@code ReferenceCountedLocks} instance using {@code Lock} implementations created by the specified {@code lockSupplier}
+     * @since 1.4.0
+     */
+    static <K, L extends Lock> ReferenceCountedLocks<K, L> referenceCountedWithSupplier(Supplier<L> lockSupplier, LockPool<L> pool) {
+        return new ReferenceCountedLocksImpl<>(lockSupplier, pool);
+    }
+
+    /**
+     * Return an instance using a fixed number of {@link ReentrantLock} instances (stripes) which are shared between keys.
+     * <p>
+     * The lock for a key is selected using the hash code of the key, so different keys may share the same lock. In exchange, no objects are allocated when a
+     * lock is requested and memory usage does not depend on the number of keys. The number of stripes is rounded up to the next power of two.
+     *
+     * @param stripes number of stripes
+     * @param <K>     type of key
+     * @return instance using a fixed number of {@code ReentrantLock} instances
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     * @since 1.4.0
+     */
+    static <K> Locks<K, ReentrantLock> striped(int stripes) {
+        return stripedWithSupplier(stripes, ReentrantLock::new);
+    }
+
+    /**
+     * Return an instance using a fixed number of {@link ReentrantLock} instances (stripes) which are shared between keys.
+     *
+     * @param stripes  number of stripes
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return instance using a fixed number of {@code ReentrantLock} instances
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     * @see #striped(int)
+     * @since 1.4.0
+     */
+    static <K> Locks<K, ReentrantLock> striped(int stripes, @SuppressWarnings("unused") Class<K> keyClass) {
+        return striped(stripes);
+    }
+
+    /**
+     * Return an instance using a fixed number of {@link Lock} implementations (stripes) created by the specified {@code lockSupplier}, which are shared
+     * between keys.
+     *
+     * @param stripes      number of stripes
+     * @param lockSupplier Supplier for instances of {@link L} (usually the constructor of a class implementing {@link Lock})
+     * @param <K>          type of key
+     * @param <L>          type of {@link Lock}
+     * @return instance using a fixed number of {@code Lock} implementations created by the specified {@code lockSupplier}
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     * @see #striped(int)
+     * @since 1.4.0
+     */
+    static <K, L extends Lock> Locks<K, L> stripedWithSupplier(int stripes, Supplier<L> lockSupplier) {
+        return new StripedLocksImpl<>(stripes, lockSupplier);
+    }
+
     /**
      * Returns a lock for the supplied key. There will be at most one lock per key at any given time.
      *
@@ -78,6 +428,16 @@ public interface Locks<K, L extends Lock> {
      */
     L get(K key);
 
+    /**
+     * Returns the locks for all supplied keys, like calling {@link #get(Object)} for each distinct key, but in a single pass which removes locks that are no
+     * longer used only once. There will be at most one lock per key at any given time.
+     *
+     * @param keys keys
+     * @return unmodifiable map of keys to locks, in the iteration order of {@code keys}
+     * @since 1.4.0
+     */
+    Map<K, L> getAll(Collection<? extends K> keys);
+
     /**
      * Return a {@code Lock} already locked using {@link Lock#lock()}.
      *
@@ -86,6 +446,78 @@ public interface Locks<K, L extends Lock> {
      */
     L lock(K key);
 
+    /**
+     * Return a {@code Lock} locked using {@link Lock#tryLock()}, if it was free.
+     *
+     * @param key key
+     * @return already locked lock, or an empty result if it was not free
+     * @since 1.4.0
+     */
+    Optional<L> tryLock(K key);
+
+    /**
+     * Return a {@code Lock} locked using {@link Lock#tryLock(long, TimeUnit)}, if it became free within the timeout.
+     *
+     * @param key     key
+     * @param timeout maximum time to wait for the lock
+     * @param unit    time unit of {@code timeout}
+     * @return already locked lock, or an empty result if it did not become free within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @since 1.4.0
+     */
+    Optional<L> tryLock(K key, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Return a {@code Lock} already locked using {@link Lock#lockInterruptibly()}.
+     *
+     * @param key key
+     * @return already locked lock
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @since 1.4.0
+     */
+    L lockInterruptibly(K key) throws InterruptedException;
+
+    /**
+     * Return a {@link LockHandle} for a {@code Lock} already locked using {@link Lock#lock()}, which is unlocked when the handle is closed.
+     * <p>
+     * This is intended to be used with {@code try}-with-resources:
+     * {@snippet :
+     * try (var handle = locks.acquire(key)) {
+     *     // do something
+     * }
+     * }
+     *
+     * @param key key
+     * @return handle for the already locked lock
+     * @since 1.4.0
+     */
+    LockHandle<K, L> acquire(K key);
+
+    /**
+     * Lock the locks for all supplied keys and return a {@link MultiLockHandle}, which unlocks them when it is closed.
+     * <p>
+     * The locks are always locked in a consistent global order, regardless of the order of the keys, so several threads locking overlapping sets of keys
+     * using this method cannot deadlock each other.
+     *
+     * @param keys keys
+     * @return handle for the already locked locks
+     * @since 1.4.0
+     */
+    MultiLockHandle<K, L> lockAll(Collection<? extends K> keys);
+
+    /**
+     * Lock the locks for all supplied keys like {@link #lockAll(Collection)}, if this is possible within the timeout. If not, all locks which have already
+     * been locked are unlocked again.
+     *
+     * @param keys    keys
+     * @param timeout maximum time to wait for all locks
+     * @param unit    time unit of {@code timeout}
+     * @return handle for the already locked locks, or an empty result if not all locks could be locked within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @since 1.4.0
+     */
+    Optional<MultiLockHandle<K, L>> tryLockAll(Collection<? extends K> keys, long timeout, TimeUnit unit) throws InterruptedException;
+
     /**
      * Returns the current number of locks managed by this instance.
      *
@@ -93,4 +525,13 @@ public interface Locks<K, L extends Lock> {
      */
     int size();
 
+    /**
+     * Returns a snapshot of statistics like the number of locks which are still reachable and the total number of locks created. Unlike {@link #size()},
+     * this never removes any locks, so it does not interfere with threads calling methods like {@code get} or {@code lock}.
+     *
+     * @return statistics
+     * @since 1.4.0
+     */
+    LocksStats stats();
+
 }
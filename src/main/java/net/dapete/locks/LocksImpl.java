@@ -1,6 +1,12 @@
 package net.dapete.locks;
 
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 class LocksImpl<K, L extends Lock> extends AbstractLocks<K, L> implements Locks<K, L> {
@@ -9,11 +15,82 @@ class LocksImpl<K, L extends Lock> extends AbstractLocks<K, L> implements Locks<
         super(lockSupplier);
     }
 
+    LocksImpl(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy) {
+        super(lockSupplier, cleanupStrategy);
+    }
+
+    LocksImpl(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy, @Nullable LockMetrics<K> metrics) {
+        super(lockSupplier, cleanupStrategy, metrics);
+    }
+
+    LocksImpl(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy, @Nullable LockMetrics<K> metrics, @Nullable LockPool<L> pool) {
+        super(lockSupplier, cleanupStrategy, metrics, pool);
+    }
+
+    LocksImpl(Function<? super K, ? extends L> lockFactory, CleanupStrategy cleanupStrategy) {
+        super(lockFactory, cleanupStrategy, null, null);
+    }
+
     @Override
     public final L lock(K key) {
         final var lock = get(key);
-        lock.lock();
+        meteredLock(key, lock);
         return lock;
     }
 
+    @Override
+    public final Optional<L> tryLock(K key) {
+        final var lock = get(key);
+        if (meteredTryLock(key, lock)) {
+            return Optional.of(lock);
+        }
+        releaseHeld(key);
+        return Optional.empty();
+    }
+
+    @Override
+    public final Optional<L> tryLock(K key, long timeout, TimeUnit unit) throws InterruptedException {
+        final var lock = get(key);
+        boolean locked = false;
+        try {
+            locked = meteredTryLock(key, lock, timeout, unit);
+        } finally {
+            if (!locked) {
+                releaseHeld(key);
+            }
+        }
+        return locked ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public final L lockInterruptibly(K key) throws InterruptedException {
+        final var lock = get(key);
+        boolean locked = false;
+        try {
+            meteredLockInterruptibly(key, lock);
+            locked = true;
+        } finally {
+            if (!locked) {
+                releaseHeld(key);
+            }
+        }
+        return lock;
+    }
+
+    @Override
+    public final LockHandle<K, L> acquire(K key) {
+        final var lock = lock(key);
+        return new LockHandle<>(key, lock, lock, this);
+    }
+
+    @Override
+    public MultiLockHandle<K, L> lockAll(Collection<? extends K> keys) {
+        return OrderedLocking.lockAll(getAllInternal(keys), (k, lock) -> System.identityHashCode(lock), lock -> lock, this, getTieLock());
+    }
+
+    @Override
+    public Optional<MultiLockHandle<K, L>> tryLockAll(Collection<? extends K> keys, long timeout, TimeUnit unit) throws InterruptedException {
+        return OrderedLocking.tryLockAll(getAllInternal(keys), (k, lock) -> System.identityHashCode(lock), lock -> lock, this, getTieLock(), timeout, unit);
+    }
+
 }
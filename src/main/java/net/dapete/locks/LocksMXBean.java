@@ -0,0 +1,55 @@
+package net.dapete.locks;
+
+/**
+ * Management interface for an instance of {@link ReentrantLocks} or {@link ReentrantReadWriteLocks} registered using {@link LocksManagement}.
+ * <p>
+ * The number of held locks and queued threads is determined by iterating over all locks, so reading these attributes takes time proportional to the number
+ * of locks, and the result is only an estimate while locks are used concurrently.
+ *
+ * @since 1.4.0
+ */
+public interface LocksMXBean {
+
+    /**
+     * Returns the current number of locks, like {@code stats().getSize()}. Reading this does not remove any locks.
+     *
+     * @return number of locks
+     */
+    int getSize();
+
+    /**
+     * Returns the number of locks which have been marked as unreachable by the garbage collector, but not removed yet.
+     *
+     * @return number of locks pending removal
+     */
+    int getPendingRemovals();
+
+    /**
+     * Returns the number of locks created since the instance was created.
+     *
+     * @return number of locks created
+     */
+    long getCreations();
+
+    /**
+     * Returns the number of locks created per second, since this attribute was last read or since registration.
+     *
+     * @return locks created per second
+     */
+    double getCreationRate();
+
+    /**
+     * Returns the number of locks which are currently held, in read or write mode for read-write locks.
+     *
+     * @return number of held locks
+     */
+    int getHeldLocks();
+
+    /**
+     * Returns the number of threads waiting for any lock.
+     *
+     * @return number of waiting threads
+     */
+    int getQueuedThreads();
+
+}
@@ -0,0 +1,81 @@
+package net.dapete.locks;
+
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Implementation of {@link LocksMXBean} for an {@link AbstractLocks} instance.
+ *
+ * @param <L> type of lock
+ */
+final class LocksMXBeanImpl<L> implements LocksMXBean {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final AbstractLocks<?, L> locks;
+
+    private final Predicate<L> isHeld;
+
+    private final ToIntFunction<L> queueLength;
+
+    private long lastCreations;
+
+    private long lastNanos;
+
+    /**
+     * @param locks       instance to manage
+     * @param isHeld      function returning whether a lock is held
+     * @param queueLength function returning the number of threads waiting for a lock
+     */
+    LocksMXBeanImpl(AbstractLocks<?, L> locks, Predicate<L> isHeld, ToIntFunction<L> queueLength) {
+        this.locks = locks;
+        this.isHeld = isHeld;
+        this.queueLength = queueLength;
+        lastCreations = locks.getCreations();
+        lastNanos = System.nanoTime();
+    }
+
+    @Override
+    public int getSize() {
+        return locks.stats().getSize();
+    }
+
+    @Override
+    public int getPendingRemovals() {
+        return locks.stats().getPendingRemovals();
+    }
+
+    @Override
+    public long getCreations() {
+        return locks.getCreations();
+    }
+
+    @Override
+    public synchronized double getCreationRate() {
+        final long creations = locks.getCreations();
+        final long nanos = System.nanoTime();
+        final double rate = nanos > lastNanos ? (creations - lastCreations) * NANOS_PER_SECOND / (nanos - lastNanos) : 0;
+        lastCreations = creations;
+        lastNanos = nanos;
+        return rate;
+    }
+
+    @Override
+    public int getHeldLocks() {
+        final int[] heldLocks = {0};
+        locks.forEachLock(lock -> {
+            if (isHeld.test(lock)) {
+                heldLocks[0]++;
+            }
+        });
+        return heldLocks[0];
+    }
+
+    @Override
+    public int getQueuedThreads() {
+        final int[] queuedThreads = {0};
+        locks.forEachLock(lock -> queuedThreads[0] += queueLength.applyAsInt(lock));
+        return queuedThreads[0];
+    }
+
+}
@@ -0,0 +1,84 @@
+package net.dapete.locks;
+
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Registers instances with the platform MBean server, to inspect them using JMX (see {@link LocksMXBean}).
+ * <p>
+ * The MBean is registered with the object name {@code net.dapete.locks:type=<type>,name=<name>}, where {@code type} is the simple name of the class of the
+ * instance. A registered instance is referenced by the MBean server, so it should be unregistered using {@link #unregisterMBean(ObjectName)} once it is no
+ * longer used.
+ * <p>
+ * This requires the {@code java.management} module.
+ *
+ * @since 1.4.0
+ */
+public final class LocksManagement {
+
+    private static final String DOMAIN = "net.dapete.locks";
+
+    private LocksManagement() {
+    }
+
+    /**
+     * Registers an MBean for a {@link ReentrantLocks} instance.
+     *
+     * @param locks instance
+     * @param name  name used in the object name
+     * @return object name of the MBean
+     * @throws IllegalStateException if the MBean could not be registered, e.g. because there already is an MBean with the same name
+     */
+    public static ObjectName registerMBean(ReentrantLocks<?> locks, String name) {
+        return register(new LocksMXBeanImpl<>(locks, ReentrantLock::isLocked, ReentrantLock::getQueueLength), "ReentrantLocks", name);
+    }
+
+    /**
+     * Registers an MBean for a {@link ReentrantReadWriteLocks} instance.
+     *
+     * @param locks instance
+     * @param name  name used in the object name
+     * @return object name of the MBean
+     * @throws IllegalStateException if the MBean could not be registered, e.g. because there already is an MBean with the same name
+     */
+    public static ObjectName registerMBean(ReentrantReadWriteLocks<?> locks, String name) {
+        return register(new LocksMXBeanImpl<>(locks, lock -> lock.isWriteLocked() || lock.getReadLockCount() > 0, ReentrantReadWriteLock::getQueueLength),
+                "ReentrantReadWriteLocks", name);
+    }
+
+    /**
+     * Unregisters an MBean registered by this class.
+     *
+     * @param objectName object name returned when the MBean was registered
+     * @throws IllegalStateException if the MBean could not be unregistered, e.g. because it is not registered
+     */
+    public static void unregisterMBean(ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister MBean " + objectName, e);
+        }
+    }
+
+    private static ObjectName register(LocksMXBean mbean, String type, String name) {
+        final ObjectName objectName;
+        try {
+            objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+        } catch (MalformedObjectNameException e) {
+            // cannot happen, the name is quoted
+            throw new IllegalArgumentException(e);
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(mbean, LocksMXBean.class, true), objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register MBean " + objectName, e);
+        }
+        return objectName;
+    }
+
+}
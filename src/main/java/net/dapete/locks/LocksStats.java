@@ -0,0 +1,66 @@
+package net.dapete.locks;
+
+/**
+ * Statistics of a key-based locking instance, as returned by {@code stats()}. This is a snapshot, which does not change afterwards.
+ * <p>
+ * Taking a snapshot does not remove any locks and does not block threads calling methods like {@code get} or {@code lock}. It iterates over all locks once,
+ * so it is approximately consistent if locks are created or removed at the same time.
+ *
+ * @since 1.4.0
+ */
+public final class LocksStats {
+
+    private final int size;
+
+    private final int pendingRemovals;
+
+    private final long creations;
+
+    LocksStats(int size, int pendingRemovals, long creations) {
+        this.size = size;
+        this.pendingRemovals = pendingRemovals;
+        this.creations = creations;
+    }
+
+    /**
+     * Returns the number of locks held by the instance, including locks which have been marked as unreachable by the garbage collector, but not removed yet.
+     *
+     * @return number of locks
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of locks which are still reachable.
+     *
+     * @return number of live locks
+     */
+    public int getLiveLocks() {
+        return size - pendingRemovals;
+    }
+
+    /**
+     * Returns the number of locks which have been marked as unreachable by the garbage collector, but not removed yet.
+     *
+     * @return number of pending removals
+     */
+    public int getPendingRemovals() {
+        return pendingRemovals;
+    }
+
+    /**
+     * Returns the total number of locks created by the instance.
+     *
+     * @return number of creations
+     */
+    public long getCreations() {
+        return creations;
+    }
+
+    @Override
+    public String toString() {
+        return "LocksStats[size=" + size + ", liveLocks=" + getLiveLocks() + ", pendingRemovals=" + pendingRemovals + ", creations=" + creations + "]";
+    }
+
+}
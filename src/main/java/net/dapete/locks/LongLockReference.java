@@ -0,0 +1,22 @@
+package net.dapete.locks;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Like {@link LockReference}, but for a primitive {@code long} key, which is stored without boxing.
+ */
+final class LongLockReference<L> extends WeakReference<L> {
+
+    private final long key;
+
+    LongLockReference(long key, L value, ReferenceQueue<? super L> referenceQueue) {
+        super(value, referenceQueue);
+        this.key = key;
+    }
+
+    long getKey() {
+        return key;
+    }
+
+}
@@ -0,0 +1,277 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Key-based locking for primitive {@code long} keys, the equivalent of {@link AbstractLocks} without boxing keys.
+ * <p>
+ * Locks are kept in {@link LongLockReference}s in an open-addressing hash table with linear probing, which stores keys in a {@code long[]}. The table is
+ * split into segments, each guarded by a {@link StampedLock}. Looking up an existing lock is an optimistic read, which does not write to shared memory, so it
+ * only has to be repeated with a read lock if the segment was modified concurrently. Inserting and removing locks holds the write lock of the segment. Removed
+ * entries are deleted by shifting later entries back instead of leaving tombstones, so lookups never have to skip deleted entries.
+ * <p>
+ * Locks which have been marked as unreachable by the garbage collector are removed by the thread calling {@link #get(long)} or {@link #size()}, like with
+ * {@link CleanupStrategy#callingThread()}.
+ *
+ * @param <L> type of lock
+ */
+final class LongLockTable<L> {
+
+    private static final int INITIAL_SEGMENT_CAPACITY = 8;
+
+    private final Segment<L>[] segments;
+
+    private final int segmentShift;
+
+    private final ReferenceQueue<L> lockReferenceQueue = new ReferenceQueue<>();
+
+    private final Supplier<L> lockSupplier;
+
+    @SuppressWarnings("unchecked")
+    LongLockTable(Supplier<L> lockSupplier) {
+        this.lockSupplier = lockSupplier;
+        // enough segments to make contention between threads inserting locks unlikely, at least 4
+        final int segmentCount = Math.min(Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors(), 1) * 4 - 1) << 1, 256);
+        segments = (Segment<L>[]) new Segment<?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>();
+        }
+        segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    /**
+     * Returns a lock for the supplied key. There will be at most one lock per key at any given time.
+     *
+     * @param key key
+     * @return lock
+     */
+    L get(long key) {
+        processQueue();
+        final long hash = hash(key);
+        final var segment = segmentFor(hash);
+        final L existingLock = segment.find(key, hash);
+        if (existingLock != null) {
+            return existingLock;
+        }
+        // the lock is created outside of the write lock of the segment; it is discarded if another thread inserted a lock first
+        return segment.putIfAbsent(key, hash, lockSupplier.get(), lockReferenceQueue);
+    }
+
+    /**
+     * Returns the current number of locks.
+     *
+     * @return number of locks
+     */
+    int size() {
+        processQueue();
+        int size = 0;
+        for (final var segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    // package-private to allow accessing this in tests
+    @Nullable LongLockReference<L> getLockReference(long key) {
+        final long hash = hash(key);
+        return segmentFor(hash).findReference(key, hash);
+    }
+
+    private Segment<L> segmentFor(long hash) {
+        return segments[(int) (hash >>> segmentShift)];
+    }
+
+    private void processQueue() {
+        Reference<? extends L> reference;
+        while ((reference = lockReferenceQueue.poll()) != null) {
+            if (reference instanceof LongLockReference) {
+                final var lockReference = (LongLockReference<?>) reference;
+                final long hash = hash(lockReference.getKey());
+                segmentFor(hash).remove(lockReference.getKey(), hash, lockReference);
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of the key (the finalization step of MurmurHash3), so keys which are sequential IDs are distributed evenly. The high bits select the
+     * segment, the low bits the slot in the segment.
+     */
+    static long hash(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Keys and references of a segment. Both arrays always have the same length, which is a power of two. A slot is empty if its reference is {@code null}.
+     */
+    private static final class Table<L> {
+
+        private final long[] keys;
+
+        private final @Nullable LongLockReference<L>[] references;
+
+        @SuppressWarnings("unchecked")
+        private Table(int capacity) {
+            keys = new long[capacity];
+            references = (LongLockReference<L>[]) new LongLockReference<?>[capacity];
+        }
+
+        /**
+         * Returns the slot of the key, or the empty slot where it would be inserted. Never loops more than once over the table, even if it is read while
+         * being modified in an optimistic read, in which case the result is not valid.
+         */
+        private int indexOf(long key, long hash) {
+            final int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            for (int probes = 0; probes < keys.length; probes++) {
+                if (references[index] == null || keys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+    }
+
+    private static final class Segment<L> {
+
+        private final StampedLock lock = new StampedLock();
+
+        private Table<L> table = new Table<>(INITIAL_SEGMENT_CAPACITY);
+
+        private int size;
+
+        private @Nullable L find(long key, long hash) {
+            final var lockReference = findReference(key, hash);
+            return lockReference != null ? lockReference.get() : null;
+        }
+
+        private @Nullable LongLockReference<L> findReference(long key, long hash) {
+            final long optimisticStamp = lock.tryOptimisticRead();
+            if (optimisticStamp != 0) {
+                final var lockReference = findReferenceUnlocked(key, hash);
+                if (lock.validate(optimisticStamp)) {
+                    return lockReference;
+                }
+            }
+            final long stamp = lock.readLock();
+            try {
+                return findReferenceUnlocked(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private @Nullable LongLockReference<L> findReferenceUnlocked(long key, long hash) {
+            final var currentTable = table;
+            final int index = currentTable.indexOf(key, hash);
+            return index >= 0 ? currentTable.references[index] : null;
+        }
+
+        private L putIfAbsent(long key, long hash, L newLock, ReferenceQueue<L> lockReferenceQueue) {
+            final long stamp = lock.writeLock();
+            try {
+                int index = table.indexOf(key, hash);
+                final var existingReference = table.references[index];
+                if (existingReference != null) {
+                    final L existingLock = existingReference.get();
+                    if (existingLock != null) {
+                        return existingLock;
+                    }
+                    // replace a cleared reference which has not been removed yet
+                    table.references[index] = new LongLockReference<>(key, newLock, lockReferenceQueue);
+                    return newLock;
+                }
+                if ((size + 1) * 4L > table.keys.length * 3L) {
+                    resize();
+                    index = table.indexOf(key, hash);
+                }
+                table.keys[index] = key;
+                table.references[index] = new LongLockReference<>(key, newLock, lockReferenceQueue);
+                size++;
+                return newLock;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Removes the entry for the key if it still has the supplied reference, so a lock created for the same key in the meantime is never removed.
+         */
+        private void remove(long key, long hash, LongLockReference<?> lockReference) {
+            final long stamp = lock.writeLock();
+            try {
+                final var keys = table.keys;
+                final var references = table.references;
+                int index = table.indexOf(key, hash);
+                if (index < 0 || references[index] != lockReference) {
+                    return;
+                }
+                // backward shift deletion: move later entries of the same probe sequence into the gap
+                final int mask = keys.length - 1;
+                int next = index;
+                while (true) {
+                    references[index] = null;
+                    int home;
+                    do {
+                        next = (next + 1) & mask;
+                        if (references[next] == null) {
+                            size--;
+                            return;
+                        }
+                        home = (int) hash(keys[next]) & mask;
+                    } while (index <= next ? index < home && home <= next : index < home || home <= next);
+                    keys[index] = keys[next];
+                    references[index] = references[next];
+                    index = next;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int size() {
+            final long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Doubles the capacity of the table. Entries with cleared references are dropped, so the references will not be found when they are removed from the
+         * queue later.
+         */
+        private void resize() {
+            final var oldTable = table;
+            final var newTable = new Table<L>(oldTable.keys.length * 2);
+            int newSize = 0;
+            for (int i = 0; i < oldTable.keys.length; i++) {
+                final var lockReference = oldTable.references[i];
+                if (lockReference != null && lockReference.get() != null) {
+                    final long key = oldTable.keys[i];
+                    final int index = newTable.indexOf(key, hash(key));
+                    newTable.keys[index] = key;
+                    newTable.references[index] = lockReference;
+                    newSize++;
+                }
+            }
+            table = newTable;
+            size = newSize;
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+package net.dapete.locks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+final class LongLocksImpl<L extends Lock> implements LongLocks<L> {
+
+    private final LongLockTable<L> lockTable;
+
+    LongLocksImpl(Supplier<L> lockSupplier) {
+        lockTable = new LongLockTable<>(lockSupplier);
+    }
+
+    @Override
+    public L get(long key) {
+        return lockTable.get(key);
+    }
+
+    @Override
+    public L lock(long key) {
+        final var lock = get(key);
+        lock.lock();
+        return lock;
+    }
+
+    @Override
+    public Optional<L> tryLock(long key) {
+        final var lock = get(key);
+        return lock.tryLock() ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public Optional<L> tryLock(long key, long timeout, TimeUnit unit) throws InterruptedException {
+        final var lock = get(key);
+        return lock.tryLock(timeout, unit) ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public L lockInterruptibly(long key) throws InterruptedException {
+        final var lock = get(key);
+        lock.lockInterruptibly();
+        return lock;
+    }
+
+    @Override
+    public int size() {
+        return lockTable.size();
+    }
+
+}
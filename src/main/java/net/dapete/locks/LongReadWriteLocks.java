@@ -0,0 +1,121 @@
+package net.dapete.locks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Key-based locking with implementations of {@link ReadWriteLock} for primitive {@code long} keys.
+ * <p>
+ * This is the equivalent of {@link ReadWriteLocks} for keys like numeric IDs, see {@link LongLocks} for details.
+ *
+ * @param <L> type of {@link ReadWriteLock}
+ * @since 1.4.0
+ */
+public interface LongReadWriteLocks<L extends ReadWriteLock> {
+
+    /**
+     * Return an instance using {@link ReadWriteLock} implementations created by the specified {@code lockSupplier}.
+     *
+     * @param lockSupplier Supplier for instances of {@link L} (usually the constructor of a class implementing {@link ReadWriteLock})
+     * @param <L>          type of {@link ReadWriteLock}
+     * @return instance using {@code ReadWriteLock} implementations created by the specified {@code lockSupplier}
+     */
+    static <L extends ReadWriteLock> LongReadWriteLocks<L> withSupplier(Supplier<L> lockSupplier) {
+        return new LongReadWriteLocksImpl<>(lockSupplier);
+    }
+
+    /**
+     * Return an instance using {@link ReentrantReadWriteLock}.
+     *
+     * @return instance using {@code ReentrantReadWriteLock}
+     */
+    static LongReadWriteLocks<ReentrantReadWriteLock> reentrant() {
+        return withSupplier(ReentrantReadWriteLock::new);
+    }
+
+    /**
+     * Return an instance using {@link ReentrantReadWriteLock} with the given fairness policy.
+     *
+     * @param fair {@code true} if the locks should use a fair ordering policy (see {@link ReentrantReadWriteLock#ReentrantReadWriteLock(boolean)})
+     * @return instance using {@code ReentrantReadWriteLock}
+     */
+    static LongReadWriteLocks<ReentrantReadWriteLock> reentrant(boolean fair) {
+        return withSupplier(() -> new ReentrantReadWriteLock(fair));
+    }
+
+    /**
+     * Returns a lock for the supplied key. There will be at most one lock per key at any given time.
+     *
+     * @param key key
+     * @return lock
+     */
+    L get(long key);
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#readLock() readLock()} already locked using {@link Lock#lock()}.
+     *
+     * @param key key
+     * @return {@code ReadWriteLock} with locked {@code readLock()}
+     */
+    L readLock(long key);
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#writeLock() writeLock()} already locked using {@link Lock#lock()}.
+     *
+     * @param key key
+     * @return {@code ReadWriteLock} with locked {@code writeLock()}
+     */
+    L writeLock(long key);
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#readLock() readLock()} locked using {@link Lock#tryLock()}, if it was free.
+     *
+     * @param key key
+     * @return {@code ReadWriteLock} with locked {@code readLock()}, or an empty result if it was not free
+     */
+    Optional<L> tryReadLock(long key);
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#readLock() readLock()} locked using {@link Lock#tryLock(long, TimeUnit)}, if it became
+     * free within the timeout.
+     *
+     * @param key     key
+     * @param timeout maximum time to wait for the lock
+     * @param unit    time unit of {@code timeout}
+     * @return {@code ReadWriteLock} with locked {@code readLock()}, or an empty result if it did not become free within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    Optional<L> tryReadLock(long key, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#writeLock() writeLock()} locked using {@link Lock#tryLock()}, if it was free.
+     *
+     * @param key key
+     * @return {@code ReadWriteLock} with locked {@code writeLock()}, or an empty result if it was not free
+     */
+    Optional<L> tryWriteLock(long key);
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#writeLock() writeLock()} locked using {@link Lock#tryLock(long, TimeUnit)}, if it
+     * became free within the timeout.
+     *
+     * @param key     key
+     * @param timeout maximum time to wait for the lock
+     * @param unit    time unit of {@code timeout}
+     * @return {@code ReadWriteLock} with locked {@code writeLock()}, or an empty result if it did not become free within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    Optional<L> tryWriteLock(long key, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Returns the current number of locks managed by this instance.
+     *
+     * @return number of locks
+     */
+    int size();
+
+}
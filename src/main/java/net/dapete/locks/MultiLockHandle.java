@@ -0,0 +1,64 @@
+package net.dapete.locks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Several locks which have been locked together and are unlocked by {@link #close()}, for use with {@code try}-with-resources.
+ * <p>
+ * The locks are locked in a consistent global order and unlocked in the reverse order. Like {@link LockHandle}, the handle keeps the locks strongly reachable
+ * until it is closed. It must be closed exactly once, by the thread which acquired it.
+ *
+ * @param <K> type of key
+ * @param <L> type of lock
+ * @since 1.4.0
+ */
+public final class MultiLockHandle<K, L> implements AutoCloseable {
+
+    private final Map<K, L> locks;
+
+    private final List<LockHandle<K, L>> lockHandles;
+
+    /**
+     * @param locks       locks for all keys
+     * @param lockHandles handles for the locks in the order they were locked
+     */
+    MultiLockHandle(Map<K, L> locks, List<LockHandle<K, L>> lockHandles) {
+        this.locks = Collections.unmodifiableMap(locks);
+        this.lockHandles = lockHandles;
+    }
+
+    /**
+     * Returns the locks for all keys.
+     *
+     * @return unmodifiable map of keys to locks
+     */
+    public Map<K, L> getLocks() {
+        return locks;
+    }
+
+    /**
+     * Returns the lock for a key.
+     *
+     * @param key key
+     * @return lock
+     * @throws IllegalArgumentException if the key is not one of the keys the locks were acquired for
+     */
+    public L getLock(K key) {
+        final var lock = locks.get(key);
+        if (lock == null) {
+            throw new IllegalArgumentException("No lock was acquired for key " + key);
+        }
+        return lock;
+    }
+
+    /**
+     * Unlocks all locks in the reverse order they were locked.
+     */
+    @Override
+    public void close() {
+        OrderedLocking.closeAll(lockHandles);
+    }
+
+}
@@ -0,0 +1,214 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Locking several locks at once without risking a deadlock, by always locking them in a consistent global order.
+ * <p>
+ * The order is determined by an {@code int} per lock (e.g. its identity hash code). If two different locks have the same value, their relative order is not
+ * consistent, so in this case a tie lock is locked first, as described in <i>Java Concurrency in Practice</i>.
+ */
+final class OrderedLocking {
+
+    private OrderedLocking() {
+    }
+
+    private static final class Entry<K, L> {
+
+        private final K key;
+
+        private final L lock;
+
+        private final int order;
+
+        private Entry(K key, L lock, int order) {
+            this.key = key;
+            this.lock = lock;
+            this.order = order;
+        }
+
+    }
+
+    /**
+     * Lock all locks, waiting as long as necessary. If locking one of them fails with an exception, all locks that have already been locked are unlocked
+     * again (and reference counted locks are released) before the exception is rethrown.
+     *
+     * @param locks          locks to lock by key, which have already been obtained (and acquired if reference counted)
+     * @param order          function determining the global order of a lock
+     * @param lockedLockFunction function returning the {@code Lock} to lock, e.g. the read lock of a {@code ReadWriteLock}
+     * @param owner          instance to release reference counted locks and record metrics, or {@code null}
+     * @param tieLock        lock to lock first if the order of two locks is the same, or {@code null} if this cannot happen
+     * @param <K>            type of key
+     * @param <L>            type of lock
+     * @return handle for all locks
+     */
+    static <K, L> MultiLockHandle<K, L> lockAll(Map<K, L> locks, ToIntBiFunction<K, L> order, Function<L, Lock> lockedLockFunction,
+                                                @Nullable AbstractLocks<K, ?> owner, @Nullable Lock tieLock) {
+        final var entries = sortedEntries(locks, order);
+        final var lockHandles = new ArrayList<LockHandle<K, L>>(entries.size());
+        Lock tie = null;
+        try {
+            tie = lockTieLockIfNecessary(entries, tieLock);
+            for (final var entry : entries) {
+                final var lockedLock = lockedLockFunction.apply(entry.lock);
+                if (owner != null) {
+                    owner.meteredLock(entry.key, lockedLock);
+                } else {
+                    lockedLock.lock();
+                }
+                lockHandles.add(new LockHandle<>(entry.key, entry.lock, lockedLock, owner));
+            }
+        } catch (RuntimeException | Error e) {
+            // a lock failed (e.g. DeadlockException), so do not keep holding the others
+            try {
+                closeAll(lockHandles);
+                releaseNotLocked(locks, lockHandles, owner);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        } finally {
+            if (tie != null) {
+                tie.unlock();
+            }
+        }
+        return new MultiLockHandle<>(locks, lockHandles);
+    }
+
+    /**
+     * Lock all locks if this is possible within the timeout. If not, all locks that have already been locked are unlocked again (and reference counted locks
+     * are released).
+     *
+     * @return handle for all locks, or an empty result if not all locks could be locked within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @see #lockAll(Map, ToIntBiFunction, Function, AbstractLocks, Lock)
+     */
+    static <K, L> Optional<MultiLockHandle<K, L>> tryLockAll(Map<K, L> locks, ToIntBiFunction<K, L> order, Function<L, Lock> lockedLockFunction,
+                                                             @Nullable AbstractLocks<K, ?> owner, @Nullable Lock tieLock, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final var entries = sortedEntries(locks, order);
+        final var lockHandles = new ArrayList<LockHandle<K, L>>(entries.size());
+        boolean success = false;
+        Lock tie = null;
+        try {
+            if (hasTie(entries)) {
+                tie = tieLock(tieLock);
+                if (!tie.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    tie = null;
+                    return Optional.empty();
+                }
+            }
+            for (final var entry : entries) {
+                final var lockedLock = lockedLockFunction.apply(entry.lock);
+                final long remaining = deadline - System.nanoTime();
+                if (!(owner != null ? owner.meteredTryLock(entry.key, lockedLock, remaining, TimeUnit.NANOSECONDS)
+                        : lockedLock.tryLock(remaining, TimeUnit.NANOSECONDS))) {
+                    return Optional.empty();
+                }
+                lockHandles.add(new LockHandle<>(entry.key, entry.lock, lockedLock, owner));
+            }
+            success = true;
+            return Optional.of(new MultiLockHandle<>(locks, lockHandles));
+        } finally {
+            if (tie != null) {
+                tie.unlock();
+            }
+            if (!success) {
+                closeAll(lockHandles);
+                releaseNotLocked(locks, lockHandles, owner);
+            }
+        }
+    }
+
+    /**
+     * Close handles in the reverse order. All handles are closed, even if closing one of them fails.
+     */
+    static <K, L> void closeAll(List<LockHandle<K, L>> lockHandles) {
+        RuntimeException exception = null;
+        for (int i = lockHandles.size() - 1; i >= 0; i--) {
+            try {
+                lockHandles.get(i).close();
+            } catch (RuntimeException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Releases the reference counted locks which have been acquired for keys, but were not locked.
+     */
+    private static <K, L> void releaseNotLocked(Map<K, L> locks, List<LockHandle<K, L>> lockHandles, @Nullable AbstractLocks<K, ?> owner) {
+        if (owner != null) {
+            final var lockedKeys = new HashSet<K>();
+            for (final var lockHandle : lockHandles) {
+                lockedKeys.add(lockHandle.getKey());
+            }
+            for (final var key : locks.keySet()) {
+                if (!lockedKeys.contains(key)) {
+                    owner.releaseHeld(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns one entry per distinct lock (several keys may share a lock), sorted by their order.
+     */
+    private static <K, L> List<Entry<K, L>> sortedEntries(Map<K, L> locks, ToIntBiFunction<K, L> order) {
+        final var distinctLocks = new IdentityHashMap<L, Entry<K, L>>(locks.size());
+        for (final var mapEntry : locks.entrySet()) {
+            final var key = mapEntry.getKey();
+            final var lock = mapEntry.getValue();
+            distinctLocks.computeIfAbsent(lock, l -> new Entry<>(key, l, order.applyAsInt(key, l)));
+        }
+        final var entries = new ArrayList<>(distinctLocks.values());
+        entries.sort(Comparator.comparingInt(entry -> entry.order));
+        return entries;
+    }
+
+    private static <K, L> boolean hasTie(List<Entry<K, L>> entries) {
+        for (int i = 1; i < entries.size(); i++) {
+            if (entries.get(i - 1).order == entries.get(i).order) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Lock tieLock(@Nullable Lock tieLock) {
+        if (tieLock == null) {
+            throw new IllegalStateException("Different locks have the same order, but there is no tie lock");
+        }
+        return tieLock;
+    }
+
+    private static <K, L> @Nullable Lock lockTieLockIfNecessary(List<Entry<K, L>> entries, @Nullable Lock tieLock) {
+        if (hasTie(entries)) {
+            final var tie = tieLock(tieLock);
+            tie.lock();
+            return tie;
+        }
+        return null;
+    }
+
+}
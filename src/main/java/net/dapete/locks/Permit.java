@@ -0,0 +1,44 @@
+package net.dapete.locks;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Permission to use the resource identified by a key, obtained from {@link AsyncLocks}. The lock for the key is held until the permit is released.
+ * <p>
+ * Unlike a {@link java.util.concurrent.locks.Lock}, a permit is not owned by a thread, so it can be released by any thread, e.g. in a callback of a
+ * {@link java.util.concurrent.CompletableFuture}. Releasing it more than once has no effect.
+ *
+ * @since 1.4.0
+ */
+public final class Permit implements AutoCloseable {
+
+    private final AsyncLock lock;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    Permit(AsyncLock lock) {
+        this.lock = lock;
+    }
+
+    AsyncLock getLock() {
+        return lock;
+    }
+
+    /**
+     * Releases the lock for the key, which is handed over to the next waiter if there is one.
+     */
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            lock.release();
+        }
+    }
+
+    /**
+     * Releases the lock, like {@link #release()}, for use with {@code try}-with-resources.
+     */
+    @Override
+    public void close() {
+        release();
+    }
+
+}
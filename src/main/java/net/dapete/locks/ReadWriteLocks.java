@@ -1,8 +1,13 @@
 package net.dapete.locks;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.Supplier;
 
 /**
@@ -25,6 +30,38 @@ public interface ReadWriteLocks<K, L extends ReadWriteLock> {
         return new ReadWriteLocksImpl<>(lockSupplier);
     }
 
+    /**
+     * Return an instance using {@link ReadWriteLock} implementations created by the specified {@code lockSupplier} and the specified strategy to remove
+     * unused locks.
+     *
+     * @param lockSupplier    Supplier for instances of {@link L} (usually the constructor of a class implementing {@link ReadWriteLock})
+     * @param cleanupStrategy strategy to remove locks which are no longer used
+     * @param <K>             type of key
+     * @param <L>             type of {@link Lock}
+     * @return instance using {@code ReadWriteLock} implementations created by the specified {@code lockSupplier}
+     * @since 1.4.0
+     */
+    static <K, L extends ReadWriteLock> ReadWriteLocks<K, L> withSupplier(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy) {
+        return new ReadWriteLocksImpl<>(lockSupplier, cleanupStrategy);
+    }
+
+    /**
+     * Return an instance using {@link ReadWriteLock} implementations created by the specified {@code lockSupplier} and the specified strategy to remove
+     * unused locks, which records metrics.
+     *
+     * @param lockSupplier    Supplier for instances of {@link L} (usually the constructor of a class implementing {@link ReadWriteLock})
+     * @param cleanupStrategy strategy to remove locks which are no longer used
+     * @param metrics         metrics to record
+     * @param <K>             type of key
+     * @param <L>             type of {@link Lock}
+     * @return instance using {@code ReadWriteLock} implementations created by the specified {@code lockSupplier}
+     * @since 1.4.0
+     */
+    static <K, L extends ReadWriteLock> ReadWriteLocks<K, L> withSupplier(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy,
+                                                                          LockMetrics<K> metrics) {
+        return new ReadWriteLocksImpl<>(lockSupplier, cleanupStrategy, metrics);
+    }
+
     /**
      * Return a {@link ReentrantReadWriteLocks} instance using {@link ReentrantReadWriteLock}.
      *
@@ -71,6 +108,236 @@ public interface ReadWriteLocks<K, L extends ReadWriteLock> {
         return reentrant(fair);
     }
 
+    /**
+     * Return a {@link ReentrantReadWriteLocks} instance using {@link ReentrantReadWriteLock} with the given fairness policy and the specified strategy to
+     * remove unused locks.
+     *
+     * @param fair            {@code true} if the locks should use a fair ordering policy (see {@link ReentrantReadWriteLock#ReentrantReadWriteLock(boolean)})
+     * @param cleanupStrategy strategy to remove locks which are no longer used
+     * @param <K>             type of key
+     * @return {@code ReentrantReadWriteLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReentrantReadWriteLocks<K> reentrant(boolean fair, CleanupStrategy cleanupStrategy) {
+        return new ReentrantReadWriteLocks<>(fair, cleanupStrategy);
+    }
+
+    /**
+     * Return a {@link ReentrantReadWriteLocks} instance using {@link ReentrantReadWriteLock} with the given fairness policy and the specified strategy to
+     * remove unused locks, which records metrics.
+     *
+     * @param fair            {@code true} if the locks should use a fair ordering policy (see {@link ReentrantReadWriteLock#ReentrantReadWriteLock(boolean)})
+     * @param cleanupStrategy strategy to remove locks which are no longer used
+     * @param metrics         metrics to record
+     * @param <K>             type of key
+     * @return {@code ReentrantReadWriteLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReentrantReadWriteLocks<K> reentrant(boolean fair, CleanupStrategy cleanupStrategy, LockMetrics<K> metrics) {
+        return new ReentrantReadWriteLocks<>(fair, cleanupStrategy, metrics);
+    }
+
+    /**
+     * Return a {@link StampedLocks} instance using {@link StampedLock}, which supports optimistic reads.
+     *
+     * @param <K> type of key
+     * @return {@code StampedLocks} instance
+     * @since 1.4.0
+     */
+    static <K> StampedLocks<K> stamped() {
+        return new StampedLocks<>();
+    }
+
+    /**
+     * Return a {@link StampedLocks} instance using {@link StampedLock}, which supports optimistic reads.
+     *
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return {@code StampedLocks} instance
+     * @since 1.4.0
+     */
+    static <K> StampedLocks<K> stamped(@SuppressWarnings("unused") Class<K> keyClass) {
+        return stamped();
+    }
+
+    /**
+     * Return a {@link StampedLocks} instance using {@link StampedLock} and the specified strategy to remove unused locks.
+     *
+     * @param cleanupStrategy strategy to remove locks which are no longer used
+     * @param <K>             type of key
+     * @return {@code StampedLocks} instance
+     * @since 1.4.0
+     */
+    static <K> StampedLocks<K> stamped(CleanupStrategy cleanupStrategy) {
+        return new StampedLocks<>(cleanupStrategy);
+    }
+
+    /**
+     * Return an instance using {@link ReaderBiasedReadWriteLock}, which counts readers in one slot per processor instead of a single counter, so readers of
+     * the same key on different processors do not contend with each other. Writers are more expensive in exchange.
+     * <p>
+     * Each lock uses a cache line per slot, up to about 4 KB, so this is only suitable for a limited number of frequently read keys.
+     *
+     * @param <K> type of key
+     * @return instance using {@code ReaderBiasedReadWriteLock}
+     * @since 1.4.0
+     */
+    static <K> ReadWriteLocks<K, ReaderBiasedReadWriteLock> readerBiased() {
+        return new ReadWriteLocksImpl<>(ReaderBiasedReadWriteLock::new);
+    }
+
+    /**
+     * Return an instance using {@link ReaderBiasedReadWriteLock}, which counts readers in one slot per processor instead of a single counter. Each lock uses
+     * up to about 4 KB.
+     *
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return instance using {@code ReaderBiasedReadWriteLock}
+     * @see #readerBiased()
+     * @since 1.4.0
+     */
+    static <K> ReadWriteLocks<K, ReaderBiasedReadWriteLock> readerBiased(@SuppressWarnings("unused") Class<K> keyClass) {
+        return readerBiased();
+    }
+
+    /**
+     * Return an instance using {@link WritePreferringReadWriteLock}, which lets no new reader in while a writer is waiting, so writers are not starved by
+     * readers.
+     *
+     * @param <K> type of key
+     * @return instance using {@code WritePreferringReadWriteLock}
+     * @since 1.4.0
+     */
+    static <K> ReadWriteLocks<K, WritePreferringReadWriteLock> writePreferring() {
+        return new ReadWriteLocksImpl<>(WritePreferringReadWriteLock::new);
+    }
+
+    /**
+     * Return an instance using {@link WritePreferringReadWriteLock}, which lets no new reader in while a writer is waiting.
+     *
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return instance using {@code WritePreferringReadWriteLock}
+     * @see #writePreferring()
+     * @since 1.4.0
+     */
+    static <K> ReadWriteLocks<K, WritePreferringReadWriteLock> writePreferring(@SuppressWarnings("unused") Class<K> keyClass) {
+        return writePreferring();
+    }
+
+    /**
+     * Return a {@link ReferenceCountedReadWriteLocks} instance using {@link ReentrantReadWriteLock}, which removes locks as soon as they are no longer used.
+     *
+     * @param <K> type of key
+     * @return {@code ReferenceCountedReadWriteLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReferenceCountedReadWriteLocks<K, ReentrantReadWriteLock> referenceCounted() {
+        return referenceCountedWithSupplier(ReentrantReadWriteLock::new);
+    }
+
+    /**
+     * Return a {@link ReferenceCountedReadWriteLocks} instance using {@link ReentrantReadWriteLock}, which removes locks as soon as they are no longer used.
+     *
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return {@code ReferenceCountedReadWriteLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReferenceCountedReadWriteLocks<K, ReentrantReadWriteLock> referenceCounted(@SuppressWarnings("unused") Class<K> keyClass) {
+        return referenceCounted();
+    }
+
+    /**
+     * Return a {@link ReferenceCountedReadWriteLocks} instance using {@link ReadWriteLock} implementations created by the specified {@code lockSupplier},
+     * which removes locks as soon as they are no longer used.
+     *
+     * @param lockSupplier Supplier for instances of {@link L} (usually the constructor of a class implementing {@link ReadWriteLock})
+     * @param <K>          type of key
+     * @param <L>          type of {@link ReadWriteLock}
+     * @return {@code ReferenceCountedReadWriteLocks} instance using {@code ReadWriteLock} implementations created by the specified {@code lockSupplier}
+     * @since 1.4.0
+     */
+    static <K, L extends ReadWriteLock> ReferenceCountedReadWriteLocks<K, L> referenceCountedWithSupplier(Supplier<L> lockSupplier) {
+        return new ReferenceCountedReadWriteLocksImpl<>(lockSupplier);
+    }
+
+    /**
+     * Return a {@link ReferenceCountedReadWriteLocks} instance using {@link ReentrantReadWriteLock}, which removes locks as soon as they are no longer used
+     * and reuses them for new keys using the specified {@link LockPool}.
+     *
+     * @param pool pool of unused locks, for example {@link LockPool#reentrantReadWrite(int)}
+     * @param <K>  type of key
+     * @return {@code ReferenceCountedReadWriteLocks} instance
+     * @since 1.4.0
+     */
+    static <K> ReferenceCountedReadWriteLocks<K, ReentrantReadWriteLock> referenceCounted(LockPool<ReentrantReadWriteLock> pool) {
+        return referenceCountedWithSupplier(ReentrantReadWriteLock::new, pool);
+    }
+
+    /**
+     * Return a {@link ReferenceCountedReadWriteLocks} instance using {@link ReadWriteLock} implementations created by the specified {@code lockSupplier},
+     * which removes locks as soon as they are no longer used and reuses them for new keys using the specified {@link LockPool}.
+     *
+     * @param lockSupplier Supplier for instances of {@link L} (usually the constructor of a class implementing {@link ReadWriteLock})
+     * @param pool         pool of unused locks
+     * @param <K>          type of key
+     * @param <L>          type of {@link ReadWriteLock}
+     * @return {@code ReferenceCountedReadWriteLocks} instance using {@code ReadWriteLock} implementations created by the specified {@code lockSupplier}
+     * @since 1.4.0
+     */
+    static <K, L extends ReadWriteLock> ReferenceCountedReadWriteLocks<K, L> referenceCountedWithSupplier(Supplier<L> lockSupplier, LockPool<L> pool) {
+        return new ReferenceCountedReadWriteLocksImpl<>(lockSupplier, pool);
+    }
+
+    /**
+     * Return an instance using a fixed number of {@link ReentrantReadWriteLock} instances (stripes) which are shared between keys.
+     * <p>
+     * The lock for a key is selected using the hash code of the key, so different keys may share the same lock. In exchange, no objects are allocated when a
+     * lock is requested and memory usage does not depend on the number of keys. The number of stripes is rounded up to the next power of two.
+     *
+     * @param stripes number of stripes
+     * @param <K>     type of key
+     * @return instance using a fixed number of {@code ReentrantReadWriteLock} instances
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     * @since 1.4.0
+     */
+    static <K> ReadWriteLocks<K, ReentrantReadWriteLock> striped(int stripes) {
+        return stripedWithSupplier(stripes, ReentrantReadWriteLock::new);
+    }
+
+    /**
+     * Return an instance using a fixed number of {@link ReentrantReadWriteLock} instances (stripes) which are shared between keys.
+     *
+     * @param stripes  number of stripes
+     * @param keyClass class of key
+     * @param <K>      type of key
+     * @return instance using a fixed number of {@code ReentrantReadWriteLock} instances
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     * @see #striped(int)
+     * @since 1.4.0
+     */
+    static <K> ReadWriteLocks<K, ReentrantReadWriteLock> striped(int stripes, @SuppressWarnings("unused") Class<K> keyClass) {
+        return striped(stripes);
+    }
+
+    /**
+     * Return an instance using a fixed number of {@link ReadWriteLock} implementations (stripes) created by the specified {@code lockSupplier}, which are
+     * shared between keys.
+     *
+     * @param stripes      number of stripes
+     * @param lockSupplier Supplier for instances of {@link L} (usually the constructor of a class implementing {@link ReadWriteLock})
+     * @param <K>          type of key
+     * @param <L>          type of {@link ReadWriteLock}
+     * @return instance using a fixed number of {@code ReadWriteLock} implementations created by the specified {@code lockSupplier}
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     * @see #striped(int)
+     * @since 1.4.0
+     */
+    static <K, L extends ReadWriteLock> ReadWriteLocks<K, L> stripedWithSupplier(int stripes, Supplier<L> lockSupplier) {
+        return new StripedReadWriteLocksImpl<>(stripes, lockSupplier);
+    }
+
     /**
      * Returns a lock for the supplied key. There will be at most one lock per key at any given time.
      *
@@ -79,6 +346,16 @@ public interface ReadWriteLocks<K, L extends ReadWriteLock> {
      */
     L get(K key);
 
+    /**
+     * Returns the locks for all supplied keys, like calling {@link #get(Object)} for each distinct key, but in a single pass which removes locks that are no
+     * longer used only once. There will be at most one lock per key at any given time.
+     *
+     * @param keys keys
+     * @return unmodifiable map of keys to locks, in the iteration order of {@code keys}
+     * @since 1.4.0
+     */
+    Map<K, L> getAll(Collection<? extends K> keys);
+
     /**
      * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#readLock()} already locked using {@link Lock#lock()}.
      *
@@ -95,6 +372,147 @@ public interface ReadWriteLocks<K, L extends ReadWriteLock> {
      */
     L writeLock(K key);
 
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#readLock()} locked using {@link Lock#tryLock()}, if it was free.
+     *
+     * @param key key
+     * @return already read locked lock, or an empty result if it was not free
+     * @since 1.4.0
+     */
+    Optional<L> tryReadLock(K key);
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#readLock()} locked using {@link Lock#tryLock(long, TimeUnit)}, if it became free within
+     * the timeout.
+     *
+     * @param key     key
+     * @param timeout maximum time to wait for the lock
+     * @param unit    time unit of {@code timeout}
+     * @return already read locked lock, or an empty result if it did not become free within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @since 1.4.0
+     */
+    Optional<L> tryReadLock(K key, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#readLock()} already locked using {@link Lock#lockInterruptibly()}.
+     *
+     * @param key key
+     * @return already read locked lock
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @since 1.4.0
+     */
+    L readLockInterruptibly(K key) throws InterruptedException;
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#writeLock()} locked using {@link Lock#tryLock()}, if it was free.
+     *
+     * @param key key
+     * @return already write locked lock, or an empty result if it was not free
+     * @since 1.4.0
+     */
+    Optional<L> tryWriteLock(K key);
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#writeLock()} locked using {@link Lock#tryLock(long, TimeUnit)}, if it became free within
+     * the timeout.
+     *
+     * @param key     key
+     * @param timeout maximum time to wait for the lock
+     * @param unit    time unit of {@code timeout}
+     * @return already write locked lock, or an empty result if it did not become free within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @since 1.4.0
+     */
+    Optional<L> tryWriteLock(K key, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Return a {@code ReadWriteLock} with its {@link ReadWriteLock#writeLock()} already locked using {@link Lock#lockInterruptibly()}.
+     *
+     * @param key key
+     * @return already write locked lock
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @since 1.4.0
+     */
+    L writeLockInterruptibly(K key) throws InterruptedException;
+
+    /**
+     * Return a {@link LockHandle} for a {@code ReadWriteLock} with its {@link ReadWriteLock#readLock()} already locked using {@link Lock#lock()}, which is
+     * unlocked when the handle is closed.
+     * <p>
+     * This is intended to be used with {@code try}-with-resources:
+     * {@snippet :
+     * try (var handle = locks.acquireRead(key)) {
+     *     // do something
+     * }
+     * }
+     *
+     * @param key key
+     * @return handle for the already read locked lock
+     * @since 1.4.0
+     */
+    LockHandle<K, L> acquireRead(K key);
+
+    /**
+     * Return a {@link LockHandle} for a {@code ReadWriteLock} with its {@link ReadWriteLock#writeLock()} already locked using {@link Lock#lock()}, which is
+     * unlocked when the handle is closed.
+     *
+     * @param key key
+     * @return handle for the already write locked lock
+     * @see #acquireRead(Object)
+     * @since 1.4.0
+     */
+    LockHandle<K, L> acquireWrite(K key);
+
+    /**
+     * Lock the {@link ReadWriteLock#readLock()} of the locks for all supplied keys and return a {@link MultiLockHandle}, which unlocks them when it is closed.
+     * <p>
+     * The locks are always locked in a consistent global order, regardless of the order of the keys, so several threads locking overlapping sets of keys
+     * using this method or {@link #writeLockAll(Collection)} cannot deadlock each other.
+     *
+     * @param keys keys
+     * @return handle for the already read locked locks
+     * @since 1.4.0
+     */
+    MultiLockHandle<K, L> readLockAll(Collection<? extends K> keys);
+
+    /**
+     * Lock the {@link ReadWriteLock#writeLock()} of the locks for all supplied keys and return a {@link MultiLockHandle}, which unlocks them when it is
+     * closed.
+     *
+     * @param keys keys
+     * @return handle for the already write locked locks
+     * @see #readLockAll(Collection)
+     * @since 1.4.0
+     */
+    MultiLockHandle<K, L> writeLockAll(Collection<? extends K> keys);
+
+    /**
+     * Lock the {@link ReadWriteLock#readLock()} of the locks for all supplied keys like {@link #readLockAll(Collection)}, if this is possible within the
+     * timeout. If not, all locks which have already been locked are unlocked again.
+     *
+     * @param keys    keys
+     * @param timeout maximum time to wait for all locks
+     * @param unit    time unit of {@code timeout}
+     * @return handle for the already read locked locks, or an empty result if not all locks could be locked within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @since 1.4.0
+     */
+    Optional<MultiLockHandle<K, L>> tryReadLockAll(Collection<? extends K> keys, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Lock the {@link ReadWriteLock#writeLock()} of the locks for all supplied keys like {@link #writeLockAll(Collection)}, if this is possible within the
+     * timeout. If not, all locks which have already been locked are unlocked again.
+     *
+     * @param keys    keys
+     * @param timeout maximum time to wait for all locks
+     * @param unit    time unit of {@code timeout}
+     * @return handle for the already write locked locks, or an empty result if not all locks could be locked within the timeout
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @since 1.4.0
+     */
+    Optional<MultiLockHandle<K, L>> tryWriteLockAll(Collection<? extends K> keys, long timeout, TimeUnit unit) throws InterruptedException;
+
     /**
      * Returns the current number of locks managed by this instance.
      *
@@ -102,4 +520,13 @@ public interface ReadWriteLocks<K, L extends ReadWriteLock> {
      */
     int size();
 
+    /**
+     * Returns a snapshot of statistics like the number of locks which are still reachable and the total number of locks created. Unlike {@link #size()},
+     * this never removes any locks, so it does not interfere with threads calling methods like {@code get} or {@code lock}.
+     *
+     * @return statistics
+     * @since 1.4.0
+     */
+    LocksStats stats();
+
 }
@@ -1,6 +1,13 @@
 package net.dapete.locks;
 
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 class ReadWriteLocksImpl<K, L extends ReadWriteLock> extends AbstractLocks<K, L> implements ReadWriteLocks<K, L> {
@@ -9,18 +16,127 @@ class ReadWriteLocksImpl<K, L extends ReadWriteLock> extends AbstractLocks<K, L>
         super(lockSupplier);
     }
 
+    ReadWriteLocksImpl(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy) {
+        super(lockSupplier, cleanupStrategy);
+    }
+
+    ReadWriteLocksImpl(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy, @Nullable LockMetrics<K> metrics) {
+        super(lockSupplier, cleanupStrategy, metrics);
+    }
+
+    ReadWriteLocksImpl(Supplier<L> lockSupplier, CleanupStrategy cleanupStrategy, @Nullable LockMetrics<K> metrics, @Nullable LockPool<L> pool) {
+        super(lockSupplier, cleanupStrategy, metrics, pool);
+    }
+
     @Override
     public final L readLock(K key) {
         final var lock = get(key);
-        lock.readLock().lock();
+        meteredLock(key, lock.readLock());
         return lock;
     }
 
     @Override
     public final L writeLock(K key) {
         final var lock = get(key);
-        lock.writeLock().lock();
+        meteredLock(key, lock.writeLock());
+        return lock;
+    }
+
+    @Override
+    public final Optional<L> tryReadLock(K key) {
+        return tryLock(key, get(key), ReadWriteLock::readLock);
+    }
+
+    @Override
+    public final Optional<L> tryReadLock(K key, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryLock(key, get(key), ReadWriteLock::readLock, timeout, unit);
+    }
+
+    @Override
+    public final L readLockInterruptibly(K key) throws InterruptedException {
+        return lockInterruptibly(key, get(key), ReadWriteLock::readLock);
+    }
+
+    @Override
+    public final Optional<L> tryWriteLock(K key) {
+        return tryLock(key, get(key), ReadWriteLock::writeLock);
+    }
+
+    @Override
+    public final Optional<L> tryWriteLock(K key, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryLock(key, get(key), ReadWriteLock::writeLock, timeout, unit);
+    }
+
+    @Override
+    public final L writeLockInterruptibly(K key) throws InterruptedException {
+        return lockInterruptibly(key, get(key), ReadWriteLock::writeLock);
+    }
+
+    private Optional<L> tryLock(K key, L lock, Function<L, Lock> lockFunction) {
+        if (meteredTryLock(key, lockFunction.apply(lock))) {
+            return Optional.of(lock);
+        }
+        releaseHeld(key);
+        return Optional.empty();
+    }
+
+    private Optional<L> tryLock(K key, L lock, Function<L, Lock> lockFunction, long timeout, TimeUnit unit) throws InterruptedException {
+        boolean locked = false;
+        try {
+            locked = meteredTryLock(key, lockFunction.apply(lock), timeout, unit);
+        } finally {
+            if (!locked) {
+                releaseHeld(key);
+            }
+        }
+        return locked ? Optional.of(lock) : Optional.empty();
+    }
+
+    private L lockInterruptibly(K key, L lock, Function<L, Lock> lockFunction) throws InterruptedException {
+        boolean locked = false;
+        try {
+            meteredLockInterruptibly(key, lockFunction.apply(lock));
+            locked = true;
+        } finally {
+            if (!locked) {
+                releaseHeld(key);
+            }
+        }
         return lock;
     }
 
+    @Override
+    public final LockHandle<K, L> acquireRead(K key) {
+        final var lock = readLock(key);
+        return new LockHandle<>(key, lock, lock.readLock(), this);
+    }
+
+    @Override
+    public final LockHandle<K, L> acquireWrite(K key) {
+        final var lock = writeLock(key);
+        return new LockHandle<>(key, lock, lock.writeLock(), this);
+    }
+
+    @Override
+    public final MultiLockHandle<K, L> readLockAll(Collection<? extends K> keys) {
+        return OrderedLocking.lockAll(getAllInternal(keys), (k, lock) -> System.identityHashCode(lock), ReadWriteLock::readLock, this, getTieLock());
+    }
+
+    @Override
+    public final MultiLockHandle<K, L> writeLockAll(Collection<? extends K> keys) {
+        return OrderedLocking.lockAll(getAllInternal(keys), (k, lock) -> System.identityHashCode(lock), ReadWriteLock::writeLock, this, getTieLock());
+    }
+
+    @Override
+    public final Optional<MultiLockHandle<K, L>> tryReadLockAll(Collection<? extends K> keys, long timeout, TimeUnit unit) throws InterruptedException {
+        return OrderedLocking.tryLockAll(getAllInternal(keys), (k, lock) -> System.identityHashCode(lock), ReadWriteLock::readLock, this, getTieLock(),
+                timeout, unit);
+    }
+
+    @Override
+    public final Optional<MultiLockHandle<K, L>> tryWriteLockAll(Collection<? extends K> keys, long timeout, TimeUnit unit) throws InterruptedException {
+        return OrderedLocking.tryLockAll(getAllInternal(keys), (k, lock) -> System.identityHashCode(lock), ReadWriteLock::writeLock, this, getTieLock(),
+                timeout, unit);
+    }
+
 }
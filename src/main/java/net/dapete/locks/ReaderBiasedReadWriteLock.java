@@ -0,0 +1,394 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link ReadWriteLock} for keys which are read by many threads at once, which counts readers in several slots instead of a single counter.
+ * <p>
+ * Each thread always uses the same slot, and slots are on different cache lines, so readers on different processors do not write to the same memory. In
+ * exchange, a writer has to look at all slots until they are all zero, and readers which find a writer active wait for it to unlock. The number of slots is
+ * the number of available processors rounded up to a power of two, but at most {@value #MAX_SLOTS}.
+ * <p>
+ * Because every slot takes up a cache line of its own, each instance uses 64 bytes per slot plus one more cache line, which is up to about 4 KB, compared to
+ * a few dozen bytes for a {@link java.util.concurrent.locks.ReentrantReadWriteLock}. It is therefore only worth it for a limited number of keys which are
+ * read very frequently, and locks should not be kept for a large number of keys at once.
+ * <p>
+ * The read holds of each thread are also counted, so unlocking the read lock in a thread which does not hold it throws an
+ * {@link IllegalMonitorStateException}, even if another thread using the same slot holds it. The counts are kept in one object per thread, shared by all
+ * instances, which counts the holds of the instance the thread has read locked first without any lookup or allocation, and those of any other instances it
+ * holds at the same time in a map.
+ * <p>
+ * Writers hold a {@link ReentrantLock}, so the write lock is reentrant, and the thread holding it may also acquire the read lock. The read lock is not
+ * reentrant: a thread which acquires it again while a writer is waiting for the first read lock to be released deadlocks, similar to
+ * {@link java.util.concurrent.locks.StampedLock}. Conditions are not supported.
+ *
+ * @since 1.4.0
+ */
+public final class ReaderBiasedReadWriteLock implements ReadWriteLock {
+
+    static final int MAX_SLOTS = 64;
+
+    /**
+     * Distance between slots in the array, so each slot has its own 64-byte cache line.
+     */
+    private static final int STRIDE = 16;
+
+    /**
+     * Read holds of the current thread, for all instances.
+     */
+    private static final ThreadLocal<ReadHolds> READ_HOLDS = ThreadLocal.withInitial(ReadHolds::new);
+
+    private static final int SLOTS = Math.min(Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)), MAX_SLOTS);
+
+    private final AtomicIntegerArray readers = new AtomicIntegerArray((SLOTS + 1) * STRIDE);
+
+    private final ReentrantLock writerLock = new ReentrantLock();
+
+    private final Lock readLock = new ReadLock();
+
+    private final Lock writeLock = new WriteLock();
+
+    private volatile boolean writerActive;
+
+    private volatile @Nullable Thread writer;
+
+    /**
+     * Creates an instance.
+     */
+    public ReaderBiasedReadWriteLock() {
+    }
+
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+
+    /**
+     * Returns the number of read locks currently held.
+     *
+     * @return number of read locks
+     */
+    public int getReadLockCount() {
+        int count = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            count += readers.get(index(slot));
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether the write lock is held by any thread.
+     *
+     * @return {@code true} if the write lock is held by any thread
+     */
+    public boolean isWriteLocked() {
+        return writerLock.isLocked();
+    }
+
+    /**
+     * Returns whether the write lock is held by the current thread.
+     *
+     * @return {@code true} if the write lock is held by the current thread
+     */
+    public boolean isWriteLockedByCurrentThread() {
+        return writerLock.isHeldByCurrentThread();
+    }
+
+    private static int index(int slot) {
+        // the first cache line is left empty, so the first slot does not share its cache line with other objects
+        return (slot + 1) * STRIDE;
+    }
+
+    private static int currentIndex() {
+        final long id = Thread.currentThread().getId();
+        return index((int) (id * 0x9E3779B97F4A7C15L >>> 40) & (SLOTS - 1));
+    }
+
+    /**
+     * Tries to acquire a read lock without waiting.
+     *
+     * @param index index of the slot of the current thread
+     * @return {@code true} if the read lock has been acquired
+     */
+    private boolean tryAcquireRead(int index) {
+        readers.incrementAndGet(index);
+        // the volatile increment and read of writerActive pair with the volatile write of writerActive and the reads of the slots in the writer
+        if (!writerActive || writerLock.isHeldByCurrentThread()) {
+            READ_HOLDS.get().acquired(this);
+            return true;
+        }
+        releaseRead(index);
+        return false;
+    }
+
+    private void releaseRead(int index) {
+        if (readers.decrementAndGet(index) == 0 && writerActive) {
+            final Thread waitingWriter = writer;
+            if (waitingWriter != null) {
+                LockSupport.unpark(waitingWriter);
+            }
+        }
+    }
+
+    private boolean hasReaders() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (readers.get(index(slot)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the current thread, which has just acquired {@link #writerLock} for the first time, as the active writer.
+     */
+    private void startWriting() {
+        writer = Thread.currentThread();
+        writerActive = true;
+    }
+
+    /**
+     * Lets readers in again after the current thread has released or given up the write lock.
+     */
+    private void stopWriting() {
+        writerActive = false;
+        writer = null;
+    }
+
+    private final class ReadLock implements Lock {
+
+        @Override
+        public void lock() {
+            final int index = currentIndex();
+            while (!tryAcquireRead(index)) {
+                // wait for the active writer
+                writerLock.lock();
+                writerLock.unlock();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            final int index = currentIndex();
+            while (!tryAcquireRead(index)) {
+                writerLock.lockInterruptibly();
+                writerLock.unlock();
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            return tryAcquireRead(currentIndex());
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            final long deadline = System.nanoTime() + unit.toNanos(time);
+            final int index = currentIndex();
+            while (!tryAcquireRead(index)) {
+                if (!writerLock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                writerLock.unlock();
+            }
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            if (!READ_HOLDS.get().released(ReaderBiasedReadWriteLock.this)) {
+                throw new IllegalMonitorStateException("Read lock is not held by the current thread");
+            }
+            releaseRead(currentIndex());
+        }
+
+        /**
+         * Not supported.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported by ReaderBiasedReadWriteLock");
+        }
+
+    }
+
+    private final class WriteLock implements Lock {
+
+        @Override
+        public void lock() {
+            writerLock.lock();
+            if (writerLock.getHoldCount() > 1) {
+                return;
+            }
+            startWriting();
+            boolean interrupted = false;
+            while (hasReaders()) {
+                LockSupport.park(ReaderBiasedReadWriteLock.this);
+                // like Lock.lock(), keep waiting and restore the interrupt status afterwards
+                interrupted |= Thread.interrupted();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            writerLock.lockInterruptibly();
+            if (writerLock.getHoldCount() > 1) {
+                return;
+            }
+            startWriting();
+            while (hasReaders()) {
+                LockSupport.park(ReaderBiasedReadWriteLock.this);
+                if (Thread.interrupted()) {
+                    abort();
+                    throw new InterruptedException();
+                }
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!writerLock.tryLock()) {
+                return false;
+            }
+            if (writerLock.getHoldCount() > 1) {
+                return true;
+            }
+            startWriting();
+            if (hasReaders()) {
+                abort();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(time);
+            if (!writerLock.tryLock(time, unit)) {
+                return false;
+            }
+            if (writerLock.getHoldCount() > 1) {
+                return true;
+            }
+            startWriting();
+            while (hasReaders()) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    abort();
+                    return false;
+                }
+                LockSupport.parkNanos(ReaderBiasedReadWriteLock.this, remaining);
+                if (Thread.interrupted()) {
+                    abort();
+                    throw new InterruptedException();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            if (!writerLock.isHeldByCurrentThread()) {
+                throw new IllegalMonitorStateException("Write lock is not held by the current thread");
+            }
+            if (writerLock.getHoldCount() == 1) {
+                stopWriting();
+            }
+            writerLock.unlock();
+        }
+
+        /**
+         * Not supported.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported by ReaderBiasedReadWriteLock");
+        }
+
+        private void abort() {
+            stopWriting();
+            writerLock.unlock();
+        }
+
+    }
+
+    /**
+     * Read holds of one thread. The holds of one instance are counted in fields, and only those of further instances held at the same time in a map, so
+     * the common case of holding one read lock at a time does not allocate. References to instances are only kept while they are held.
+     */
+    private static final class ReadHolds {
+
+        private @Nullable ReaderBiasedReadWriteLock lock;
+
+        private int count;
+
+        private @Nullable Map<ReaderBiasedReadWriteLock, int[]> others;
+
+        void acquired(ReaderBiasedReadWriteLock acquiredLock) {
+            if (lock == acquiredLock) {
+                count++;
+            } else if (lock == null && (others == null || others.isEmpty())) {
+                lock = acquiredLock;
+                count = 1;
+            } else {
+                if (others == null) {
+                    others = new IdentityHashMap<>();
+                }
+                others.computeIfAbsent(acquiredLock, k -> new int[1])[0]++;
+            }
+        }
+
+        /**
+         * Counts the release of a read hold.
+         *
+         * @return {@code false} if the thread does not hold the read lock
+         */
+        boolean released(ReaderBiasedReadWriteLock releasedLock) {
+            if (lock == releasedLock) {
+                if (--count == 0) {
+                    lock = null;
+                }
+                return true;
+            }
+            final var otherLocks = others;
+            final var otherHolds = otherLocks != null ? otherLocks.get(releasedLock) : null;
+            if (otherLocks == null || otherHolds == null) {
+                return false;
+            }
+            if (--otherHolds[0] == 0) {
+                otherLocks.remove(releasedLock);
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -5,8 +5,9 @@ import java.util.concurrent.locks.ReentrantLock;
 /**
  * Key-based locking using instances of {@link ReentrantLock}.
  * <p>
- * Instances can be created using {@link Locks#reentrant()}, {@link Locks#reentrant(Class)}, {@link Locks#reentrant(boolean)} and
- * {@link Locks#reentrant(boolean, Class)}.
+ * Instances can be created using {@link Locks#reentrant()}, {@link Locks#reentrant(Class)}, {@link Locks#reentrant(boolean)},
+ * {@link Locks#reentrant(boolean, Class)}, {@link Locks#reentrant(boolean, CleanupStrategy)},
+ * {@link Locks#reentrant(boolean, CleanupStrategy, LockMetrics)}, {@link Locks#forVirtualThreads()} and {@link Locks#forVirtualThreads(Class)}.
  *
  * @param <K> type of key
  */
@@ -20,4 +21,12 @@ public final class ReentrantLocks<K> extends LocksImpl<K, ReentrantLock> {
         super(() -> new ReentrantLock(fair));
     }
 
+    ReentrantLocks(boolean fair, CleanupStrategy cleanupStrategy) {
+        super(() -> new ReentrantLock(fair), cleanupStrategy);
+    }
+
+    ReentrantLocks(boolean fair, CleanupStrategy cleanupStrategy, LockMetrics<K> metrics) {
+        super(() -> new ReentrantLock(fair), cleanupStrategy, metrics);
+    }
+
 }
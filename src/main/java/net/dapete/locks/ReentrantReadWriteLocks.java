@@ -5,8 +5,9 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 /**
  * Key-based locking using instances of {@link ReentrantReadWriteLock}.
  * <p>
- * Instances can be created using {@link ReadWriteLocks#reentrant()}, {@link ReadWriteLocks#reentrant(Class)}, {@link ReadWriteLocks#reentrant(boolean)} and
- * {@link ReadWriteLocks#reentrant(boolean, Class)}.
+ * Instances can be created using {@link ReadWriteLocks#reentrant()}, {@link ReadWriteLocks#reentrant(Class)}, {@link ReadWriteLocks#reentrant(boolean)},
+ * {@link ReadWriteLocks#reentrant(boolean, Class)}, {@link ReadWriteLocks#reentrant(boolean, CleanupStrategy)} and
+ * {@link ReadWriteLocks#reentrant(boolean, CleanupStrategy, LockMetrics)}.
  *
  * @param <K> type of key
  */
@@ -20,4 +21,12 @@ public final class ReentrantReadWriteLocks<K> extends ReadWriteLocksImpl<K, Reen
         super(() -> new ReentrantReadWriteLock(fair));
     }
 
+    ReentrantReadWriteLocks(boolean fair, CleanupStrategy cleanupStrategy) {
+        super(() -> new ReentrantReadWriteLock(fair), cleanupStrategy);
+    }
+
+    ReentrantReadWriteLocks(boolean fair, CleanupStrategy cleanupStrategy, LockMetrics<K> metrics) {
+        super(() -> new ReentrantReadWriteLock(fair), cleanupStrategy, metrics);
+    }
+
 }
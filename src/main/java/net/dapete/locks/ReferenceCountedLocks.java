@@ -0,0 +1,39 @@
+package net.dapete.locks;
+
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Key-based locking with implementations of {@link Lock}, which are removed as soon as they are no longer used instead of relying on the garbage collector.
+ * <p>
+ * Each call to {@link #get(Object)} or {@link #lock(Object)} increments the number of holders of the lock for the key. It must be followed by exactly one call
+ * to {@link #release(Object)} or {@link #unlock(Object)} respectively, which decrements it again. The same applies to {@link #lockInterruptibly(Object)} and
+ * the {@code tryLock} methods if they succeed, and to every distinct key passed to {@link #getAll(java.util.Collection)}. As soon as there are no more holders,
+ * the lock is removed.
+ * A {@link LockHandle} returned by {@link #acquire(Object)} does this when it is closed.
+ * <p>
+ * Instances can be created using {@link Locks#referenceCounted()}, {@link Locks#referenceCounted(Class)} and
+ * {@link Locks#referenceCountedWithSupplier(java.util.function.Supplier)}.
+ *
+ * @param <K> type of key
+ * @param <L> type of {@link Lock}
+ * @since 1.4.0
+ */
+public interface ReferenceCountedLocks<K, L extends Lock> extends Locks<K, L> {
+
+    /**
+     * Unlock the {@code Lock} for the supplied key previously locked using {@link #lock(Object)} and release it.
+     *
+     * @param key key
+     * @throws IllegalStateException if there is no lock for the key
+     */
+    void unlock(K key);
+
+    /**
+     * Release the {@code Lock} for the supplied key previously returned by {@link #get(Object)}, without unlocking it.
+     *
+     * @param key key
+     * @throws IllegalStateException if there is no lock for the key
+     */
+    void release(K key);
+
+}
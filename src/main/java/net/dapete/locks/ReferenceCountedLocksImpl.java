@@ -0,0 +1,29 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+final class ReferenceCountedLocksImpl<K, L extends Lock> extends LocksImpl<K, L> implements ReferenceCountedLocks<K, L> {
+
+    ReferenceCountedLocksImpl(Supplier<L> lockSupplier) {
+        this(lockSupplier, null);
+    }
+
+    ReferenceCountedLocksImpl(Supplier<L> lockSupplier, @Nullable LockPool<L> pool) {
+        super(lockSupplier, CleanupStrategy.referenceCounted(), null, pool);
+    }
+
+    @Override
+    public void unlock(K key) {
+        getHeld(key).unlock();
+        releaseHeld(key);
+    }
+
+    @Override
+    public void release(K key) {
+        releaseHeld(key);
+    }
+
+}
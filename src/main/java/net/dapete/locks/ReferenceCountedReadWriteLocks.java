@@ -0,0 +1,51 @@
+package net.dapete.locks;
+
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Key-based locking with implementations of {@link ReadWriteLock}, which are removed as soon as they are no longer used instead of relying on the garbage
+ * collector.
+ * <p>
+ * Each call to {@link #get(Object)}, {@link #readLock(Object)} or {@link #writeLock(Object)} increments the number of holders of the lock for the key. It must
+ * be followed by exactly one call to {@link #release(Object)}, {@link #unlockRead(Object)} or {@link #unlockWrite(Object)} respectively, which decrements it
+ * again. The same applies to the {@code tryReadLock}, {@code tryWriteLock} and {@code …Interruptibly} methods if they succeed. As soon as there are no more
+ * holders, the lock is removed. A {@link LockHandle} returned by {@link #acquireRead(Object)} or {@link #acquireWrite(Object)} does this when it is closed.
+ * <p>
+ * Every distinct key passed to {@link #getAll(java.util.Collection)} must also be released once.
+ * <p>
+ * Instances can be created using {@link ReadWriteLocks#referenceCounted()}, {@link ReadWriteLocks#referenceCounted(Class)} and
+ * {@link ReadWriteLocks#referenceCountedWithSupplier(java.util.function.Supplier)}.
+ *
+ * @param <K> type of key
+ * @param <L> type of {@link ReadWriteLock}
+ * @since 1.4.0
+ */
+public interface ReferenceCountedReadWriteLocks<K, L extends ReadWriteLock> extends ReadWriteLocks<K, L> {
+
+    /**
+     * Unlock the {@link ReadWriteLock#readLock()} of the {@code ReadWriteLock} for the supplied key previously locked using {@link #readLock(Object)} and
+     * release it.
+     *
+     * @param key key
+     * @throws IllegalStateException if there is no lock for the key
+     */
+    void unlockRead(K key);
+
+    /**
+     * Unlock the {@link ReadWriteLock#writeLock()} of the {@code ReadWriteLock} for the supplied key previously locked using {@link #writeLock(Object)} and
+     * release it.
+     *
+     * @param key key
+     * @throws IllegalStateException if there is no lock for the key
+     */
+    void unlockWrite(K key);
+
+    /**
+     * Release the {@code ReadWriteLock} for the supplied key previously returned by {@link #get(Object)}, without unlocking it.
+     *
+     * @param key key
+     * @throws IllegalStateException if there is no lock for the key
+     */
+    void release(K key);
+
+}
@@ -0,0 +1,35 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Supplier;
+
+final class ReferenceCountedReadWriteLocksImpl<K, L extends ReadWriteLock> extends ReadWriteLocksImpl<K, L> implements ReferenceCountedReadWriteLocks<K, L> {
+
+    ReferenceCountedReadWriteLocksImpl(Supplier<L> lockSupplier) {
+        this(lockSupplier, null);
+    }
+
+    ReferenceCountedReadWriteLocksImpl(Supplier<L> lockSupplier, @Nullable LockPool<L> pool) {
+        super(lockSupplier, CleanupStrategy.referenceCounted(), null, pool);
+    }
+
+    @Override
+    public void unlockRead(K key) {
+        getHeld(key).readLock().unlock();
+        releaseHeld(key);
+    }
+
+    @Override
+    public void unlockWrite(K key) {
+        getHeld(key).writeLock().unlock();
+        releaseHeld(key);
+    }
+
+    @Override
+    public void release(K key) {
+        releaseHeld(key);
+    }
+
+}
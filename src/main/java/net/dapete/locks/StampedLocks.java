@@ -0,0 +1,180 @@
+package net.dapete.locks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Key-based locking using instances of {@link StampedLock}.
+ * <p>
+ * Methods return a {@link LockStamp}, which holds both the stamp and the lock that issued it. Optimistic reads ({@link #tryOptimisticRead(Object)},
+ * {@link #optimisticRead(Object, Supplier)}) do not write to any shared memory if the lock for the key already exists, so readers of the same key do not
+ * contend with each other.
+ * <p>
+ * Instances can be created using {@link ReadWriteLocks#stamped()}, {@link ReadWriteLocks#stamped(Class)} and
+ * {@link ReadWriteLocks#stamped(CleanupStrategy)}.
+ *
+ * @param <K> type of key
+ * @since 1.4.0
+ */
+public final class StampedLocks<K> extends AbstractLocks<K, StampedLock> {
+
+    StampedLocks() {
+        super(StampedLock::new);
+    }
+
+    StampedLocks(CleanupStrategy cleanupStrategy) {
+        super(StampedLock::new, cleanupStrategy);
+    }
+
+    /**
+     * Returns an optimistic read stamp for the lock for the supplied key. The stamp is not valid if the lock is currently held in write mode.
+     *
+     * @param key key
+     * @return optimistic read stamp, to be checked using {@link LockStamp#validate()}
+     * @see StampedLock#tryOptimisticRead()
+     */
+    public LockStamp tryOptimisticRead(K key) {
+        final var lock = get(key);
+        return new LockStamp(lock, lock.tryOptimisticRead(), LockStamp.Mode.OPTIMISTIC_READ);
+    }
+
+    /**
+     * Returns the result of {@code reader}, which is first called without locking, using an optimistic read. If the lock for the key was held in write mode
+     * in the meantime, the result is discarded and {@code reader} is called again while holding the lock in read mode.
+     * <p>
+     * {@code reader} may see inconsistent state when it is called without locking, so it must only read fields and must not have any side effects.
+     *
+     * @param key    key
+     * @param reader code reading the data protected by the lock
+     * @param <T>    type of the result
+     * @return result of {@code reader}
+     */
+    public <T> T optimisticRead(K key, Supplier<T> reader) {
+        final var lock = get(key);
+        final long optimisticStamp = lock.tryOptimisticRead();
+        if (optimisticStamp != 0) {
+            final T result = reader.get();
+            if (lock.validate(optimisticStamp)) {
+                return result;
+            }
+        }
+        final long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Locks the lock for the supplied key in read mode, waiting if necessary.
+     *
+     * @param key key
+     * @return read stamp, unlocked by {@link LockStamp#close()}
+     * @see StampedLock#readLock()
+     */
+    public LockStamp readLock(K key) {
+        final var lock = get(key);
+        return new LockStamp(lock, lock.readLock(), LockStamp.Mode.READ);
+    }
+
+    /**
+     * Locks the lock for the supplied key in read mode if it is immediately available.
+     *
+     * @param key key
+     * @return read stamp, or an empty {@code Optional} if the lock is not available
+     * @see StampedLock#tryReadLock()
+     */
+    public Optional<LockStamp> tryReadLock(K key) {
+        final var lock = get(key);
+        return toStamp(lock, lock.tryReadLock(), LockStamp.Mode.READ);
+    }
+
+    /**
+     * Locks the lock for the supplied key in read mode if it becomes available within the given waiting time.
+     *
+     * @param key  key
+     * @param time maximum time to wait for the lock
+     * @param unit time unit of {@code time}
+     * @return read stamp, or an empty {@code Optional} if the waiting time elapsed before the lock was acquired
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @see StampedLock#tryReadLock(long, TimeUnit)
+     */
+    public Optional<LockStamp> tryReadLock(K key, long time, TimeUnit unit) throws InterruptedException {
+        final var lock = get(key);
+        return toStamp(lock, lock.tryReadLock(time, unit), LockStamp.Mode.READ);
+    }
+
+    /**
+     * Locks the lock for the supplied key in read mode, waiting if necessary unless the current thread is interrupted.
+     *
+     * @param key key
+     * @return read stamp, unlocked by {@link LockStamp#close()}
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @see StampedLock#readLockInterruptibly()
+     */
+    public LockStamp readLockInterruptibly(K key) throws InterruptedException {
+        final var lock = get(key);
+        return new LockStamp(lock, lock.readLockInterruptibly(), LockStamp.Mode.READ);
+    }
+
+    /**
+     * Locks the lock for the supplied key in write mode, waiting if necessary.
+     *
+     * @param key key
+     * @return write stamp, unlocked by {@link LockStamp#close()}
+     * @see StampedLock#writeLock()
+     */
+    public LockStamp writeLock(K key) {
+        final var lock = get(key);
+        return new LockStamp(lock, lock.writeLock(), LockStamp.Mode.WRITE);
+    }
+
+    /**
+     * Locks the lock for the supplied key in write mode if it is immediately available.
+     *
+     * @param key key
+     * @return write stamp, or an empty {@code Optional} if the lock is not available
+     * @see StampedLock#tryWriteLock()
+     */
+    public Optional<LockStamp> tryWriteLock(K key) {
+        final var lock = get(key);
+        return toStamp(lock, lock.tryWriteLock(), LockStamp.Mode.WRITE);
+    }
+
+    /**
+     * Locks the lock for the supplied key in write mode if it becomes available within the given waiting time.
+     *
+     * @param key  key
+     * @param time maximum time to wait for the lock
+     * @param unit time unit of {@code time}
+     * @return write stamp, or an empty {@code Optional} if the waiting time elapsed before the lock was acquired
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @see StampedLock#tryWriteLock(long, TimeUnit)
+     */
+    public Optional<LockStamp> tryWriteLock(K key, long time, TimeUnit unit) throws InterruptedException {
+        final var lock = get(key);
+        return toStamp(lock, lock.tryWriteLock(time, unit), LockStamp.Mode.WRITE);
+    }
+
+    /**
+     * Locks the lock for the supplied key in write mode, waiting if necessary unless the current thread is interrupted.
+     *
+     * @param key key
+     * @return write stamp, unlocked by {@link LockStamp#close()}
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @see StampedLock#writeLockInterruptibly()
+     */
+    public LockStamp writeLockInterruptibly(K key) throws InterruptedException {
+        final var lock = get(key);
+        return new LockStamp(lock, lock.writeLockInterruptibly(), LockStamp.Mode.WRITE);
+    }
+
+    private static Optional<LockStamp> toStamp(StampedLock lock, long stamp, LockStamp.Mode mode) {
+        // StampedLock returns 0 if the lock was not acquired
+        return stamp == 0 ? Optional.empty() : Optional.of(new LockStamp(lock, stamp, mode));
+    }
+
+}
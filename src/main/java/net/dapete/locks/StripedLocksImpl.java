@@ -0,0 +1,57 @@
+package net.dapete.locks;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+class StripedLocksImpl<K, L extends Lock> extends AbstractStripedLocks<K, L> implements Locks<K, L> {
+
+    StripedLocksImpl(int stripes, Supplier<L> lockSupplier) {
+        super(stripes, lockSupplier);
+    }
+
+    @Override
+    public final L lock(K key) {
+        final var lock = get(key);
+        lock.lock();
+        return lock;
+    }
+
+    @Override
+    public final Optional<L> tryLock(K key) {
+        final var lock = get(key);
+        return lock.tryLock() ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public final Optional<L> tryLock(K key, long timeout, TimeUnit unit) throws InterruptedException {
+        final var lock = get(key);
+        return lock.tryLock(timeout, unit) ? Optional.of(lock) : Optional.empty();
+    }
+
+    @Override
+    public final L lockInterruptibly(K key) throws InterruptedException {
+        final var lock = get(key);
+        lock.lockInterruptibly();
+        return lock;
+    }
+
+    @Override
+    public final LockHandle<K, L> acquire(K key) {
+        final var lock = lock(key);
+        return new LockHandle<>(key, lock, lock, null);
+    }
+
+    @Override
+    public final MultiLockHandle<K, L> lockAll(Collection<? extends K> keys) {
+        return OrderedLocking.lockAll(getAllInternal(keys), (k, lock) -> indexOf(k), lock -> lock, null, null);
+    }
+
+    @Override
+    public final Optional<MultiLockHandle<K, L>> tryLockAll(Collection<? extends K> keys, long timeout, TimeUnit unit) throws InterruptedException {
+        return OrderedLocking.tryLockAll(getAllInternal(keys), (k, lock) -> indexOf(k), lock -> lock, null, null, timeout, unit);
+    }
+
+}
@@ -0,0 +1,106 @@
+package net.dapete.locks;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+class StripedReadWriteLocksImpl<K, L extends ReadWriteLock> extends AbstractStripedLocks<K, L> implements ReadWriteLocks<K, L> {
+
+    StripedReadWriteLocksImpl(int stripes, Supplier<L> lockSupplier) {
+        super(stripes, lockSupplier);
+    }
+
+    @Override
+    public final L readLock(K key) {
+        final var lock = get(key);
+        lock.readLock().lock();
+        return lock;
+    }
+
+    @Override
+    public final L writeLock(K key) {
+        final var lock = get(key);
+        lock.writeLock().lock();
+        return lock;
+    }
+
+    @Override
+    public final Optional<L> tryReadLock(K key) {
+        return tryLock(get(key), ReadWriteLock::readLock);
+    }
+
+    @Override
+    public final Optional<L> tryReadLock(K key, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryLock(get(key), ReadWriteLock::readLock, timeout, unit);
+    }
+
+    @Override
+    public final L readLockInterruptibly(K key) throws InterruptedException {
+        return lockInterruptibly(get(key), ReadWriteLock::readLock);
+    }
+
+    @Override
+    public final Optional<L> tryWriteLock(K key) {
+        return tryLock(get(key), ReadWriteLock::writeLock);
+    }
+
+    @Override
+    public final Optional<L> tryWriteLock(K key, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryLock(get(key), ReadWriteLock::writeLock, timeout, unit);
+    }
+
+    @Override
+    public final L writeLockInterruptibly(K key) throws InterruptedException {
+        return lockInterruptibly(get(key), ReadWriteLock::writeLock);
+    }
+
+    private static <L> Optional<L> tryLock(L lock, Function<L, Lock> lockFunction) {
+        return lockFunction.apply(lock).tryLock() ? Optional.of(lock) : Optional.empty();
+    }
+
+    private static <L> Optional<L> tryLock(L lock, Function<L, Lock> lockFunction, long timeout, TimeUnit unit) throws InterruptedException {
+        return lockFunction.apply(lock).tryLock(timeout, unit) ? Optional.of(lock) : Optional.empty();
+    }
+
+    private static <L> L lockInterruptibly(L lock, Function<L, Lock> lockFunction) throws InterruptedException {
+        lockFunction.apply(lock).lockInterruptibly();
+        return lock;
+    }
+
+    @Override
+    public final LockHandle<K, L> acquireRead(K key) {
+        final var lock = readLock(key);
+        return new LockHandle<>(key, lock, lock.readLock(), null);
+    }
+
+    @Override
+    public final LockHandle<K, L> acquireWrite(K key) {
+        final var lock = writeLock(key);
+        return new LockHandle<>(key, lock, lock.writeLock(), null);
+    }
+
+    @Override
+    public final MultiLockHandle<K, L> readLockAll(Collection<? extends K> keys) {
+        return OrderedLocking.lockAll(getAllInternal(keys), (k, lock) -> indexOf(k), ReadWriteLock::readLock, null, null);
+    }
+
+    @Override
+    public final MultiLockHandle<K, L> writeLockAll(Collection<? extends K> keys) {
+        return OrderedLocking.lockAll(getAllInternal(keys), (k, lock) -> indexOf(k), ReadWriteLock::writeLock, null, null);
+    }
+
+    @Override
+    public final Optional<MultiLockHandle<K, L>> tryReadLockAll(Collection<? extends K> keys, long timeout, TimeUnit unit) throws InterruptedException {
+        return OrderedLocking.tryLockAll(getAllInternal(keys), (k, lock) -> indexOf(k), ReadWriteLock::readLock, null, null, timeout, unit);
+    }
+
+    @Override
+    public final Optional<MultiLockHandle<K, L>> tryWriteLockAll(Collection<? extends K> keys, long timeout, TimeUnit unit) throws InterruptedException {
+        return OrderedLocking.tryLockAll(getAllInternal(keys), (k, lock) -> indexOf(k), ReadWriteLock::writeLock, null, null, timeout, unit);
+    }
+
+}
@@ -0,0 +1,39 @@
+package net.dapete.locks;
+
+/**
+ * Starts the threads used internally by this library.
+ * <p>
+ * This is the version for Java 11 to 20. The JAR is a multi-release JAR, and Java 21 and later use a version of this class which starts virtual threads where
+ * this is supported.
+ */
+final class ThreadSupport {
+
+    private ThreadSupport() {
+    }
+
+    /**
+     * Starts a daemon platform thread.
+     *
+     * @param name     name of the thread
+     * @param runnable code to run
+     * @return started thread
+     */
+    static Thread startDaemonThread(String name, Runnable runnable) {
+        final var thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Starts a virtual thread if supported by the runtime, otherwise a daemon platform thread. Virtual threads are always daemon threads.
+     *
+     * @param name     name of the thread
+     * @param runnable code to run
+     * @return started thread
+     */
+    static Thread startVirtualThreadIfSupported(String name, Runnable runnable) {
+        return startDaemonThread(name, runnable);
+    }
+
+}
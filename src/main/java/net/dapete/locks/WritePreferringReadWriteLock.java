@@ -0,0 +1,254 @@
+package net.dapete.locks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A reentrant {@link ReadWriteLock} which lets no new reader in while a writer is waiting, so writers are not starved by a steady stream of readers.
+ * <p>
+ * Threads which already hold the read lock may acquire it again even while a writer is waiting, and the thread holding the write lock may acquire the read
+ * lock, so reentrant use does not deadlock. Like {@link java.util.concurrent.locks.ReentrantReadWriteLock}, upgrading a read lock to the write lock is not
+ * possible. Conditions are not supported.
+ * <p>
+ * The locks are held in a non-fair {@code ReentrantReadWriteLock}, which also counts the read holds of each thread. Writers which cannot acquire the write
+ * lock immediately are counted while they wait, and new readers are only let in while this count is zero, which only costs a volatile read in addition to
+ * acquiring the read lock of the {@code ReentrantReadWriteLock}. Only readers which find a writer waiting block on an internal lock until no more writers
+ * are waiting.
+ *
+ * @since 1.4.0
+ */
+public final class WritePreferringReadWriteLock implements ReadWriteLock {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicInteger waitingWriters = new AtomicInteger();
+
+    /**
+     * Lock for {@link #noWritersWaiting}, only used by readers which find a writer waiting and by the last writer to stop waiting.
+     */
+    private final ReentrantLock gate = new ReentrantLock();
+
+    private final Condition noWritersWaiting = gate.newCondition();
+
+    private final Lock readLock = new ReadLock();
+
+    private final Lock writeLock = new WriteLock();
+
+    /**
+     * Creates an instance.
+     */
+    public WritePreferringReadWriteLock() {
+    }
+
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+
+    /**
+     * Returns the number of read locks currently held.
+     *
+     * @return number of read locks
+     */
+    public int getReadLockCount() {
+        return lock.getReadLockCount();
+    }
+
+    /**
+     * Returns whether the write lock is held by any thread.
+     *
+     * @return {@code true} if the write lock is held by any thread
+     */
+    public boolean isWriteLocked() {
+        return lock.isWriteLocked();
+    }
+
+    /**
+     * Returns the number of threads waiting for the write lock.
+     *
+     * @return number of waiting writers
+     */
+    public int getWaitingWriters() {
+        return waitingWriters.get();
+    }
+
+    /**
+     * Returns whether a new reader has to wait for waiting writers. Readers which already hold the read or write lock never have to.
+     */
+    private boolean readerMustWait() {
+        return waitingWriters.get() > 0 && lock.getReadHoldCount() == 0 && !lock.isWriteLockedByCurrentThread();
+    }
+
+    /**
+     * Stops waiting for the write lock, letting readers in again if this was the last waiting writer.
+     */
+    private void stopWaitingForWrite() {
+        if (waitingWriters.decrementAndGet() == 0) {
+            gate.lock();
+            try {
+                noWritersWaiting.signalAll();
+            } finally {
+                gate.unlock();
+            }
+        }
+    }
+
+    private final class ReadLock implements Lock {
+
+        @Override
+        public void lock() {
+            if (readerMustWait()) {
+                gate.lock();
+                try {
+                    while (waitingWriters.get() > 0) {
+                        noWritersWaiting.awaitUninterruptibly();
+                    }
+                } finally {
+                    gate.unlock();
+                }
+            }
+            lock.readLock().lock();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (readerMustWait()) {
+                gate.lockInterruptibly();
+                try {
+                    while (waitingWriters.get() > 0) {
+                        noWritersWaiting.await();
+                    }
+                } finally {
+                    gate.unlock();
+                }
+            }
+            lock.readLock().lockInterruptibly();
+        }
+
+        @Override
+        public boolean tryLock() {
+            return !readerMustWait() && lock.readLock().tryLock();
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(time);
+            if (readerMustWait()) {
+                if (!gate.tryLock(time, unit)) {
+                    return false;
+                }
+                try {
+                    long remaining = deadline - System.nanoTime();
+                    while (waitingWriters.get() > 0) {
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        remaining = noWritersWaiting.awaitNanos(remaining);
+                    }
+                } finally {
+                    gate.unlock();
+                }
+            }
+            return lock.readLock().tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void unlock() {
+            lock.readLock().unlock();
+        }
+
+        /**
+         * Not supported.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported by WritePreferringReadWriteLock");
+        }
+
+    }
+
+    private final class WriteLock implements Lock {
+
+        @Override
+        public void lock() {
+            if (lock.writeLock().tryLock()) {
+                return;
+            }
+            waitingWriters.incrementAndGet();
+            try {
+                lock.writeLock().lock();
+            } finally {
+                stopWaitingForWrite();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (lock.writeLock().tryLock()) {
+                return;
+            }
+            waitingWriters.incrementAndGet();
+            try {
+                lock.writeLock().lockInterruptibly();
+            } finally {
+                stopWaitingForWrite();
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            return lock.writeLock().tryLock();
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (lock.writeLock().tryLock()) {
+                return true;
+            }
+            if (time <= 0) {
+                return false;
+            }
+            waitingWriters.incrementAndGet();
+            try {
+                return lock.writeLock().tryLock(time, unit);
+            } finally {
+                stopWaitingForWrite();
+            }
+        }
+
+        @Override
+        public void unlock() {
+            lock.writeLock().unlock();
+        }
+
+        /**
+         * Not supported.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported by WritePreferringReadWriteLock");
+        }
+
+    }
+
+}
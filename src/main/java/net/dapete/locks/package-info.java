@@ -19,12 +19,72 @@
  *             <td>{@link net.dapete.locks.Locks#reentrant() Locks.reentrant()}<br>
  *                 {@link net.dapete.locks.Locks#reentrant(Class)}<br>
  *                 {@link net.dapete.locks.Locks#reentrant(boolean)}<br>
- *                 {@link net.dapete.locks.Locks#reentrant(boolean, Class)}</td>
+ *                 {@link net.dapete.locks.Locks#reentrant(boolean, Class)}<br>
+ *                 {@link net.dapete.locks.Locks#reentrant(boolean, net.dapete.locks.CleanupStrategy)}<br>
+ *                 {@link net.dapete.locks.Locks#reentrant(boolean, net.dapete.locks.CleanupStrategy, net.dapete.locks.LockMetrics)}<br>
+ *                 {@link net.dapete.locks.Locks#forVirtualThreads() Locks.forVirtualThreads()}<br>
+ *                 {@link net.dapete.locks.Locks#forVirtualThreads(Class)}</td>
  *             <td>{@link net.dapete.locks.ReentrantLocks}</td>
  *         </tr>
  *         <tr>
+ *             <td>{@link net.dapete.locks.AdaptiveLock}, spinning before parking</td>
+ *             <td>{@link net.dapete.locks.Locks#adaptive() Locks.adaptive()}<br>
+ *                 {@link net.dapete.locks.Locks#adaptive(Class)}<br>
+ *                 {@link net.dapete.locks.Locks#adaptive(net.dapete.locks.CleanupStrategy)}</td>
+ *             <td>{@link net.dapete.locks.AdaptiveLocks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link net.dapete.locks.ElidingLock}, inflating only on contention</td>
+ *             <td>{@link net.dapete.locks.Locks#eliding() Locks.eliding()}<br>
+ *                 {@link net.dapete.locks.Locks#eliding(Class)}<br>
+ *                 {@link net.dapete.locks.Locks#eliding(net.dapete.locks.CleanupStrategy)}<br>
+ *                 {@link net.dapete.locks.Locks#elidingWithSupplier(java.util.function.Supplier)}</td>
+ *             <td>{@link net.dapete.locks.ElidingLocks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link net.dapete.locks.DistributedLock}, also held across processes</td>
+ *             <td>{@link net.dapete.locks.Locks#distributed(net.dapete.locks.LockBackend) Locks.distributed(LockBackend)}<br>
+ *                 {@link net.dapete.locks.Locks#distributed(net.dapete.locks.LockBackend, Class)}</td>
+ *             <td>{@link net.dapete.locks.DistributedLocks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link net.dapete.locks.DeadlockDetectingLock}, with deadlock detection</td>
+ *             <td>{@link net.dapete.locks.Locks#deadlockDetecting(net.dapete.locks.DeadlockDetector) Locks.deadlockDetecting(DeadlockDetector)}<br>
+ *                 {@link net.dapete.locks.Locks#deadlockDetecting(net.dapete.locks.DeadlockDetector, Class)}</td>
+ *             <td>{@link net.dapete.locks.DeadlockDetectingLocks}</td>
+ *         </tr>
+ *         <tr>
  *             <td>any implementation of {@link java.util.concurrent.locks.Lock Lock}</td>
- *             <td>{@link net.dapete.locks.Locks#withSupplier(java.util.function.Supplier) Locks.withSupplier(Supplier)}</td>
+ *             <td>{@link net.dapete.locks.Locks#withSupplier(java.util.function.Supplier) Locks.withSupplier(Supplier)}<br>
+ *                 {@link net.dapete.locks.Locks#withSupplier(java.util.function.Supplier, net.dapete.locks.CleanupStrategy)
+ *                 Locks.withSupplier(Supplier, CleanupStrategy)}<br>
+ *                 {@link net.dapete.locks.Locks#withSupplier(java.util.function.Supplier, net.dapete.locks.CleanupStrategy, net.dapete.locks.LockMetrics)
+ *                 Locks.withSupplier(Supplier, CleanupStrategy, LockMetrics)}</td>
+ *             <td>{@link net.dapete.locks.Locks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link java.util.concurrent.locks.ReentrantLock ReentrantLock}, reference counted</td>
+ *             <td>{@link net.dapete.locks.Locks#referenceCounted() Locks.referenceCounted()}<br>
+ *                 {@link net.dapete.locks.Locks#referenceCounted(Class)}<br>
+ *                 {@link net.dapete.locks.Locks#referenceCounted(net.dapete.locks.LockPool)}</td>
+ *             <td>{@link net.dapete.locks.ReferenceCountedLocks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>any implementation of {@link java.util.concurrent.locks.Lock Lock}, reference counted</td>
+ *             <td>{@link net.dapete.locks.Locks#referenceCountedWithSupplier(java.util.function.Supplier) Locks.referenceCountedWithSupplier(Supplier)}<br>
+ *                 {@link net.dapete.locks.Locks#referenceCountedWithSupplier(java.util.function.Supplier, net.dapete.locks.LockPool)
+ *                 Locks.referenceCountedWithSupplier(Supplier, LockPool)}</td>
+ *             <td>{@link net.dapete.locks.ReferenceCountedLocks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link java.util.concurrent.locks.ReentrantLock ReentrantLock}, shared between keys</td>
+ *             <td>{@link net.dapete.locks.Locks#striped(int) Locks.striped(int)}<br>
+ *                 {@link net.dapete.locks.Locks#striped(int, Class)}</td>
+ *             <td>{@link net.dapete.locks.Locks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>any implementation of {@link java.util.concurrent.locks.Lock Lock}, shared between keys</td>
+ *             <td>{@link net.dapete.locks.Locks#stripedWithSupplier(int, java.util.function.Supplier) Locks.stripedWithSupplier(int, Supplier)}</td>
  *             <td>{@link net.dapete.locks.Locks}</td>
  *         </tr>
  *         <tr>
@@ -32,14 +92,66 @@
  *             <td>{@link net.dapete.locks.ReadWriteLocks#reentrant()}<br>
  *                 {@link net.dapete.locks.ReadWriteLocks#reentrant(Class)}<br>
  *                 {@link net.dapete.locks.ReadWriteLocks#reentrant(boolean)}<br>
- *                 {@link net.dapete.locks.ReadWriteLocks#reentrant(boolean, Class)}</td>
+ *                 {@link net.dapete.locks.ReadWriteLocks#reentrant(boolean, Class)}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#reentrant(boolean, net.dapete.locks.CleanupStrategy)}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#reentrant(boolean, net.dapete.locks.CleanupStrategy, net.dapete.locks.LockMetrics)}</td>
  *             <td>{@link net.dapete.locks.ReentrantReadWriteLocks}</td>
  *         </tr>
  *         <tr>
+ *             <td>{@link net.dapete.locks.ReaderBiasedReadWriteLock}, with readers counted per processor</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks#readerBiased() ReadWriteLocks.readerBiased()}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#readerBiased(Class)}</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link net.dapete.locks.WritePreferringReadWriteLock}, not starving writers</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks#writePreferring() ReadWriteLocks.writePreferring()}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#writePreferring(Class)}</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks}</td>
+ *         </tr>
+ *         <tr>
  *             <td>any implementation of {@link java.util.concurrent.locks.ReadWriteLock ReadWriteLock}</td>
- *             <td>{@link net.dapete.locks.ReadWriteLocks#withSupplier(java.util.function.Supplier) ReadWriteLocks.withSupplier(Supplier)}</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks#withSupplier(java.util.function.Supplier) ReadWriteLocks.withSupplier(Supplier)}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#withSupplier(java.util.function.Supplier, net.dapete.locks.CleanupStrategy)
+ *                 ReadWriteLocks.withSupplier(Supplier, CleanupStrategy)}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#withSupplier(java.util.function.Supplier, net.dapete.locks.CleanupStrategy,
+ *                 net.dapete.locks.LockMetrics) ReadWriteLocks.withSupplier(Supplier, CleanupStrategy, LockMetrics)}</td>
  *             <td>{@link net.dapete.locks.ReadWriteLocks}</td>
  *         </tr>
+ *         <tr>
+ *             <td>{@link java.util.concurrent.locks.ReentrantReadWriteLock ReentrantReadWriteLock}, reference counted</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks#referenceCounted() ReadWriteLocks.referenceCounted()}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#referenceCounted(Class)}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#referenceCounted(net.dapete.locks.LockPool)}</td>
+ *             <td>{@link net.dapete.locks.ReferenceCountedReadWriteLocks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>any implementation of {@link java.util.concurrent.locks.ReadWriteLock ReadWriteLock}, reference counted</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks#referenceCountedWithSupplier(java.util.function.Supplier)
+ *                 ReadWriteLocks.referenceCountedWithSupplier(Supplier)}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#referenceCountedWithSupplier(java.util.function.Supplier, net.dapete.locks.LockPool)
+ *                 ReadWriteLocks.referenceCountedWithSupplier(Supplier, LockPool)}</td>
+ *             <td>{@link net.dapete.locks.ReferenceCountedReadWriteLocks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link java.util.concurrent.locks.ReentrantReadWriteLock ReentrantReadWriteLock}, shared between keys</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks#striped(int) ReadWriteLocks.striped(int)}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#striped(int, Class)}</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>any implementation of {@link java.util.concurrent.locks.ReadWriteLock ReadWriteLock}, shared between keys</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks#stripedWithSupplier(int, java.util.function.Supplier)
+ *                 ReadWriteLocks.stripedWithSupplier(int, Supplier)}</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks}</td>
+ *         </tr>
+ *         <tr>
+ *             <td>{@link java.util.concurrent.locks.StampedLock StampedLock}</td>
+ *             <td>{@link net.dapete.locks.ReadWriteLocks#stamped() ReadWriteLocks.stamped()}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#stamped(Class)}<br>
+ *                 {@link net.dapete.locks.ReadWriteLocks#stamped(net.dapete.locks.CleanupStrategy)}</td>
+ *             <td>{@link net.dapete.locks.StampedLocks}</td>
+ *         </tr>
  *     </tbody>
  * </table>
  * <ul>
@@ -66,6 +178,66 @@
  * Locks.withSupplier(SuperEpicLock::new)
  * }
  * </li>
+ * <li>
+ *     The {@link net.dapete.locks.CleanupStrategy} parameter determines which threads remove locks that are no longer used and how many per call. By default
+ *     this is done by the threads calling methods like {@code get} or {@code lock}. {@code Locks.forVirtualThreads()} returns an instance for use by many
+ *     virtual threads, which does this in a virtual thread on Java 21 and later.
+ * </li>
+ * <li>
+ *     The {@code referenceCounted()} and {@code referenceCountedWithSupplier(Supplier)} methods return instances which do not rely on the garbage collector.
+ *     Instead, they count the holders of each lock and remove it as soon as the last holder has released it. Every {@code lock}, {@code readLock},
+ *     {@code writeLock} or {@code get} call must be matched by the corresponding {@code unlock}, {@code unlockRead}, {@code unlockWrite} or {@code release}
+ *     call with the same key. The methods with a {@link net.dapete.locks.LockPool} parameter reuse removed locks for new keys instead of creating new ones,
+ *     which reduces allocations if keys come and go constantly.
+ * </li>
+ * <li>
+ *     The {@code striped(int)} and {@code stripedWithSupplier(int, Supplier)} methods return instances which use a fixed number of preallocated locks
+ *     (stripes). The lock for a key is selected using its hash code, so different keys may share the same lock. This trades some false contention between
+ *     keys for not allocating any objects when a lock is requested, which may be useful for a very large number of keys.
+ * </li>
+ * <li>
+ *     For primitive {@code long} and {@code int} keys like numeric IDs, {@link net.dapete.locks.LongLocks}, {@link net.dapete.locks.LongReadWriteLocks},
+ *     {@link net.dapete.locks.IntLocks} and {@link net.dapete.locks.IntReadWriteLocks} provide methods like {@code lock(long)} which do not box keys. Looking
+ *     up an existing lock does not allocate any objects.
+ * </li>
+ * <li>
+ *     The methods with a {@link net.dapete.locks.LockMetrics} parameter return instances which record metrics like the number of acquisitions, wait and
+ *     hold times, and optionally the most contended keys. Other instances do not record any metrics.
+ * </li>
+ * <li>
+ *     {@link net.dapete.locks.LocksManagement} registers {@link net.dapete.locks.ReentrantLocks} and {@link net.dapete.locks.ReentrantReadWriteLocks}
+ *     instances as JMX MBeans. Independently of this, waiting for a lock for longer than a threshold (20 ms by default) emits a
+ *     {@code net.dapete.locks.KeyLockWait} event while JDK Flight Recorder is recording.
+ * </li>
+ * <li>
+ *     The {@code stamped()} methods return {@link net.dapete.locks.StampedLocks} instances, whose methods return a {@link net.dapete.locks.LockStamp} instead
+ *     of a lock. Besides read and write stamps, they support optimistic reads, which do not write to shared memory, so readers of frequently used keys do
+ *     not contend with each other.
+ * </li>
+ * <li>
+ *     {@link net.dapete.locks.AsyncLocks} does not block threads at all. Its {@code lock} method returns a
+ *     {@link java.util.concurrent.CompletableFuture CompletableFuture} which is completed with a {@link net.dapete.locks.Permit} once the key is free, with
+ *     callers waiting in a FIFO queue per key. This is intended for event loops and other code which must not block.
+ * </li>
+ * <li>
+ *     {@link net.dapete.locks.KeyedExecutor} runs tasks on an {@link java.util.concurrent.Executor Executor}, sequentially per key and in parallel for
+ *     different keys, using a queue of tasks per key instead of locks. No thread is blocked waiting for a task with the same key to complete.
+ * </li>
+ * <li>
+ *     {@link net.dapete.locks.DistributedLocks} serializes keys across several processes using a {@link net.dapete.locks.LockBackend}. Threads of the same JVM
+ *     wait for each other locally, so only one of them at a time acquires a key from the backend. {@link net.dapete.locks.FileLockBackend} locks regions of a
+ *     shared file for processes on the same host; other backends, for example using a network service, can implement the same interface.
+ * </li>
+ * <li>
+ *     {@link net.dapete.locks.HierarchicalLocks} locks nodes of a tree like file paths, taking intention locks on all ancestors of a node before locking the
+ *     node itself. Reading a node excludes writers in its whole subtree, writing a node excludes its whole subtree, and disjoint subtrees can be locked in
+ *     parallel.
+ * </li>
+ * <li>
+ *     {@link net.dapete.locks.DeadlockDetectingLocks} record which thread holds each key. Once a thread has waited for a key for longer than the threshold of
+ *     its {@link net.dapete.locks.DeadlockDetector}, it looks for a cycle of threads waiting for each other, which is reported with the keys and threads
+ *     involved, or broken by throwing a {@link net.dapete.locks.DeadlockException} in one of the threads.
+ * </li>
  * </ul>
  * <h2 id="examples-heading">
  *     Examples
@@ -103,6 +275,24 @@
  * lock.lock();
  * }
  * <p>
+ *     Alternatively, {@link net.dapete.locks.Locks#acquire(Object) acquire(key)} returns a {@link net.dapete.locks.LockHandle} which unlocks the lock when
+ *     it is closed. It also keeps the lock referenced until then, so it can be used with {@code try}-with-resources:
+ * </p>
+ * {@snippet :
+ * try (var handle = locks.acquire(url)) {
+ *     // do something with the URL
+ * }
+ * }
+ * <p>
+ *     To lock several keys at once, e.g. for a transfer between two accounts, use {@link net.dapete.locks.Locks#lockAll(java.util.Collection) lockAll(keys)}.
+ *     It locks all locks in a consistent global order, so threads locking overlapping sets of keys cannot deadlock each other:
+ * </p>
+ * {@snippet :
+ * try (var handle = locks.lockAll(List.of(fromAccount, toAccount))) {
+ *     // transfer between the accounts
+ * }
+ * }
+ * <p>
  *     For {@link net.dapete.locks.ReadWriteLocks} it is similar to the first example:
  * </p>
  * {@snippet :
@@ -131,7 +321,35 @@
  * }
  * }
  * <p>
- *     Again the {@code final var lock = …} lines could be split, which may be useful if both read and write locks are used in the method.
+ *     Again the {@code final var lock = …} lines could be split, which may be useful if both read and write locks are used in the method. The equivalents of
+ *     {@code acquire(key)} are {@link net.dapete.locks.ReadWriteLocks#acquireRead(Object) acquireRead(key)} and
+ *     {@link net.dapete.locks.ReadWriteLocks#acquireWrite(Object) acquireWrite(key)}.
  * </p>
+ * <p>
+ *     The methods of {@link net.dapete.locks.StampedLocks} return a {@link net.dapete.locks.LockStamp}, which is unlocked when it is closed. Reads can also
+ *     be optimistic:
+ * </p>
+ * {@snippet :
+ * public class StampedLocksExample {
+ *
+ *     private final StampedLocks<String> locks = ReadWriteLocks.stamped();
+ *
+ *     private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+ *
+ *     public long read(String name) {
+ *         final var counter = counters.computeIfAbsent(name, n -> new Counter());
+ *         // called again with the read lock held if there was a write in the meantime
+ *         return locks.optimisticRead(name, () -> counter.value);
+ *     }
+ *
+ *     public void increment(String name) {
+ *         final var counter = counters.computeIfAbsent(name, n -> new Counter());
+ *         try (var stamp = locks.writeLock(name)) {
+ *             counter.value++;
+ *         }
+ *     }
+ *
+ * }
+ * }
  */
 package net.dapete.locks;
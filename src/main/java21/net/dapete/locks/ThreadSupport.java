@@ -0,0 +1,35 @@
+package net.dapete.locks;
+
+/**
+ * Starts the threads used internally by this library.
+ * <p>
+ * This is the version for Java 21 and later, which supports virtual threads.
+ */
+final class ThreadSupport {
+
+    private ThreadSupport() {
+    }
+
+    /**
+     * Starts a daemon platform thread.
+     *
+     * @param name     name of the thread
+     * @param runnable code to run
+     * @return started thread
+     */
+    static Thread startDaemonThread(String name, Runnable runnable) {
+        return Thread.ofPlatform().name(name).daemon(true).start(runnable);
+    }
+
+    /**
+     * Starts a virtual thread. Virtual threads are always daemon threads.
+     *
+     * @param name     name of the thread
+     * @param runnable code to run
+     * @return started thread
+     */
+    static Thread startVirtualThreadIfSupported(String name, Runnable runnable) {
+        return Thread.ofVirtual().name(name).start(runnable);
+    }
+
+}
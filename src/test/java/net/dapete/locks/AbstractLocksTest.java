@@ -1,32 +1,22 @@
 package net.dapete.locks;
 
-import org.jspecify.annotations.NonNull;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 
 class AbstractLocksTest {
 
-    private static class TestAbstractLocks extends AbstractLocks<@NonNull Integer, @NonNull ReentrantLock> {
-
-        private TestAbstractLocks() {
-            super(ReentrantLock::new);
-        }
-
-        private void clearLockReference(Integer key) {
-            final var lockReference = getLockReference(key);
-            if (lockReference != null) {
-                lockReference.clear();
-            }
-        }
-
-    }
-
     @Test
     void testLocksAreReleasedWhenUnused() {
         final var locks = new TestAbstractLocks();
@@ -43,6 +33,29 @@ class AbstractLocksTest {
         await().atMost(30, TimeUnit.SECONDS).until(() -> locks.size() == 0);
     }
 
+    static Stream<CleanupStrategy> cleanupStrategies() {
+        return Stream.of(CleanupStrategy.callingThread(), CleanupStrategy.callingThread(1), CleanupStrategy.daemonThread(), CleanupStrategy.virtualThread(),
+                CleanupStrategy.cleaner());
+    }
+
+    @ParameterizedTest
+    @MethodSource("cleanupStrategies")
+    void testLocksAreReleasedWhenUnusedWithCleanupStrategy(CleanupStrategy cleanupStrategy) {
+        final var locks = new TestAbstractLocks(cleanupStrategy);
+
+        for (int i = 0; i < 10; i++) {
+            locks.get(i);
+        }
+
+        System.gc();
+        await().atMost(30, TimeUnit.SECONDS).until(() -> locks.size() == 0);
+    }
+
+    @Test
+    void callingThread_invalidMaxReferencesPerCall() {
+        assertThrows(IllegalArgumentException.class, () -> CleanupStrategy.callingThread(0));
+    }
+
     @Test
     void get_createNewLockIfLockReferenceIsNull() {
         final var locks = new TestAbstractLocks();
@@ -72,6 +85,25 @@ class AbstractLocksTest {
         assertSame(locks.get(1), locks.get(1));
     }
 
+    @Test
+    void get_identicalForIdenticalKeyFromDifferentThreads() throws Exception {
+        final var locks = new TestAbstractLocks();
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            final var futures = new ArrayList<Future<ReentrantLock>>();
+            for (int i = 0; i < 1000; i++) {
+                futures.add(executorService.submit(() -> locks.get(1)));
+            }
+            final var lock = locks.get(1);
+            for (final var future : futures) {
+                assertSame(lock, future.get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     void size() {
         final var locks = new TestAbstractLocks();
@@ -103,4 +135,28 @@ class AbstractLocksTest {
         await().atMost(30, TimeUnit.SECONDS).until(() -> locks.size() == 0);
     }
 
+    @Test
+    void stats() {
+        final var locks = new TestAbstractLocks();
+
+        final var lock1 = locks.get(1);
+        final var lock2 = locks.get(2);
+        locks.clearLockReference(2);
+
+        final var stats = locks.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getLiveLocks());
+        assertEquals(1, stats.getPendingRemovals());
+        assertEquals(2, stats.getCreations());
+
+        // creating a new lock for a cleared reference counts as a creation, but does not change the size
+        assertNotSame(lock2, locks.get(2));
+        assertEquals(2, locks.stats().getLiveLocks());
+        assertEquals(3, locks.stats().getCreations());
+        assertSame(lock1, locks.get(1));
+        assertEquals(3, locks.stats().getCreations());
+
+        assertEquals(4, Locks.striped(4).stats().getLiveLocks());
+    }
+
 }
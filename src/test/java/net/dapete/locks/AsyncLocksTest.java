@@ -0,0 +1,111 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLocksTest {
+
+    @Test
+    void lock() {
+        final var locks = AsyncLocks.create(String.class);
+
+        final var first = locks.lock("key");
+        assertTrue(first.isDone());
+        final var second = locks.lock("key");
+        final var third = locks.lock("key");
+        assertFalse(second.isDone());
+        assertTrue(locks.tryLock("key").isEmpty());
+        assertTrue(locks.lock("other").isDone());
+
+        first.join().release();
+        assertTrue(second.isDone());
+        assertFalse(third.isDone());
+
+        // releasing a permit twice has no effect
+        first.join().release();
+        assertFalse(third.isDone());
+
+        second.join().close();
+        assertTrue(third.isDone());
+        third.join().close();
+
+        locks.tryLock("key").orElseThrow().close();
+    }
+
+    @Test
+    void cancelledWaiterIsSkipped() {
+        final var locks = AsyncLocks.<String>create();
+
+        final var first = locks.lock("key").join();
+        final var cancelled = locks.lock("key");
+        final var next = locks.lock("key");
+        final var lock = first.getLock();
+        assertEquals(2, lock.getQueueLength());
+        cancelled.cancel(false);
+        assertEquals(1, lock.getQueueLength());
+
+        first.release();
+        assertTrue(next.isDone());
+        assertTrue(locks.tryLock("key").isEmpty());
+        next.join().release();
+        assertTrue(locks.tryLock("key").isPresent());
+    }
+
+    @Test
+    void withLockSerializesPerKey() throws Exception {
+        final var locks = AsyncLocks.create(CleanupStrategy.callingThread());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final var active = new AtomicInteger();
+            final var maxActive = new AtomicInteger();
+            final var futures = new ArrayList<CompletableFuture<Integer>>();
+            for (int i = 0; i < 10_000; i++) {
+                final int value = i;
+                futures.add(locks.withLock("key", () -> CompletableFuture.supplyAsync(() -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    active.decrementAndGet();
+                    return value;
+                }, executor)));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+            assertEquals(1, maxActive.get());
+            assertEquals(9_999, futures.get(9_999).join());
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(locks.tryLock("key").isPresent());
+    }
+
+    @Test
+    void synchronousReleaseDoesNotRecurse() {
+        final var locks = AsyncLocks.<String>create();
+
+        final var first = locks.lock("key").join();
+        final var futures = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < 100_000; i++) {
+            futures.add(locks.lock("key").thenAccept(Permit::release));
+        }
+        first.release();
+        futures.forEach(future -> assertTrue(future.isDone()));
+    }
+
+    @Test
+    void withLockReleasesOnException() {
+        final var locks = AsyncLocks.<String>create();
+
+        final var future = locks.withLock("key", () -> {
+            throw new IllegalStateException("test");
+        });
+        assertTrue(future.isCompletedExceptionally());
+        assertTrue(locks.tryLock("key").isPresent());
+    }
+
+}
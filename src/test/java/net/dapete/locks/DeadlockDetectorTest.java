@@ -0,0 +1,129 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlockDetectorTest {
+
+    private static final Duration THRESHOLD = Duration.ofMillis(50);
+
+    @Test
+    void invalidThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> DeadlockDetector.breakingCycles(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> DeadlockDetector.reporting(Duration.ofMillis(-1), deadlock -> {
+        }));
+    }
+
+    @Test
+    void lock() {
+        final var locks = Locks.deadlockDetecting(DeadlockDetector.breakingCycles(THRESHOLD), Integer.class);
+
+        final var lock = locks.lock(1);
+        try {
+            assertEquals(1, lock.getKey());
+            assertTrue(lock.isHeldByCurrentThread());
+            assertSame(Thread.currentThread(), lock.getOwner());
+            assertTrue(lock.tryLock());
+            lock.unlock();
+            assertSame(Thread.currentThread(), lock.getOwner());
+        } finally {
+            lock.unlock();
+        }
+        assertNull(lock.getOwner());
+        assertThrows(IllegalMonitorStateException.class, lock::unlock);
+    }
+
+    @Test
+    void breakingCycles() throws Exception {
+        final var locks = Locks.deadlockDetecting(DeadlockDetector.breakingCycles(THRESHOLD), Integer.class);
+
+        final var results = lockInOppositeOrder(locks);
+
+        // exactly one thread fails, the other one gets both locks
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (final var result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        assertEquals(1, failures.size());
+        final var deadlock = assertInstanceOf(DeadlockException.class, failures.get(0));
+        assertEquals(2, deadlock.getThreads().size());
+        assertTrue(deadlock.getKeys().containsAll(List.of(1, 2)));
+        assertFalse(locks.get(1).isLocked());
+        assertFalse(locks.get(2).isLocked());
+    }
+
+    @Test
+    void reporting() throws Exception {
+        final List<DeadlockException> deadlocks = new CopyOnWriteArrayList<>();
+        final var locks = Locks.deadlockDetecting(DeadlockDetector.reporting(THRESHOLD, deadlocks::add), Integer.class);
+
+        final var lock1 = locks.get(1);
+        final var lock2 = locks.get(2);
+        final var results = lockInOppositeOrder(locks);
+
+        // each thread reports the cycle once
+        await().atMost(10, TimeUnit.SECONDS).until(() -> deadlocks.size() == 2);
+        for (final var deadlock : deadlocks) {
+            assertEquals(2, deadlock.getThreads().size());
+            assertTrue(String.valueOf(deadlock.getMessage()).startsWith("Deadlock between 2 threads:"));
+        }
+        assertTrue(lock1.isLocked());
+        assertTrue(lock2.isLocked());
+
+        for (final var result : results) {
+            result.cancel(true);
+        }
+    }
+
+    /**
+     * Let two threads lock keys 1 and 2 in opposite order, so they deadlock once both hold their first key.
+     */
+    private static List<CompletableFuture<Void>> lockInOppositeOrder(DeadlockDetectingLocks<Integer> locks) {
+        final var bothLocked = new CountDownLatch(2);
+        final var threads = List.of(new int[]{1, 2}, new int[]{2, 1});
+        final List<CompletableFuture<Void>> results = new CopyOnWriteArrayList<>();
+        for (final int[] keys : threads) {
+            final var result = new CompletableFuture<Void>();
+            final var thread = new Thread(() -> {
+                try {
+                    final var first = locks.lockInterruptibly(keys[0]);
+                    try {
+                        bothLocked.countDown();
+                        bothLocked.await();
+                        locks.lockInterruptibly(keys[1]).unlock();
+                    } finally {
+                        first.unlock();
+                    }
+                    result.complete(null);
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            results.add(result);
+            // allow cancelling the second lock in tests which do not break the cycle
+            result.whenComplete((unused, e) -> {
+                if (result.isCancelled()) {
+                    thread.interrupt();
+                }
+            });
+        }
+        return results;
+    }
+
+}
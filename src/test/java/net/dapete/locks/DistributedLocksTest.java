@@ -0,0 +1,299 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributedLocksTest {
+
+    /**
+     * Backend which checks that it is never called concurrently for the same key.
+     */
+    private static final class TestBackend implements LockBackend<String> {
+
+        private final AtomicInteger acquisitions = new AtomicInteger();
+
+        private final AtomicInteger holders = new AtomicInteger();
+
+        @Override
+        public void acquire(String key) {
+            assertEquals(1, holders.incrementAndGet());
+            acquisitions.incrementAndGet();
+        }
+
+        @Override
+        public boolean tryAcquire(String key, long timeout, TimeUnit unit) {
+            acquire(key);
+            return true;
+        }
+
+        @Override
+        public void release(String key) {
+            assertEquals(0, holders.decrementAndGet());
+        }
+
+    }
+
+    @Test
+    void localThreadsCoalesce() throws Exception {
+        final var backend = new TestBackend();
+        final var locks = Locks.distributed(backend, String.class);
+
+        final var lock = locks.lock("key");
+        try {
+            // reentrant locking does not acquire the key from the backend again
+            assertSame(lock, locks.lock("key"));
+            lock.unlock();
+            assertEquals(1, backend.acquisitions.get());
+            assertTrue(lock.isHeldByCurrentThread());
+            assertFalse(CompletableFuture.supplyAsync(() -> locks.tryLock("key").isPresent()).get(10, TimeUnit.SECONDS));
+        } finally {
+            lock.unlock();
+        }
+        assertEquals(0, backend.holders.get());
+
+        final var threads = 8;
+        final var futures = new CompletableFuture<?>[threads];
+        for (int i = 0; i < threads; i++) {
+            futures[i] = CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    locks.lock("key").unlock();
+                }
+            });
+        }
+        CompletableFuture.allOf(futures).get(30, TimeUnit.SECONDS);
+        assertEquals(1 + threads * 1000, backend.acquisitions.get());
+
+        assertThrows(IllegalMonitorStateException.class, () -> locks.get("key").unlock());
+        assertThrows(UnsupportedOperationException.class, () -> locks.get("key").newCondition());
+    }
+
+    /**
+     * Backend which records the order in which keys are acquired, using an explicit order of keys.
+     */
+    private static final class OrderedTestBackend implements LockBackend<String> {
+
+        private final List<String> order;
+
+        private final List<String> acquired = new ArrayList<>();
+
+        private OrderedTestBackend(List<String> order) {
+            this.order = order;
+        }
+
+        @Override
+        public synchronized void acquire(String key) {
+            acquired.add(key);
+        }
+
+        @Override
+        public boolean tryAcquire(String key, long timeout, TimeUnit unit) {
+            acquire(key);
+            return true;
+        }
+
+        @Override
+        public void release(String key) {
+        }
+
+        @Override
+        public int orderOf(String key) {
+            return order.indexOf(key);
+        }
+
+    }
+
+    @Test
+    void lockAllUsesOrderOfBackend() throws Exception {
+        final var backend = new OrderedTestBackend(List.of("c", "a", "b"));
+        final var locks = Locks.distributed(backend, String.class);
+
+        locks.lockAll(List.of("a", "b", "c")).close();
+        locks.lockAll(List.of("b", "c", "a")).close();
+        locks.tryLockAll(List.of("a", "c", "b"), 1, TimeUnit.SECONDS).orElseThrow().close();
+        assertEquals(List.of("c", "a", "b", "c", "a", "b", "c", "a", "b"), backend.acquired);
+    }
+
+    @Test
+    void lockAllWithReversedKeyOrder(@TempDir Path tempDir) throws Exception {
+        try (final var backend = FileLockBackend.open(tempDir.resolve("locks"), 16)) {
+            final var locks = Locks.distributed(backend, String.class);
+            final var keys = List.of("key1", "key2", "key3");
+            final var reversedKeys = List.of("key3", "key2", "key1");
+
+            final ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                final var futures = new ArrayList<CompletableFuture<?>>();
+                for (int i = 0; i < 8; i++) {
+                    final var threadKeys = i % 2 == 0 ? keys : reversedKeys;
+                    futures.add(CompletableFuture.runAsync(() -> {
+                        for (int j = 0; j < 1000; j++) {
+                            locks.lockAll(threadKeys).close();
+                        }
+                    }, executor));
+                }
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+            } finally {
+                executor.shutdown();
+            }
+            for (final var key : keys) {
+                assertFalse(locks.get(key).isLocked());
+            }
+        }
+    }
+
+    @Test
+    void lockAllWithKeysSharingSlot(@TempDir Path tempDir) throws Exception {
+        // with a single slot, all keys share it
+        try (final var backend = FileLockBackend.open(tempDir.resolve("locks"), 1)) {
+            final var locks = Locks.distributed(backend, String.class);
+
+            try (final var handle = locks.lockAll(List.of("a", "b"))) {
+                assertTrue(handle.getLock("a").isHeldByCurrentThread());
+                assertTrue(handle.getLock("b").isHeldByCurrentThread());
+                assertFalse(CompletableFuture.supplyAsync(() -> locks.tryLock("c").isPresent()).get(10, TimeUnit.SECONDS));
+            }
+            assertTrue(CompletableFuture.supplyAsync(() -> {
+                final var lock = locks.tryLock("c");
+                lock.ifPresent(DistributedLock::unlock);
+                return lock.isPresent();
+            }).get(10, TimeUnit.SECONDS));
+
+            /*
+             * A thread locking both keys must not hold the slot while waiting for the local lock of the second key: here, it waits for the slot, then another
+             * thread locks "b" locally and waits for the slot as well, and the first thread gets the slot once "c" is unlocked.
+             */
+            final var lockC = locks.lock("c");
+            final var lockingAll = new Thread(() -> locks.lockAll(List.of("a", "b")).close());
+            final var lockingB = new Thread(() -> locks.lock("b").unlock());
+            // daemon threads, so a deadlock does not keep the JVM running
+            lockingAll.setDaemon(true);
+            lockingB.setDaemon(true);
+            try {
+                lockingAll.start();
+                await().atMost(10, TimeUnit.SECONDS).until(() -> lockingAll.getState() == Thread.State.WAITING);
+                lockingB.start();
+                await().atMost(10, TimeUnit.SECONDS).until(() -> lockingB.getState() == Thread.State.WAITING);
+            } finally {
+                lockC.unlock();
+            }
+            lockingAll.join(TimeUnit.SECONDS.toMillis(10));
+            lockingB.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse(lockingAll.isAlive());
+            assertFalse(lockingB.isAlive());
+
+            // threads locking single keys must not deadlock with threads locking both keys, although the keys share the lock of the slot
+            final ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                final var futures = new ArrayList<CompletableFuture<?>>();
+                for (int i = 0; i < 8; i++) {
+                    final int thread = i;
+                    futures.add(CompletableFuture.runAsync(() -> {
+                        for (int j = 0; j < 1000; j++) {
+                            switch (thread % 4) {
+                                case 0:
+                                    locks.lockAll(List.of("a", "b")).close();
+                                    break;
+                                case 1:
+                                    locks.lockAll(List.of("b", "a")).close();
+                                    break;
+                                case 2:
+                                    locks.lock("a").unlock();
+                                    break;
+                                default:
+                                    locks.lock("b").unlock();
+                                    break;
+                            }
+                        }
+                    }, executor));
+                }
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+            } finally {
+                executor.shutdown();
+            }
+
+            // a failed attempt does not keep any locks
+            final ExecutorService holder = Executors.newSingleThreadExecutor();
+            try {
+                final var lockB = CompletableFuture.supplyAsync(() -> locks.lock("b"), holder).get(10, TimeUnit.SECONDS);
+                assertTrue(locks.tryLockAll(List.of("a", "b"), 100, TimeUnit.MILLISECONDS).isEmpty());
+                assertFalse(locks.get("a").isLocked());
+                assertTrue(lockB.isLocked());
+                CompletableFuture.runAsync(lockB::unlock, holder).get(10, TimeUnit.SECONDS);
+            } finally {
+                holder.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void fileLockBackendAcrossProcesses(@TempDir Path tempDir) throws Exception {
+        final var lockFile = tempDir.resolve("locks");
+        final int slots = 16;
+        try (final var backend = FileLockBackend.open(lockFile, slots)) {
+            final var locks = Locks.distributed(backend, String.class);
+            final int slot = backend.slotOf("key");
+
+            // another process holds the region for the key until it reads a line from its standard input
+            final var source = tempDir.resolve("HoldLock.java");
+            Files.writeString(source, String.join("\n",
+                    "import java.nio.channels.FileChannel;",
+                    "import java.nio.file.Path;",
+                    "import java.nio.file.StandardOpenOption;",
+                    "public class HoldLock {",
+                    "    public static void main(String[] args) throws Exception {",
+                    "        try (var channel = FileChannel.open(Path.of(args[0]), StandardOpenOption.READ, StandardOpenOption.WRITE);",
+                    "             var lock = channel.lock(Long.parseLong(args[1]), 1, false)) {",
+                    "            System.out.println(\"locked\");",
+                    "            System.in.read();",
+                    "        }",
+                    "    }",
+                    "}"));
+            final var java = ProcessHandle.current().info().command().orElse("java");
+            final var process = new ProcessBuilder(java, source.toString(), lockFile.toString(), Integer.toString(slot)).start();
+            try (final var output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                assertEquals("locked", output.readLine());
+
+                assertTrue(locks.tryLock("key").isEmpty());
+                assertTrue(locks.tryLock("key", 100, TimeUnit.MILLISECONDS).isEmpty());
+                // the local lock is not kept if acquiring the key fails
+                assertFalse(locks.get("key").isLocked());
+
+                final var waiting = CompletableFuture.supplyAsync(() -> {
+                    final var lock = locks.lock("key");
+                    lock.unlock();
+                    return true;
+                });
+                process.getOutputStream().write('\n');
+                process.getOutputStream().flush();
+                assertTrue(waiting.get(30, TimeUnit.SECONDS));
+            } finally {
+                process.destroy();
+                process.waitFor(30, TimeUnit.SECONDS);
+            }
+
+            final var lock = locks.lock("key");
+            try {
+                assertTrue(lock.isHeldByCurrentThread());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+}
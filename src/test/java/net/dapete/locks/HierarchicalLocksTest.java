@@ -0,0 +1,147 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalLocksTest {
+
+    @Test
+    void pathAncestors() {
+        assertEquals(List.of("", "/a"), HierarchicalLocks.pathAncestors("/a/b", '/'));
+        assertEquals(List.of("a"), HierarchicalLocks.pathAncestors("a/b", '/'));
+        assertEquals(List.of("", "/a"), HierarchicalLocks.pathAncestors("/a/b/", '/'));
+        assertEquals(List.of(), HierarchicalLocks.pathAncestors("a", '/'));
+        assertEquals(List.of(), HierarchicalLocks.pathAncestors("/", '/'));
+    }
+
+    @Test
+    void writeLock() throws Exception {
+        final var locks = HierarchicalLocks.forPaths('/');
+
+        final var handle = locks.writeLock("/a/b");
+        final CompletableFuture<Boolean> ancestorRead;
+        final CompletableFuture<Boolean> ancestorWrite;
+        final CompletableFuture<Boolean> node;
+        final CompletableFuture<Boolean> descendant;
+        try {
+            assertEquals(List.of("", "/a", "/a/b"), List.copyOf(handle.getLocks().keySet()));
+            assertTrue(handle.getLock("/a/b").isWriteLockedByCurrentThread());
+            assertEquals(1, handle.getLock("/a").getReadHoldCount());
+
+            // disjoint subtree
+            assertTrue(lockInOtherThread(locks, "/a/c", true).get(10, TimeUnit.SECONDS));
+            assertTrue(lockInOtherThread(locks, "/a/c", false).get(10, TimeUnit.SECONDS));
+
+            // ancestors, node and descendants can neither be read nor written
+            ancestorRead = lockInOtherThread(locks, "/a", false);
+            ancestorWrite = lockInOtherThread(locks, "/a", true);
+            node = lockInOtherThread(locks, "/a/b", false);
+            descendant = lockInOtherThread(locks, "/a/b/c", false);
+            assertThrows(TimeoutException.class, () -> ancestorRead.get(100, TimeUnit.MILLISECONDS));
+            assertThrows(TimeoutException.class, () -> ancestorWrite.get(100, TimeUnit.MILLISECONDS));
+            assertThrows(TimeoutException.class, () -> node.get(100, TimeUnit.MILLISECONDS));
+            assertThrows(TimeoutException.class, () -> descendant.get(100, TimeUnit.MILLISECONDS));
+        } finally {
+            handle.close();
+        }
+        assertTrue(ancestorRead.get(10, TimeUnit.SECONDS));
+        assertTrue(ancestorWrite.get(10, TimeUnit.SECONDS));
+        assertTrue(node.get(10, TimeUnit.SECONDS));
+        assertTrue(descendant.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void readLock() throws Exception {
+        final var locks = HierarchicalLocks.forPaths('/');
+
+        final var handle = locks.readLock("/a/b");
+        final CompletableFuture<Boolean> nodeWrite;
+        final CompletableFuture<Boolean> descendantWrite;
+        try {
+            assertEquals(1, handle.getLock("/a/b").getReadHoldCount());
+
+            // node and descendants can be read, ancestors can be read and the disjoint subtree can be written
+            assertTrue(lockInOtherThread(locks, "/a/b", false).get(10, TimeUnit.SECONDS));
+            assertTrue(lockInOtherThread(locks, "/a/b/c", false).get(10, TimeUnit.SECONDS));
+            assertTrue(lockInOtherThread(locks, "/a", false).get(10, TimeUnit.SECONDS));
+            assertTrue(lockInOtherThread(locks, "/a/c", true).get(10, TimeUnit.SECONDS));
+
+            // node and descendants cannot be written
+            nodeWrite = lockInOtherThread(locks, "/a/b", true);
+            descendantWrite = lockInOtherThread(locks, "/a/b/c", true);
+            assertThrows(TimeoutException.class, () -> nodeWrite.get(100, TimeUnit.MILLISECONDS));
+            assertThrows(TimeoutException.class, () -> descendantWrite.get(100, TimeUnit.MILLISECONDS));
+        } finally {
+            handle.close();
+        }
+        assertTrue(nodeWrite.get(10, TimeUnit.SECONDS));
+        assertTrue(descendantWrite.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void readLockOnAncestorBlocksWriteLockOnDescendant() throws Exception {
+        final var locks = HierarchicalLocks.forPaths('/');
+
+        final var handle = locks.readLock("/a");
+        final CompletableFuture<Boolean> descendant;
+        try {
+            descendant = lockInOtherThread(locks, "/a/b", true);
+            assertThrows(TimeoutException.class, () -> descendant.get(100, TimeUnit.MILLISECONDS));
+        } finally {
+            handle.close();
+        }
+        assertTrue(descendant.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void writeLockOnDescendantBlocksReadLockOnAncestor() throws Exception {
+        final var locks = HierarchicalLocks.forPaths('/');
+
+        final var handle = locks.writeLock("/a/b");
+        final CompletableFuture<Boolean> ancestor;
+        try {
+            ancestor = lockInOtherThread(locks, "/a", false);
+            assertThrows(TimeoutException.class, () -> ancestor.get(100, TimeUnit.MILLISECONDS));
+            // intention locks of concurrent writers in disjoint subtrees are compatible
+            assertTrue(lockInOtherThread(locks, "/a/c", true).get(10, TimeUnit.SECONDS));
+        } finally {
+            handle.close();
+        }
+        assertTrue(ancestor.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void intentionLock() {
+        final var intentionLock = new IntentionLock();
+
+        intentionLock.intentionExclusiveLock().lock();
+        assertTrue(intentionLock.intentionExclusiveLock().tryLock());
+        assertFalse(intentionLock.sharedLock().tryLock());
+        assertEquals(2, intentionLock.getHolds());
+        intentionLock.intentionExclusiveLock().unlock();
+        intentionLock.intentionExclusiveLock().unlock();
+
+        assertTrue(intentionLock.sharedLock().tryLock());
+        assertFalse(intentionLock.intentionExclusiveLock().tryLock());
+        assertEquals(-1, intentionLock.getHolds());
+        assertThrows(IllegalMonitorStateException.class, () -> intentionLock.intentionExclusiveLock().unlock());
+        intentionLock.sharedLock().unlock();
+        assertEquals(0, intentionLock.getHolds());
+        assertThrows(IllegalMonitorStateException.class, () -> intentionLock.sharedLock().unlock());
+    }
+
+    private static CompletableFuture<Boolean> lockInOtherThread(HierarchicalLocks<String, ?> locks, String path, boolean write) {
+        return CompletableFuture.supplyAsync(() -> {
+            final var handle = write ? locks.writeLock(path) : locks.readLock(path);
+            handle.close();
+            return true;
+        });
+    }
+
+}
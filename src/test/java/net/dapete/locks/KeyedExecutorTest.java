@@ -0,0 +1,101 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedExecutorTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 16})
+    void sequentialPerKey(int maxBatchSize) throws Exception {
+        final var threadPool = Executors.newFixedThreadPool(8);
+        try {
+            final var executor = KeyedExecutor.<Integer>create(threadPool, maxBatchSize);
+            final var keys = 4;
+            final var active = new ArrayList<AtomicInteger>();
+            final var results = new ArrayList<List<Integer>>();
+            for (int key = 0; key < keys; key++) {
+                active.add(new AtomicInteger());
+                results.add(new ArrayList<>());
+            }
+            final var maxActive = new AtomicInteger();
+            final var futures = new ArrayList<CompletableFuture<?>>();
+            for (int i = 0; i < 10_000; i++) {
+                final int key = i % keys;
+                final int value = i;
+                futures.add(executor.submit(key, () -> {
+                    maxActive.accumulateAndGet(active.get(key).incrementAndGet(), Math::max);
+                    // not thread-safe, so this also checks for visibility between tasks
+                    results.get(key).add(value);
+                    active.get(key).decrementAndGet();
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+            assertEquals(1, maxActive.get());
+            for (int key = 0; key < keys; key++) {
+                final var keyResults = results.get(key);
+                assertEquals(10_000 / keys, keyResults.size());
+                for (int i = 0; i < keyResults.size(); i++) {
+                    assertEquals(i * keys + key, keyResults.get(i));
+                }
+            }
+        } finally {
+            threadPool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelForDifferentKeys() throws Exception {
+        final var threadPool = Executors.newFixedThreadPool(2);
+        try {
+            final var executor = KeyedExecutor.<String>create(threadPool);
+            final var latch = new CountDownLatch(2);
+            final var first = executor.submit("a", () -> {
+                latch.countDown();
+                return latch.await(10, TimeUnit.SECONDS);
+            });
+            final var second = executor.submit("b", () -> {
+                latch.countDown();
+                return latch.await(10, TimeUnit.SECONDS);
+            });
+            assertTrue(first.get(10, TimeUnit.SECONDS));
+            assertTrue(second.get(10, TimeUnit.SECONDS));
+        } finally {
+            threadPool.shutdown();
+        }
+    }
+
+    @Test
+    void exceptionsAndRejection() throws Exception {
+        final var threadPool = Executors.newSingleThreadExecutor();
+        final var executor = KeyedExecutor.<String>create(threadPool);
+
+        final var failed = executor.<String>submit("key", () -> {
+            throw new IllegalStateException("test");
+        });
+        final var next = executor.submit("key", () -> "next");
+        final var exception = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals("next", next.get(10, TimeUnit.SECONDS));
+
+        threadPool.shutdown();
+        final var rejected = executor.submit("key", () -> "rejected");
+        assertInstanceOf(RejectedExecutionException.class, assertThrows(ExecutionException.class, rejected::get).getCause());
+
+        assertThrows(IllegalArgumentException.class, () -> KeyedExecutor.create(threadPool, 0));
+    }
+
+}
@@ -0,0 +1,152 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockMetricsTest {
+
+    @Test
+    void acquisitions() throws Exception {
+        final var metrics = LockMetrics.<Integer>create();
+        final var locks = Locks.reentrant(false, CleanupStrategy.callingThread(), metrics);
+
+        locks.lock(1).unlock();
+        locks.tryLock(1).orElseThrow().unlock();
+        locks.tryLock(1, 1, TimeUnit.SECONDS).orElseThrow().unlock();
+        locks.lockInterruptibly(1).unlock();
+
+        assertEquals(4, metrics.getAcquisitions());
+        assertEquals(0, metrics.getContendedAcquisitions());
+        assertEquals(4, metrics.getWaitTimes().getCount());
+        assertEquals(4, metrics.getWaitTimes().getCount(0));
+        assertEquals(1, metrics.getCreations());
+        // not measured without a LockHandle
+        assertEquals(0, metrics.getHoldTimes().getCount());
+
+        final var lock = locks.lock(2);
+        try {
+            final var future = CompletableFuture.runAsync(() -> locks.lock(2).unlock());
+            await().atMost(10, TimeUnit.SECONDS).until(lock::hasQueuedThreads);
+            assertFalse(CompletableFuture.supplyAsync(() -> locks.tryLock(2).isPresent()).get(10, TimeUnit.SECONDS));
+            lock.unlock();
+            future.get(10, TimeUnit.SECONDS);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+
+        assertEquals(6, metrics.getAcquisitions());
+        assertEquals(1, metrics.getContendedAcquisitions());
+        assertTrue(metrics.getWaitTimes().getTotalNanos() > 0);
+        assertEquals(2, metrics.getCreations());
+        // without per-key metrics there are no hot keys
+        assertEquals(List.of(), metrics.getHotKeys(10));
+    }
+
+    @Test
+    void holdTimes() throws InterruptedException {
+        final var metrics = LockMetrics.<Integer>create();
+        final var locks = ReadWriteLocks.reentrant(false, CleanupStrategy.callingThread(), metrics);
+
+        try (var ignored = locks.acquireWrite(1)) {
+            Thread.sleep(10);
+        }
+        try (var ignored = locks.readLockAll(List.of(1, 2))) {
+            assertEquals(3, metrics.getAcquisitions());
+        }
+
+        final var holdTimes = metrics.getHoldTimes();
+        assertEquals(3, holdTimes.getCount());
+        assertTrue(holdTimes.getTotalNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(holdTimes.getPercentileNanos(100) >= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    void evictions() {
+        final var metrics = LockMetrics.<Integer>create();
+        final var locks = Locks.withSupplier(ReentrantLock::new, CleanupStrategy.callingThread(), metrics);
+
+        for (int i = 0; i < 10; i++) {
+            locks.get(i);
+        }
+        assertEquals(10, metrics.getCreations());
+
+        System.gc();
+        await().atMost(30, TimeUnit.SECONDS).until(() -> locks.size() == 0);
+        assertEquals(10, metrics.getEvictions());
+    }
+
+    @Test
+    void hotKeys() {
+        final var metrics = LockMetrics.<Integer>perKey(10);
+        final var locks = Locks.reentrant(false, CleanupStrategy.callingThread(), metrics);
+
+        for (int key = 1; key <= 3; key++) {
+            for (int i = 0; i < key; i++) {
+                locks.lock(key).unlock();
+            }
+        }
+
+        final var hotKeys = metrics.getHotKeys(2);
+        assertEquals(2, hotKeys.size());
+        assertEquals(3, hotKeys.get(0).getKey());
+        assertEquals(3, hotKeys.get(0).getAcquisitions());
+        assertEquals(0, hotKeys.get(0).getContendedAcquisitions());
+        assertEquals(2, hotKeys.get(1).getKey());
+    }
+
+    @Test
+    void hotKeys_pruned() {
+        final var metrics = LockMetrics.<Integer>perKey(10);
+        final var locks = Locks.reentrant(false, CleanupStrategy.callingThread(), metrics);
+
+        for (int i = 0; i < 5; i++) {
+            locks.lock(0).unlock();
+        }
+        for (int key = 1; key <= 100; key++) {
+            locks.lock(key).unlock();
+        }
+
+        final var hotKeys = metrics.getHotKeys(100);
+        assertTrue(hotKeys.size() <= 10);
+        assertEquals(0, hotKeys.get(0).getKey());
+        assertEquals(5, hotKeys.get(0).getAcquisitions());
+    }
+
+    @Test
+    void perKey_invalidMaxKeys() {
+        assertThrows(IllegalArgumentException.class, () -> LockMetrics.perKey(0));
+    }
+
+    @Test
+    void latencyHistogram() {
+        final var histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getPercentileNanos(50));
+
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(1000);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(4, histogram.getCount());
+        assertEquals(1, histogram.getCount(0));
+        assertEquals(1, histogram.getCount(1));
+        assertEquals(1, histogram.getCount(histogram.getBuckets() - 1));
+        assertEquals(0, histogram.getPercentileNanos(25));
+        assertEquals(1, histogram.getPercentileNanos(50));
+        assertEquals(1023, histogram.getPercentileNanos(75));
+        assertEquals(Long.MAX_VALUE, histogram.getPercentileNanos(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(101));
+        assertThrows(IndexOutOfBoundsException.class, () -> histogram.getUpperBoundNanos(histogram.getBuckets()));
+    }
+
+}
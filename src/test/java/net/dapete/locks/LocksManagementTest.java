@@ -0,0 +1,120 @@
+package net.dapete.locks;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocksManagementTest {
+
+    @Test
+    void registerMBean() throws Exception {
+        final var locks = Locks.reentrant(Integer.class);
+        final var objectName = LocksManagement.registerMBean(locks, "test");
+        try {
+            assertEquals(new ObjectName("net.dapete.locks:type=ReentrantLocks,name=\"test\""), objectName);
+            assertThrows(IllegalStateException.class, () -> LocksManagement.registerMBean(locks, "test"));
+
+            final var mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            final var lock = locks.lock(1);
+            try {
+                locks.get(2);
+                final var future = CompletableFuture.runAsync(() -> locks.lock(1).unlock());
+                await().atMost(10, TimeUnit.SECONDS).until(lock::hasQueuedThreads);
+
+                assertEquals(2, mbeanServer.getAttribute(objectName, "Size"));
+                assertEquals(2L, mbeanServer.getAttribute(objectName, "Creations"));
+                assertEquals(1, mbeanServer.getAttribute(objectName, "HeldLocks"));
+                assertEquals(1, mbeanServer.getAttribute(objectName, "QueuedThreads"));
+                assertEquals(0, mbeanServer.getAttribute(objectName, "PendingRemovals"));
+                assertTrue((Double) mbeanServer.getAttribute(objectName, "CreationRate") >= 0);
+
+                lock.unlock();
+                future.get(10, TimeUnit.SECONDS);
+            } finally {
+                if (lock.isHeldByCurrentThread()) {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            LocksManagement.unregisterMBean(objectName);
+        }
+        assertThrows(IllegalStateException.class, () -> LocksManagement.unregisterMBean(objectName));
+    }
+
+    @Test
+    void registerMBean_readWrite() throws Exception {
+        final var locks = ReadWriteLocks.reentrant(Integer.class);
+        final var objectName = LocksManagement.registerMBean(locks, "test");
+        try {
+            final var lock = locks.readLock(1);
+            try {
+                assertEquals(1, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "HeldLocks"));
+            } finally {
+                lock.readLock().unlock();
+            }
+            assertEquals(0, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "HeldLocks"));
+        } finally {
+            LocksManagement.unregisterMBean(objectName);
+        }
+    }
+
+    @Test
+    void keyLockWaitEvent_isEnabled() {
+        final var waitEvents = LockWaitEvents.getInstance();
+        assertFalse(waitEvents.isEnabled());
+        assertNull(waitEvents.begin());
+
+        try (var recording = new Recording()) {
+            recording.enable("net.dapete.locks.KeyLockWait");
+            recording.start();
+            assertTrue(waitEvents.isEnabled());
+            assertNotNull(waitEvents.begin());
+        }
+
+        assertFalse(waitEvents.isEnabled());
+    }
+
+    @Test
+    void keyLockWaitEvent(@TempDir Path tempDir) throws Exception {
+        final var locks = Locks.reentrant(String.class);
+        final var recordingFile = tempDir.resolve("recording.jfr");
+
+        try (var recording = new Recording()) {
+            recording.enable("net.dapete.locks.KeyLockWait").withThreshold(Duration.ZERO);
+            recording.start();
+
+            final var lock = locks.lock("key");
+            final CompletableFuture<Void> future;
+            try {
+                future = CompletableFuture.runAsync(() -> locks.lock("key").unlock());
+                await().atMost(10, TimeUnit.SECONDS).until(lock::hasQueuedThreads);
+            } finally {
+                lock.unlock();
+            }
+            future.get(10, TimeUnit.SECONDS);
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        final var events = RecordingFile.readAllEvents(recordingFile);
+        assertEquals(1, events.size());
+        final var event = events.get(0);
+        assertEquals("net.dapete.locks.KeyLockWait", event.getEventType().getName());
+        assertEquals("key", event.getString("key"));
+        assertEquals("key".hashCode(), event.getInt("keyHashCode"));
+        assertFalse(event.getDuration().isNegative());
+    }
+
+}
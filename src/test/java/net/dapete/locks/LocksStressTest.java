@@ -0,0 +1,338 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests running many threads against the same keys. These take a while and are only run in the {@code stress} profile.
+ */
+@Tag("stress")
+class LocksStressTest {
+
+    private static final int THREADS = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+
+    private static final int KEYS = 16;
+
+    private static final int ITERATIONS = 200_000;
+
+    private static final long TIMEOUT_SECONDS = 120;
+
+    /**
+     * Access to the instance under test, which hides the differences between the APIs.
+     */
+    private interface Locking {
+
+        Lock lock(Integer key);
+
+        void unlock(Integer key, Lock lock);
+
+    }
+
+    static Stream<Locking> lockings() {
+        final ReentrantLocks<Integer> reentrant = Locks.reentrant();
+        final ReentrantLocks<Integer> daemonThread = Locks.reentrant(false, CleanupStrategy.daemonThread());
+        final ReferenceCountedLocks<Integer, ReentrantLock> referenceCounted = Locks.referenceCounted(LockPool.reentrant(4));
+        final ElidingLocks<Integer> eliding = Locks.eliding();
+        final Locks<Integer, ReentrantLock> striped = Locks.striped(4);
+        final ReentrantReadWriteLocks<Integer> readWrite = ReadWriteLocks.reentrant();
+        final ReadWriteLocks<Integer, ReaderBiasedReadWriteLock> readerBiased = ReadWriteLocks.readerBiased();
+        final ReadWriteLocks<Integer, WritePreferringReadWriteLock> writePreferring = ReadWriteLocks.writePreferring();
+        return Stream.of(
+                locking("reentrant", reentrant::lock, (key, lock) -> lock.unlock()),
+                locking("daemonThread", daemonThread::lock, (key, lock) -> lock.unlock()),
+                locking("referenceCounted", referenceCounted::lock, (key, lock) -> referenceCounted.unlock(key)),
+                locking("eliding", eliding::lock, (key, lock) -> lock.unlock()),
+                locking("striped", striped::lock, (key, lock) -> lock.unlock()),
+                locking("readWrite", key -> readWrite.writeLock(key).writeLock(), (key, lock) -> lock.unlock()),
+                locking("readerBiased", key -> readerBiased.writeLock(key).writeLock(), (key, lock) -> lock.unlock()),
+                locking("writePreferring", key -> writePreferring.writeLock(key).writeLock(), (key, lock) -> lock.unlock()));
+    }
+
+    private static Locking locking(String name, Function<Integer, Lock> lock, BiConsumer<Integer, Lock> unlock) {
+        return new Locking() {
+
+            @Override
+            public Lock lock(Integer key) {
+                return lock.apply(key);
+            }
+
+            @Override
+            public void unlock(Integer key, Lock lockToUnlock) {
+                unlock.accept(key, lockToUnlock);
+            }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+
+        };
+    }
+
+    /**
+     * Checks that at most one thread at a time is inside the critical section for each key, while locks are constantly created and collected.
+     */
+    @ParameterizedTest
+    @MethodSource("lockings")
+    void mutualExclusionPerKey(Locking locking) throws Exception {
+        final var inside = new AtomicIntegerArray(KEYS);
+        // not thread-safe on purpose, a lost update would show a missing happens-before relationship
+        final var counters = new int[KEYS];
+        final var violations = new AtomicIntegerArray(1);
+        final var running = new AtomicBoolean(true);
+
+        final var gcThread = new Thread(() -> {
+            while (running.get()) {
+                System.gc();
+                sleep(5);
+            }
+        });
+        gcThread.start();
+        try {
+            runInThreads(() -> {
+                final var random = ThreadLocalRandom.current();
+                for (int i = 0; i < ITERATIONS / THREADS; i++) {
+                    final Integer key = random.nextInt(KEYS);
+                    final var lock = locking.lock(key);
+                    try {
+                        if (inside.getAndIncrement(key) != 0) {
+                            violations.incrementAndGet(0);
+                        }
+                        counters[key]++;
+                        inside.decrementAndGet(key);
+                    } finally {
+                        locking.unlock(key, lock);
+                    }
+                }
+            });
+        } finally {
+            running.set(false);
+            gcThread.join();
+        }
+
+        assertEquals(0, violations.get(0));
+        int total = 0;
+        for (final int counter : counters) {
+            total += counter;
+        }
+        assertEquals(ITERATIONS / THREADS * THREADS, total);
+    }
+
+    static Stream<ReadWriteLocks<Integer, ?>> readWriteLocks() {
+        return Stream.of(ReadWriteLocks.reentrant(), ReadWriteLocks.readerBiased(), ReadWriteLocks.writePreferring());
+    }
+
+    /**
+     * Checks that readers never see a writer for the same key, and writers never see readers or another writer, with one writer per four readers.
+     */
+    @ParameterizedTest
+    @MethodSource("readWriteLocks")
+    void readersExcludeWriters(ReadWriteLocks<Integer, ?> locks) throws Exception {
+        final var readers = new AtomicIntegerArray(KEYS);
+        final var writers = new AtomicIntegerArray(KEYS);
+        final var violations = new AtomicIntegerArray(1);
+
+        runInThreads(() -> {
+            final var random = ThreadLocalRandom.current();
+            for (int i = 0; i < ITERATIONS / THREADS; i++) {
+                final Integer key = random.nextInt(KEYS);
+                if (random.nextInt(5) == 0) {
+                    final var lock = locks.writeLock(key).writeLock();
+                    try {
+                        if (writers.getAndIncrement(key) != 0 || readers.get(key) != 0) {
+                            violations.incrementAndGet(0);
+                        }
+                        writers.decrementAndGet(key);
+                    } finally {
+                        lock.unlock();
+                    }
+                } else {
+                    final var lock = locks.readLock(key).readLock();
+                    try {
+                        readers.incrementAndGet(key);
+                        if (writers.get(key) != 0) {
+                            violations.incrementAndGet(0);
+                        }
+                        readers.decrementAndGet(key);
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        });
+
+        assertEquals(0, violations.get(0));
+    }
+
+    /**
+     * Races {@code get} against the removal of a cleared reference for the same key, like {@code jcstress} would: in each round, one thread clears and
+     * enqueues the reference to the lock from the previous round and removes it by calling {@code size()}, while another thread calls {@code get}. Either
+     * {@code get} wins and returns the old lock, whose reference is then removed, or it creates a new lock, whose reference must never be removed by the other
+     * thread.
+     */
+    @Test
+    void getRacesWithProcessQueue() throws Exception {
+        final var locks = new TestAbstractLocks();
+        final Integer key = 1;
+        final var barrier = new CyclicBarrier(2);
+        final int rounds = 20_000;
+
+        final var initialLock = locks.get(key);
+        final var executor = Executors.newFixedThreadPool(2);
+        try {
+            final var clearing = executor.submit(() -> {
+                for (int round = 0; round < rounds; round++) {
+                    // the other thread is waiting, so this is the reference to the lock it returned in the previous round
+                    final var lockReference = locks.getLockReference(key);
+                    barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    if (lockReference != null) {
+                        // this clears the reference, like the garbage collector would once the lock is unreachable
+                        lockReference.enqueue();
+                    }
+                    locks.size();
+                    barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                }
+                return null;
+            });
+            final var getting = executor.submit(() -> {
+                ReentrantLock previous = initialLock;
+                for (int round = 0; round < rounds; round++) {
+                    barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    final var lock = locks.get(key);
+                    barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    final var lockReference = locks.getLockReference(key);
+                    if (lock == previous) {
+                        // get won the race, so the old reference has been cleared and removed afterwards
+                        assertNull(lockReference);
+                    } else {
+                        // get created a new lock, which must still be the lock for the key
+                        assertNotNull(lockReference);
+                        assertSame(lock, lockReference.get());
+                    }
+                    previous = lock;
+                }
+                return null;
+            });
+            getting.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            clearing.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks that at most one lock exists per key while threads hold locks, even though references to other locks are cleared and removed concurrently.
+     */
+    @Test
+    void oneLockPerKeyWhileHeld() throws Exception {
+        final var locks = new TestAbstractLocks();
+        final var running = new AtomicBoolean(true);
+
+        final var gcThread = new Thread(() -> {
+            while (running.get()) {
+                System.gc();
+                locks.size();
+                sleep(1);
+            }
+        });
+        gcThread.start();
+        try {
+            runInThreads(() -> {
+                final var random = ThreadLocalRandom.current();
+                for (int i = 0; i < ITERATIONS / THREADS; i++) {
+                    final Integer key = random.nextInt(KEYS);
+                    final var lock = locks.get(key);
+                    // as long as this thread holds a strong reference, every other lookup must return the same lock
+                    assertSame(lock, locks.get(key));
+                    assertSame(lock, locks.getAll(List.of(key)).get(key));
+                }
+            });
+        } finally {
+            running.set(false);
+            gcThread.join();
+        }
+    }
+
+    /**
+     * Checks that no thread waiting for a lock is left waiting after all holders have released it.
+     */
+    @Test
+    void noLostWakeups() throws Exception {
+        final ReentrantLocks<Integer> locks = Locks.reentrant();
+        runInThreads(() -> {
+            for (int i = 0; i < ITERATIONS / THREADS; i++) {
+                final var lock = locks.lock(0);
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Checks that every future returned by {@link AsyncLocks#lock(Object)} is completed, if permits are released by different threads.
+     */
+    @Test
+    void noLostWakeupsAsync() throws Exception {
+        final var locks = AsyncLocks.<Integer>create();
+        final var executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final var futures = new ArrayList<CompletableFuture<Void>>();
+            for (int i = 0; i < ITERATIONS; i++) {
+                final Integer key = i % KEYS;
+                futures.add(CompletableFuture.supplyAsync(() -> locks.lock(key), executor)
+                        .thenCompose(future -> future)
+                        .thenAcceptAsync(Permit::release, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int key = 0; key < KEYS; key++) {
+            assertTrue(locks.tryLock(key).isPresent());
+        }
+    }
+
+    private static void runInThreads(Runnable runnable) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(runnable));
+            }
+            for (final var future : futures) {
+                future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
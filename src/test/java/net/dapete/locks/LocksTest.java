@@ -4,6 +4,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
@@ -72,6 +76,139 @@ class LocksTest {
         }
     }
 
+    @Test
+    void forVirtualThreads() {
+        final var locks = Locks.forVirtualThreads(Integer.class);
+
+        final var lock = locks.lock(1);
+        try {
+            assertTrue(lock.isHeldByCurrentThread());
+            assertFalse(lock.isFair());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    void adaptive() throws Exception {
+        final var locks = Locks.adaptive(Integer.class);
+
+        final var lock = locks.lock(1);
+        try {
+            assertTrue(lock.isHeldByCurrentThread());
+            assertFalse(lock.isFair());
+            assertSame(lock, locks.get(1));
+
+            final var acquired = CompletableFuture.supplyAsync(() -> lock.tryLock());
+            assertFalse(acquired.get(10, TimeUnit.SECONDS));
+        } finally {
+            lock.unlock();
+        }
+
+        final var acquired = CompletableFuture.supplyAsync(() -> {
+            lock.lock();
+            try {
+                return lock.isHeldByCurrentThread();
+            } finally {
+                lock.unlock();
+            }
+        });
+        assertTrue(acquired.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void adaptive_spinsStayWithinBounds() throws Exception {
+        final var lock = new AdaptiveLock();
+
+        lock.lock();
+        try {
+            // every attempt to spin fails while the lock is held
+            for (int i = 0; i < 20; i++) {
+                final var acquired = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return lock.tryLock(1, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                });
+                assertFalse(acquired.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        assertEquals(Math.min(AdaptiveLock.MIN_SPINS, AdaptiveLock.MAX_SPINS), lock.getSpins());
+    }
+
+    @Test
+    void eliding() {
+        final var locks = Locks.eliding(Integer.class);
+
+        final var lock = locks.lock(1);
+        try {
+            assertTrue(lock.isHeldByCurrentThread());
+            assertTrue(lock.tryLock());
+            lock.unlock();
+            assertTrue(lock.isHeldByCurrentThread());
+            assertFalse(lock.isInflated());
+            assertThrows(UnsupportedOperationException.class, lock::newCondition);
+        } finally {
+            lock.unlock();
+        }
+        assertFalse(lock.isLocked());
+        assertThrows(IllegalMonitorStateException.class, lock::unlock);
+        assertFalse(lock.isInflated());
+    }
+
+    @Test
+    void eliding_inflatesOnContention() throws Exception {
+        final var inflatedLock = new ReentrantLock();
+        final var locks = Locks.<Integer>elidingWithSupplier(() -> inflatedLock);
+
+        final AtomicBoolean threadHasLocked = new AtomicBoolean(false);
+
+        final var lock = locks.lock(1);
+        final CompletableFuture<Void> future;
+        try {
+            future = CompletableFuture.runAsync(() -> {
+                lock.lock();
+                try {
+                    threadHasLocked.set(true);
+                } finally {
+                    lock.unlock();
+                }
+            });
+            await().atMost(10, TimeUnit.SECONDS).until(inflatedLock::isLocked);
+            assertTrue(lock.isInflated());
+            assertFalse(threadHasLocked.get());
+            assertTrue(lock.isHeldByCurrentThread());
+        } finally {
+            lock.unlock();
+        }
+
+        future.get(10, TimeUnit.SECONDS);
+        assertTrue(threadHasLocked.get());
+        assertFalse(lock.isLocked());
+        assertFalse(inflatedLock.isLocked());
+
+        // a timed attempt gives up the inflated lock again
+        lock.lock();
+        try {
+            assertFalse(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return lock.tryLock(10, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return true;
+                }
+            }).get(10, TimeUnit.SECONDS));
+        } finally {
+            lock.unlock();
+        }
+        assertFalse(inflatedLock.isLocked());
+    }
+
     @ParameterizedTest
     @ValueSource(booleans = {true, false})
     void reentrant(boolean fair) {
@@ -96,4 +233,301 @@ class LocksTest {
         lock.unlock();
     }
 
+    @Test
+    void striped() {
+        final var locks = Locks.striped(3, Integer.class);
+
+        // rounded up to the next power of two
+        assertEquals(4, locks.size());
+
+        assertSame(locks.get(1), locks.get(1));
+        assertSame(locks.get(1), locks.get(5));
+        assertNotSame(locks.get(1), locks.get(2));
+
+        final var lock = locks.lock(1);
+        try {
+            assertTrue(lock.isHeldByCurrentThread());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0, (1 << 30) + 1})
+    void striped_invalidStripes(int stripes) {
+        assertThrows(IllegalArgumentException.class, () -> Locks.striped(stripes));
+    }
+
+    @Test
+    void referenceCounted() {
+        final var locks = Locks.referenceCounted(Integer.class);
+
+        final var lock = locks.lock(1);
+        assertTrue(lock.isLocked());
+        assertEquals(1, locks.size());
+
+        assertSame(lock, locks.lock(1));
+        assertSame(lock, locks.get(1));
+
+        locks.release(1);
+        locks.unlock(1);
+        assertEquals(1, locks.size());
+        assertTrue(lock.isLocked());
+
+        locks.unlock(1);
+        assertEquals(0, locks.size());
+        assertFalse(lock.isLocked());
+
+        assertNotSame(lock, locks.get(1));
+        locks.release(1);
+    }
+
+    @Test
+    void referenceCounted_releaseWithoutLock() {
+        final var locks = Locks.referenceCounted(Integer.class);
+
+        assertThrows(IllegalStateException.class, () -> locks.unlock(1));
+        assertThrows(IllegalStateException.class, () -> locks.release(1));
+    }
+
+    @Test
+    void acquire() {
+        final var locks = Locks.reentrant(Integer.class);
+
+        final ReentrantLock lock;
+        try (var handle = locks.acquire(1)) {
+            lock = handle.getLock();
+            assertEquals(1, handle.getKey());
+            assertTrue(lock.isHeldByCurrentThread());
+        }
+        assertFalse(lock.isLocked());
+    }
+
+    @Test
+    void acquire_referenceCounted() {
+        final var locks = Locks.referenceCounted(Integer.class);
+
+        try (var handle = locks.acquire(1)) {
+            assertTrue(handle.getLock().isHeldByCurrentThread());
+            assertEquals(1, locks.size());
+        }
+        assertEquals(0, locks.size());
+    }
+
+    @Test
+    void lockAll() {
+        final var locks = Locks.reentrant(Integer.class);
+
+        final List<ReentrantLock> lockList;
+        try (var handle = locks.lockAll(List.of(3, 1, 2, 1))) {
+            assertEquals(3, handle.getLocks().size());
+            lockList = List.copyOf(handle.getLocks().values());
+            for (final var lock : lockList) {
+                assertTrue(lock.isHeldByCurrentThread());
+                assertEquals(1, lock.getHoldCount());
+            }
+            assertSame(locks.get(2), handle.getLock(2));
+            assertThrows(IllegalArgumentException.class, () -> handle.getLock(4));
+        }
+        for (final var lock : lockList) {
+            assertFalse(lock.isLocked());
+        }
+    }
+
+    @Test
+    void lockAll_noDeadlockWithDifferentOrder() {
+        final var locks = Locks.reentrant(Integer.class);
+
+        final Runnable forward = () -> {
+            for (int i = 0; i < 10_000; i++) {
+                locks.lockAll(List.of(1, 2, 3)).close();
+            }
+        };
+        final Runnable backward = () -> {
+            for (int i = 0; i < 10_000; i++) {
+                locks.lockAll(List.of(3, 2, 1)).close();
+            }
+        };
+        assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> CompletableFuture.allOf(CompletableFuture.runAsync(forward), CompletableFuture.runAsync(backward)).join());
+    }
+
+    @Test
+    void lockAll_releasesLocksIfLockingFails() {
+        final var createdLocks = new ArrayList<ReentrantLock>();
+        final var locks = Locks.<Integer, ReentrantLock>referenceCountedWithSupplier(() -> {
+            // the second lock cannot be locked, like a DeadlockDetectingLock breaking a cycle
+            final var lock = createdLocks.size() == 1 ? new ReentrantLock() {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public void lock() {
+                    throw new IllegalStateException("cannot lock");
+                }
+
+            } : new ReentrantLock();
+            createdLocks.add(lock);
+            return lock;
+        });
+
+        final var exception = assertThrows(IllegalStateException.class, () -> locks.lockAll(List.of(1, 2, 3)));
+        assertEquals("cannot lock", exception.getMessage());
+        assertEquals(3, createdLocks.size());
+        for (final var lock : createdLocks) {
+            assertFalse(lock.isLocked());
+        }
+        assertEquals(0, locks.size());
+    }
+
+    @Test
+    void tryLockAll() throws Exception {
+        final var locks = Locks.referenceCounted(Integer.class);
+
+        final var lock2 = locks.lock(2);
+        try {
+            final var result = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return locks.tryLockAll(List.of(1, 2), 10, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }).get();
+            assertTrue(result.isEmpty());
+            // only the lock held by this thread is left
+            assertEquals(1, locks.size());
+            assertFalse(locks.get(1).isLocked());
+            locks.release(1);
+        } finally {
+            lock2.unlock();
+            locks.release(2);
+        }
+
+        final var result = locks.tryLockAll(List.of(1, 2), 10, TimeUnit.MILLISECONDS);
+        assertTrue(result.isPresent());
+        assertEquals(2, locks.size());
+        result.get().close();
+        assertEquals(0, locks.size());
+    }
+
+    @Test
+    void lockAll_striped() {
+        final var locks = Locks.striped(2, Integer.class);
+
+        // 1 and 3 share a lock, which must only be locked once
+        try (var handle = locks.lockAll(List.of(1, 2, 3))) {
+            assertSame(handle.getLock(1), handle.getLock(3));
+            assertEquals(1, handle.getLock(1).getHoldCount());
+        }
+    }
+
+    @Test
+    void tryLock() throws Exception {
+        final var locks = Locks.referenceCounted(Integer.class);
+
+        final var lock = locks.tryLock(1).orElseThrow();
+        try {
+            assertTrue(lock.isHeldByCurrentThread());
+
+            final var otherThreadResult = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return locks.tryLock(1).isPresent() || locks.tryLock(1, 10, TimeUnit.MILLISECONDS).isPresent();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }).get();
+            assertFalse(otherThreadResult);
+            // the failed attempts have been released
+            assertEquals(1, locks.size());
+        } finally {
+            locks.unlock(1);
+        }
+        assertEquals(0, locks.size());
+    }
+
+    @Test
+    void lockInterruptibly() throws Exception {
+        final var locks = Locks.reentrant(Integer.class);
+
+        final var lock = locks.lockInterruptibly(1);
+        try {
+            assertTrue(lock.isHeldByCurrentThread());
+
+            final var interrupted = new AtomicBoolean(false);
+            final var thread = new Thread(() -> {
+                try {
+                    locks.lockInterruptibly(1);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+            });
+            thread.start();
+            await().atMost(10, TimeUnit.SECONDS).until(lock::hasQueuedThreads);
+            thread.interrupt();
+            await().atMost(10, TimeUnit.SECONDS).untilTrue(interrupted);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    void getAll() {
+        final var locks = Locks.reentrant(Integer.class);
+
+        final var lock1 = locks.get(1);
+        final var all = locks.getAll(List.of(3, 1, 2, 1));
+        assertEquals(List.of(3, 1, 2), List.copyOf(all.keySet()));
+        assertSame(lock1, all.get(1));
+        assertSame(all.get(2), locks.get(2));
+        assertSame(all.get(3), locks.get(3));
+        assertThrows(UnsupportedOperationException.class, () -> all.remove(1));
+
+        final var striped = Locks.striped(1, Integer.class);
+        final var stripedAll = striped.getAll(List.of(1, 2));
+        assertSame(stripedAll.get(1), stripedAll.get(2));
+    }
+
+    @Test
+    void getAll_referenceCounted() {
+        final var locks = Locks.referenceCounted(Integer.class);
+
+        final var all = locks.getAll(List.of(1, 2, 1));
+        assertEquals(2, all.size());
+        assertEquals(2, locks.size());
+        locks.release(1);
+        locks.release(2);
+        assertEquals(0, locks.size());
+    }
+
+    @Test
+    void referenceCounted_pool() {
+        final var pool = LockPool.reentrant(4);
+        final var locks = Locks.<Integer>referenceCounted(pool);
+
+        final var lock = locks.lock(1);
+        locks.unlock(1);
+        assertEquals(0, locks.size());
+        assertEquals(1, pool.size());
+
+        // the removed lock is reused for a new key
+        assertSame(lock, locks.lock(2));
+        assertEquals(0, pool.size());
+        assertNotSame(lock, locks.get(1));
+        locks.release(1);
+        locks.unlock(2);
+        assertEquals(2, pool.size());
+
+        // a lock which is still locked is not reused
+        final var lock3 = locks.lock(3);
+        assertEquals(1, pool.size());
+        lock3.lock();
+        locks.release(3);
+        assertEquals(1, pool.size());
+        lock3.unlock();
+        lock3.unlock();
+
+        assertEquals(4, pool.getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> LockPool.reentrant(0));
+    }
+
 }
@@ -0,0 +1,135 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLocksTest {
+
+    @Test
+    void longLocks() throws Exception {
+        final var locks = LongLocks.reentrant();
+
+        final var lock = locks.lock(Long.MAX_VALUE);
+        try {
+            assertTrue(lock.isHeldByCurrentThread());
+            assertSame(lock, locks.get(Long.MAX_VALUE));
+            assertNotSame(lock, locks.get(0));
+            assertFalse(CompletableFuture.supplyAsync(() -> locks.tryLock(Long.MAX_VALUE).isPresent()).get(10, TimeUnit.SECONDS));
+            assertTrue(CompletableFuture.supplyAsync(() -> {
+                final var otherLock = locks.tryLock(Long.MIN_VALUE);
+                otherLock.ifPresent(ReentrantLock::unlock);
+                return otherLock.isPresent();
+            }).get(10, TimeUnit.SECONDS));
+        } finally {
+            lock.unlock();
+        }
+
+        locks.tryLock(1, 1, TimeUnit.SECONDS).orElseThrow().unlock();
+        locks.lockInterruptibly(1).unlock();
+        assertTrue(LongLocks.reentrant(true).get(1).isFair());
+    }
+
+    @Test
+    void intLocks() {
+        final var locks = IntLocks.reentrant();
+
+        final var lock = locks.lock(-1);
+        try {
+            assertSame(lock, locks.get(-1));
+            assertEquals(1, locks.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    void readWriteLocks() throws Exception {
+        final var locks = LongReadWriteLocks.reentrant();
+
+        final var lock = locks.readLock(1);
+        try {
+            assertSame(lock, locks.get(1));
+            locks.tryReadLock(1).orElseThrow().readLock().unlock();
+            assertFalse(CompletableFuture.supplyAsync(() -> locks.tryWriteLock(1).isPresent()).get(10, TimeUnit.SECONDS));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        locks.writeLock(1).writeLock().unlock();
+        locks.tryWriteLock(1, 1, TimeUnit.SECONDS).orElseThrow().writeLock().unlock();
+        locks.tryReadLock(1, 1, TimeUnit.SECONDS).orElseThrow().readLock().unlock();
+        IntReadWriteLocks.reentrant().writeLock(1).writeLock().unlock();
+    }
+
+    @Test
+    void locksAreReleasedWhenUnused() {
+        final var locks = IntLocks.reentrant();
+
+        for (int i = 0; i < 1000; i++) {
+            locks.get(i);
+        }
+
+        System.gc();
+        await().atMost(30, TimeUnit.SECONDS).until(() -> locks.size() == 0);
+    }
+
+    @Test
+    void lockTable_removeKeepsOtherKeys() {
+        final var lockTable = new LongLockTable<>(ReentrantLock::new);
+        final var locks = new ArrayList<ReentrantLock>();
+        for (int i = 0; i < 10_000; i++) {
+            locks.add(lockTable.get(i));
+        }
+        assertEquals(10_000, lockTable.size());
+
+        // clear and enqueue every other reference, which are removed by the next call
+        for (int i = 0; i < 10_000; i += 2) {
+            final var lockReference = lockTable.getLockReference(i);
+            assertNotNull(lockReference);
+            lockReference.enqueue();
+        }
+        assertEquals(5_000, lockTable.size());
+
+        for (int i = 1; i < 10_000; i += 2) {
+            assertSame(locks.get(i), lockTable.get(i));
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            assertNotSame(locks.get(i), lockTable.get(i));
+        }
+    }
+
+    @Test
+    void lockTable_concurrentGet() throws Exception {
+        final var lockTable = new LongLockTable<>(ReentrantLock::new);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final var futures = new ArrayList<Future<ReentrantLock[]>>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    final var result = new ReentrantLock[1000];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = lockTable.get(i * 31L);
+                    }
+                    return result;
+                }));
+            }
+            final var first = futures.get(0).get(30, TimeUnit.SECONDS);
+            for (final var future : futures) {
+                assertArrayEquals(first, future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
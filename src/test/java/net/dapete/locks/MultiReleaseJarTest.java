@@ -0,0 +1,63 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the classes in {@code src/main/java21}. These are only used from the packaged multi-release JAR, so they are run against it in the
+ * {@code integration-test} phase on JDK 21 and later.
+ */
+@Tag("multi-release")
+class MultiReleaseJarTest {
+
+    @Test
+    void startVirtualThreadIfSupported() throws Exception {
+        final var thread = ThreadSupport.startVirtualThreadIfSupported("test", () -> {
+        });
+        thread.join();
+
+        assertEquals(Runtime.version().feature() >= 21, isVirtual(thread));
+        assertTrue(thread.isDaemon());
+    }
+
+    @Test
+    void startDaemonThread() throws Exception {
+        final var thread = ThreadSupport.startDaemonThread("test", () -> {
+        });
+        thread.join();
+
+        assertFalse(isVirtual(thread));
+        assertTrue(thread.isDaemon());
+        assertEquals("test", thread.getName());
+    }
+
+    @Test
+    void forVirtualThreads() {
+        final var locks = Locks.forVirtualThreads(Integer.class);
+
+        for (int i = 0; i < 10; i++) {
+            locks.lock(i).unlock();
+        }
+
+        // the virtual cleanup thread removes the locks once they have been collected
+        await().atMost(10, TimeUnit.SECONDS).until(() -> {
+            System.gc();
+            return locks.stats().getSize() == 0;
+        });
+    }
+
+    private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        try {
+            return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (NoSuchMethodException e) {
+            // before Java 21
+            return false;
+        }
+    }
+
+}
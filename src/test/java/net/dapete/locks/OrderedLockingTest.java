@@ -0,0 +1,64 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderedLockingTest {
+
+    @Test
+    void lockAll_tieLockIsUsedForSameOrder() {
+        final var locks = new LinkedHashMap<Integer, ReentrantLock>();
+        locks.put(1, new ReentrantLock());
+        locks.put(2, new ReentrantLock());
+        final var tieLock = new ReentrantLock() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void lock() {
+                super.lock();
+                // all locks are locked while holding the tie lock
+                locks.values().forEach(lock -> assertFalse(lock.isLocked()));
+            }
+
+        };
+
+        try (var handle = OrderedLocking.lockAll(locks, (key, lock) -> 0, lock -> lock, null, tieLock)) {
+            assertTrue(handle.getLock(1).isHeldByCurrentThread());
+            assertTrue(handle.getLock(2).isHeldByCurrentThread());
+            // the tie lock is only held while locking
+            assertFalse(tieLock.isLocked());
+        }
+    }
+
+    @Test
+    void lockAll_noTieLock() {
+        final var locks = new LinkedHashMap<Integer, ReentrantLock>();
+        locks.put(1, new ReentrantLock());
+        locks.put(2, new ReentrantLock());
+
+        assertThrows(IllegalStateException.class, () -> OrderedLocking.lockAll(locks, (key, lock) -> 0, lock -> lock, null, null));
+    }
+
+    @Test
+    void tryLockAll_unlocksOnTimeout() throws Exception {
+        final var locks = new LinkedHashMap<Integer, ReentrantLock>();
+        locks.put(1, new ReentrantLock());
+        locks.put(2, new ReentrantLock());
+
+        final var thread = new Thread(() -> locks.get(2).lock());
+        thread.start();
+        thread.join();
+
+        final var result = OrderedLocking.tryLockAll(locks, (key, lock) -> key, lock -> lock, null, null, 10, TimeUnit.MILLISECONDS);
+
+        assertTrue(result.isEmpty());
+        assertFalse(locks.get(1).isLocked());
+    }
+
+}
@@ -4,7 +4,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
@@ -107,4 +111,215 @@ class ReadWriteLocksTest {
         lock.writeLock().unlock();
     }
 
+    @Test
+    void readerBiased() throws Exception {
+        final var locks = ReadWriteLocks.readerBiased(Integer.class);
+
+        final var lock = locks.readLock(1);
+        try {
+            assertEquals(1, lock.getReadLockCount());
+            assertTrue(CompletableFuture.supplyAsync(() -> {
+                final boolean acquired = lock.readLock().tryLock();
+                if (acquired) {
+                    lock.readLock().unlock();
+                }
+                return acquired;
+            }).get(10, TimeUnit.SECONDS));
+            assertFalse(CompletableFuture.supplyAsync(() -> lock.writeLock().tryLock()).get(10, TimeUnit.SECONDS));
+
+            // another thread cannot unlock the read lock held by this thread, even if it uses the same slot
+            final var unlockInOtherThread = CompletableFuture.runAsync(() -> lock.readLock().unlock());
+            final var exception = assertThrows(ExecutionException.class, () -> unlockInOtherThread.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalMonitorStateException.class, exception.getCause());
+            assertEquals(1, lock.getReadLockCount());
+        } finally {
+            lock.readLock().unlock();
+        }
+        assertEquals(0, lock.getReadLockCount());
+        assertThrows(IllegalMonitorStateException.class, () -> lock.readLock().unlock());
+        assertThrows(UnsupportedOperationException.class, () -> lock.readLock().newCondition());
+
+        // the writer waits for the reader and may then downgrade to a read lock
+        locks.readLock(1);
+        final var writing = CompletableFuture.runAsync(() -> {
+            lock.writeLock().lock();
+            try {
+                assertTrue(lock.isWriteLockedByCurrentThread());
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lock.readLock().unlock();
+        });
+        await().atMost(10, TimeUnit.SECONDS).until(lock::isWriteLocked);
+        assertFalse(writing.isDone());
+        assertFalse(CompletableFuture.supplyAsync(() -> lock.readLock().tryLock()).get(10, TimeUnit.SECONDS));
+        lock.readLock().unlock();
+        writing.get(10, TimeUnit.SECONDS);
+        assertFalse(lock.isWriteLocked());
+        assertEquals(0, lock.getReadLockCount());
+
+        // read holds of several instances held at the same time are counted separately
+        final var lock2 = locks.readLock(2);
+        final var lock3 = locks.readLock(3);
+        locks.readLock(2);
+        assertThrows(IllegalMonitorStateException.class, () -> lock.readLock().unlock());
+        lock2.readLock().unlock();
+        lock2.readLock().unlock();
+        assertThrows(IllegalMonitorStateException.class, () -> lock2.readLock().unlock());
+        lock3.readLock().unlock();
+        assertThrows(IllegalMonitorStateException.class, () -> lock3.readLock().unlock());
+        assertEquals(0, lock2.getReadLockCount());
+        assertEquals(0, lock3.getReadLockCount());
+    }
+
+    @Test
+    void writePreferring() throws Exception {
+        final var locks = ReadWriteLocks.writePreferring(Integer.class);
+
+        final var lock = locks.readLock(1);
+        final var writing = CompletableFuture.runAsync(() -> locks.writeLock(1).writeLock().unlock());
+        await().atMost(10, TimeUnit.SECONDS).until(() -> lock.getWaitingWriters() == 1);
+
+        // new readers wait for the writer, but the current reader may acquire the read lock again
+        assertFalse(CompletableFuture.supplyAsync(() -> lock.readLock().tryLock()).get(10, TimeUnit.SECONDS));
+        assertTrue(lock.readLock().tryLock());
+        assertEquals(2, lock.getReadLockCount());
+        lock.readLock().unlock();
+        assertFalse(writing.isDone());
+        final var reading = CompletableFuture.runAsync(() -> {
+            lock.readLock().lock();
+            lock.readLock().unlock();
+        });
+        assertThrows(TimeoutException.class, () -> reading.get(100, TimeUnit.MILLISECONDS));
+
+        lock.readLock().unlock();
+        writing.get(10, TimeUnit.SECONDS);
+        reading.get(10, TimeUnit.SECONDS);
+        assertEquals(0, lock.getWaitingWriters());
+        assertFalse(lock.isWriteLocked());
+
+        // the writer may downgrade to a read lock
+        lock.writeLock().lock();
+        lock.readLock().lock();
+        lock.writeLock().unlock();
+        assertEquals(1, lock.getReadLockCount());
+        lock.readLock().unlock();
+        assertThrows(IllegalMonitorStateException.class, () -> lock.readLock().unlock());
+        assertThrows(IllegalMonitorStateException.class, () -> lock.writeLock().unlock());
+    }
+
+    @Test
+    void striped() {
+        final var locks = ReadWriteLocks.striped(16, Integer.class);
+
+        assertEquals(16, locks.size());
+
+        assertSame(locks.get(1), locks.get(17));
+
+        final var lock = locks.writeLock(1);
+        try {
+            assertTrue(lock.isWriteLockedByCurrentThread());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Test
+    void referenceCounted() {
+        final var locks = ReadWriteLocks.referenceCounted(Integer.class);
+
+        final var lock = locks.readLock(1);
+        assertSame(lock, locks.readLock(1));
+        assertEquals(2, lock.getReadLockCount());
+        assertEquals(1, locks.size());
+
+        locks.unlockRead(1);
+        locks.unlockRead(1);
+        assertEquals(0, lock.getReadLockCount());
+        assertEquals(0, locks.size());
+
+        final var lock2 = locks.writeLock(1);
+        assertNotSame(lock, lock2);
+        assertTrue(lock2.isWriteLocked());
+
+        locks.unlockWrite(1);
+        assertFalse(lock2.isWriteLocked());
+        assertEquals(0, locks.size());
+    }
+
+    @Test
+    void acquireRead() {
+        final var locks = ReadWriteLocks.reentrant(Integer.class);
+
+        final ReentrantReadWriteLock lock;
+        try (var handle = locks.acquireRead(1)) {
+            lock = handle.getLock();
+            assertEquals(1, lock.getReadHoldCount());
+        }
+        assertEquals(0, lock.getReadLockCount());
+    }
+
+    @Test
+    void acquireWrite() {
+        final var locks = ReadWriteLocks.referenceCounted(Integer.class);
+
+        final ReentrantReadWriteLock lock;
+        try (var handle = locks.acquireWrite(1)) {
+            lock = handle.getLock();
+            assertTrue(lock.isWriteLockedByCurrentThread());
+            assertEquals(1, locks.size());
+        }
+        assertFalse(lock.isWriteLocked());
+        assertEquals(0, locks.size());
+    }
+
+    @Test
+    void readLockAll() {
+        final var locks = ReadWriteLocks.reentrant(Integer.class);
+
+        try (var handle = locks.readLockAll(List.of(1, 2))) {
+            assertEquals(1, handle.getLock(1).getReadHoldCount());
+            assertEquals(1, handle.getLock(2).getReadHoldCount());
+        }
+        assertEquals(0, locks.get(1).getReadLockCount());
+    }
+
+    @Test
+    void tryWriteLockAll() throws Exception {
+        final var locks = ReadWriteLocks.reentrant(Integer.class);
+
+        final var result = locks.tryWriteLockAll(List.of(1, 2), 10, TimeUnit.MILLISECONDS);
+        assertTrue(result.isPresent());
+        try (var handle = result.get()) {
+            assertTrue(handle.getLock(1).isWriteLockedByCurrentThread());
+            assertTrue(handle.getLock(2).isWriteLockedByCurrentThread());
+        }
+    }
+
+    @Test
+    void tryReadLockAndTryWriteLock() throws Exception {
+        final var locks = ReadWriteLocks.referenceCounted(Integer.class);
+
+        final var lock = locks.tryReadLock(1).orElseThrow();
+        assertSame(lock, locks.tryReadLock(1, 10, TimeUnit.MILLISECONDS).orElseThrow());
+        // cannot upgrade a read lock
+        assertTrue(locks.tryWriteLock(1).isEmpty());
+        assertEquals(2, lock.getReadHoldCount());
+
+        locks.unlockRead(1);
+        locks.unlockRead(1);
+        assertEquals(0, locks.size());
+
+        final var writeLock = locks.writeLockInterruptibly(1);
+        assertTrue(writeLock.isWriteLockedByCurrentThread());
+        // downgrading is possible
+        assertSame(writeLock, locks.readLockInterruptibly(1));
+        locks.unlockRead(1);
+        assertSame(writeLock, locks.tryWriteLock(1, 10, TimeUnit.MILLISECONDS).orElseThrow());
+        locks.unlockWrite(1);
+        locks.unlockWrite(1);
+        assertEquals(0, locks.size());
+    }
+
 }
@@ -0,0 +1,91 @@
+package net.dapete.locks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StampedLocksTest {
+
+    @Test
+    void readLock() throws Exception {
+        final var locks = ReadWriteLocks.stamped(Integer.class);
+
+        try (var stamp = locks.readLock(1)) {
+            assertFalse(stamp.isOptimisticRead());
+            assertTrue(stamp.getLock().isReadLocked());
+            assertSame(stamp.getLock(), locks.get(1));
+            // other readers are not blocked, writers are
+            CompletableFuture.runAsync(() -> locks.tryReadLock(1).orElseThrow().close()).get(10, TimeUnit.SECONDS);
+            assertTrue(CompletableFuture.supplyAsync(() -> locks.tryWriteLock(1).isEmpty()).get(10, TimeUnit.SECONDS));
+        }
+
+        try (var stamp = locks.tryWriteLock(1, 10, TimeUnit.SECONDS).orElseThrow()) {
+            assertTrue(stamp.getLock().isWriteLocked());
+        }
+        assertFalse(locks.get(1).isWriteLocked());
+    }
+
+    @Test
+    void writeLock() throws Exception {
+        final var locks = ReadWriteLocks.<Integer>stamped();
+
+        try (var stamp = locks.writeLock(1)) {
+            assertTrue(stamp.getLock().isWriteLocked());
+            assertTrue(CompletableFuture.supplyAsync(() -> locks.tryReadLock(1).isEmpty()).get(10, TimeUnit.SECONDS));
+            assertTrue(CompletableFuture.supplyAsync(() -> locks.tryWriteLock(1).isEmpty()).get(10, TimeUnit.SECONDS));
+            // other keys are not affected
+            locks.writeLockInterruptibly(2).close();
+        }
+
+        locks.readLockInterruptibly(1).close();
+    }
+
+    @Test
+    void tryOptimisticRead() {
+        final var locks = ReadWriteLocks.stamped(CleanupStrategy.callingThread());
+
+        final var stamp = locks.tryOptimisticRead(1);
+        assertTrue(stamp.isOptimisticRead());
+        assertTrue(stamp.validate());
+        // closing an optimistic read stamp does nothing
+        stamp.close();
+
+        // readers do not invalidate the stamp, writers do
+        locks.readLock(1).close();
+        assertTrue(stamp.validate());
+        locks.writeLock(1).close();
+        assertFalse(stamp.validate());
+
+        try (var ignored = locks.writeLock(1)) {
+            assertFalse(locks.tryOptimisticRead(1).validate());
+        }
+    }
+
+    @Test
+    void optimisticRead() {
+        final var locks = ReadWriteLocks.stamped(Integer.class);
+        final var calls = new AtomicInteger();
+
+        assertEquals("value", locks.optimisticRead(1, () -> {
+            calls.incrementAndGet();
+            return "value";
+        }));
+        assertEquals(1, calls.get());
+
+        // a write during the optimistic read makes it retry with the read lock
+        assertEquals("value", locks.optimisticRead(1, () -> {
+            if (calls.incrementAndGet() == 2) {
+                assertDoesNotThrow(() -> CompletableFuture.runAsync(() -> locks.writeLock(1).close()).get(10, TimeUnit.SECONDS));
+            } else {
+                assertTrue(locks.get(1).isReadLocked());
+            }
+            return "value";
+        }));
+        assertEquals(3, calls.get());
+    }
+
+}
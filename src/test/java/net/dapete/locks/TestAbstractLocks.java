@@ -0,0 +1,30 @@
+package net.dapete.locks;
+
+import org.jspecify.annotations.NonNull;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Minimal subclass of {@link AbstractLocks} for tests of the base class.
+ */
+final class TestAbstractLocks extends AbstractLocks<@NonNull Integer, @NonNull ReentrantLock> {
+
+    TestAbstractLocks() {
+        super(ReentrantLock::new);
+    }
+
+    TestAbstractLocks(CleanupStrategy cleanupStrategy) {
+        super(ReentrantLock::new, cleanupStrategy);
+    }
+
+    /**
+     * Clears the reference to the lock for a key, as if it had been collected.
+     */
+    void clearLockReference(Integer key) {
+        final var lockReference = getLockReference(key);
+        if (lockReference != null) {
+            lockReference.clear();
+        }
+    }
+
+}